@@ -0,0 +1,49 @@
+package com.github.sbugat.rundeckmonitor;
+
+/**
+ * Refresh delay adapted to the rundeck activity:
+ * the configured refresh delay is used while executions are running and the delay is doubled on each idle update until the maximum refresh delay
+ *
+ * @author Sylvain Bugat
+ *
+ */
+public class AdaptiveRefreshDelay {
+
+	/**Minimal delay between 2 updates in milliseconds*/
+	private static final long MINIMAL_DELAY = 1000L;
+
+	/**Current refresh delay in milliseconds without the late executions adjustment, 0 before the first update*/
+	private long currentDelay;
+
+	/**
+	 * Compute the delay before the next update
+	 *
+	 * @param refreshDelay configured refresh delay in seconds, used as minimum
+	 * @param maximumRefreshDelay maximum refresh delay in seconds when rundeck is idle
+	 * @param activity true if executions are running or new failed executions are found
+	 * @param nextLateExecutionTime local time when the next running execution will be late, Long.MAX_VALUE if there is none
+	 * @return delay before the next update in milliseconds
+	 */
+	public long nextDelay( final int refreshDelay, final int maximumRefreshDelay, final boolean activity, final long nextLateExecutionTime ) {
+
+		final long minimumDelay = refreshDelay * 1000L;
+		final long maximumDelay = Math.max( minimumDelay, maximumRefreshDelay * 1000L );
+
+		if( activity || 0 == currentDelay ) {
+			currentDelay = minimumDelay;
+		}
+		else {
+			currentDelay = Math.min( maximumDelay, currentDelay * 2 );
+		}
+
+		//The configuration can have changed since the last update
+		currentDelay = Math.max( minimumDelay, Math.min( maximumDelay, currentDelay ) );
+
+		//Update just after the next running execution becomes late
+		if( Long.MAX_VALUE != nextLateExecutionTime ) {
+			return Math.min( currentDelay, Math.max( MINIMAL_DELAY, nextLateExecutionTime - System.currentTimeMillis() ) );
+		}
+
+		return currentDelay;
+	}
+}
@@ -18,14 +18,15 @@ public class JobExecutionInfo {
 
 	private final boolean longExecution;
 
-	private final boolean newJob;
+	/**URL of the rundeck server of this execution*/
+	private final String rundeckUrl;
 
-	public JobExecutionInfo( final Long executionIdArg, final Date startedAtArg, final String descriptionArg, final boolean longExecutionArg, final boolean newJobArg ){
+	public JobExecutionInfo( final Long executionIdArg, final Date startedAtArg, final String descriptionArg, final boolean longExecutionArg, final String rundeckUrlArg ){
 		executionId = executionIdArg;
 		startedAt =  new Date( startedAtArg.getTime() );
 		description = descriptionArg;
 		longExecution = longExecutionArg;
-		newJob = newJobArg;
+		rundeckUrl = rundeckUrlArg;
 	}
 
 	public Long getExecutionId() {
@@ -36,6 +37,15 @@ public class JobExecutionInfo {
 		return new Date( startedAt.getTime() );
 	}
 
+	/**
+	 * Get the start date without copy
+	 *
+	 * @return start date in milliseconds
+	 */
+	public long getStartedAtTime() {
+		return startedAt.getTime();
+	}
+
 	public String getDescription() {
 		return description;
 	}
@@ -44,7 +54,7 @@ public class JobExecutionInfo {
 		return longExecution;
 	}
 
-	public boolean isNewJob() {
-		return newJob;
+	public String getRundeckUrl() {
+		return rundeckUrl;
 	}
 }
@@ -0,0 +1,101 @@
+package com.github.sbugat.rundeckmonitor;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Circuit breaker of a rundeck server: after a failure no call is done until a retry time growing exponentially with the consecutive failures,
+ * then a cheap probe is done before resuming the full update
+ *
+ * @author Sylvain Bugat
+ *
+ */
+public class RundeckCircuitBreaker {
+
+	/**State of the circuit breaker*/
+	public enum State {
+
+		/**Server connected, all calls are done*/
+		CLOSED,
+		/**Server disconnected, no call until the retry time*/
+		OPEN,
+		/**Retry time reached, only a probe call is done*/
+		HALF_OPEN;
+	}
+
+	/**Maximum delay between 2 retries in milliseconds*/
+	private static final long MAXIMUM_RETRY_DELAY = 30L * 60L * 1000L;
+
+	/**Maximum exponent of the retry delay to avoid overflows*/
+	private static final int MAXIMUM_RETRY_EXPONENT = 16;
+
+	/**Retry delay after the first failure in milliseconds*/
+	private long minimumRetryDelay;
+
+	private State state = State.CLOSED;
+
+	/**Number of consecutive failed updates*/
+	private int consecutiveFailures;
+
+	/**Local time of the next retry when the circuit is open*/
+	private long retryTime;
+
+	public RundeckCircuitBreaker( final long minimumRetryDelayArg ) {
+		minimumRetryDelay = minimumRetryDelayArg;
+	}
+
+	/**
+	 * Get the state to use for the next calls, the circuit becomes half-open when the retry time is reached
+	 *
+	 * @param currentTime local time of the update
+	 * @return CLOSED if all calls can be done, HALF_OPEN if only a probe call can be done and OPEN if no call can be done
+	 */
+	public State beforeCalls( final long currentTime ) {
+
+		if( State.OPEN == state && currentTime >= retryTime ) {
+			state = State.HALF_OPEN;
+		}
+
+		return state;
+	}
+
+	/**
+	 * Close the circuit after a successful call
+	 */
+	public void recordSuccess() {
+
+		state = State.CLOSED;
+		consecutiveFailures = 0;
+	}
+
+	/**
+	 * Open the circuit after a failed call, the retry delay is doubled on each consecutive failure with a random jitter to spread the reconnections of all monitors
+	 *
+	 * @param currentTime local time of the failure
+	 */
+	public void recordFailure( final long currentTime ) {
+
+		consecutiveFailures++;
+
+		final long retryDelay = Math.max( minimumRetryDelay, Math.min( MAXIMUM_RETRY_DELAY, minimumRetryDelay << Math.min( consecutiveFailures - 1, MAXIMUM_RETRY_EXPONENT ) ) );
+
+		//Half of the delay is random
+		retryTime = currentTime + retryDelay / 2 + ThreadLocalRandom.current().nextLong( retryDelay / 2 + 1 );
+		state = State.OPEN;
+	}
+
+	public State getState() {
+		return state;
+	}
+
+	public long getRetryTime() {
+		return retryTime;
+	}
+
+	public int getConsecutiveFailures() {
+		return consecutiveFailures;
+	}
+
+	public void setMinimumRetryDelay( final long minimumRetryDelayArg ) {
+		minimumRetryDelay = minimumRetryDelayArg;
+	}
+}
@@ -0,0 +1,787 @@
+package com.github.sbugat.rundeckmonitor;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.rundeck.api.domain.RundeckExecution;
+import org.rundeck.api.domain.RundeckExecution.ExecutionStatus;
+import org.rundeck.api.domain.RundeckJob;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+
+import com.github.sbugat.rundeckmonitor.tools.ClockOffsetEstimator;
+import com.github.sbugat.rundeckmonitor.tools.ConditionalRequestCache;
+
+/**
+ * Rundeck executions API client used for the polled calls with token authentication,
+ * unchanged responses are detected by the conditional request cache and are not parsed again
+ *
+ * JSON responses are requested when the configured API version supports them, the client falls back to XML otherwise
+ *
+ * @author Sylvain Bugat
+ *
+ */
+public class RundeckExecutionsClient {
+
+	private static final String API_URL = "/api/"; //$NON-NLS-1$
+	private static final String EXECUTIONS_URL = "/executions?project="; //$NON-NLS-1$
+	private static final String RUNNING_EXECUTIONS_URL = "/executions/running?project="; //$NON-NLS-1$
+	private static final String FAILED_STATUS_PARAMETER = "&statusFilter=failed"; //$NON-NLS-1$
+	private static final String MAX_PARAMETER = "&max="; //$NON-NLS-1$
+	private static final String BEGIN_PARAMETER = "&begin="; //$NON-NLS-1$
+	private static final String SYSTEM_INFO_URL = "/system/info"; //$NON-NLS-1$
+	private static final String JSON_FORMAT_PARAMETER = "format=json"; //$NON-NLS-1$
+	private static final String URL_ENCODING = "UTF-8"; //$NON-NLS-1$
+
+	/**First API version returning JSON responses*/
+	private static final int JSON_MINIMUM_API_VERSION = 11;
+
+	private static final String AUTH_TOKEN_HEADER = "X-Rundeck-Auth-Token"; //$NON-NLS-1$
+	private static final String ACCEPT_HEADER = "Accept"; //$NON-NLS-1$
+	private static final String XML_CONTENT_TYPE = "text/xml"; //$NON-NLS-1$
+	private static final String JSON_CONTENT_TYPE = "application/json"; //$NON-NLS-1$
+
+	/**Elements and attributes of the executions XML responses*/
+	private static final String RESULT_ELEMENT = "result"; //$NON-NLS-1$
+	private static final String ERROR_ATTRIBUTE = "error"; //$NON-NLS-1$
+	private static final String MESSAGE_ELEMENT = "message"; //$NON-NLS-1$
+	private static final String EXECUTION_ELEMENT = "execution"; //$NON-NLS-1$
+	private static final String ID_ATTRIBUTE = "id"; //$NON-NLS-1$
+	private static final String HREF_ATTRIBUTE = "href"; //$NON-NLS-1$
+	private static final String STATUS_ATTRIBUTE = "status"; //$NON-NLS-1$
+	private static final String PROJECT_ATTRIBUTE = "project"; //$NON-NLS-1$
+	private static final String DATE_STARTED_ELEMENT = "date-started"; //$NON-NLS-1$
+	private static final String DATE_ENDED_ELEMENT = "date-ended"; //$NON-NLS-1$
+	private static final String UNIXTIME_ATTRIBUTE = "unixtime"; //$NON-NLS-1$
+	private static final String JOB_ELEMENT = "job"; //$NON-NLS-1$
+	private static final String NAME_ELEMENT = "name"; //$NON-NLS-1$
+	private static final String DESCRIPTION_ELEMENT = "description"; //$NON-NLS-1$
+	private static final String TIMESTAMP_ELEMENT = "timestamp"; //$NON-NLS-1$
+	private static final String EPOCH_ATTRIBUTE = "epoch"; //$NON-NLS-1$
+
+	/**Fields of the JSON responses*/
+	private static final String EXECUTIONS_FIELD = "executions"; //$NON-NLS-1$
+	private static final String ERROR_FIELD = "error"; //$NON-NLS-1$
+	private static final String MESSAGE_FIELD = "message"; //$NON-NLS-1$
+	private static final String ID_FIELD = "id"; //$NON-NLS-1$
+	private static final String HREF_FIELD = "href"; //$NON-NLS-1$
+	private static final String STATUS_FIELD = "status"; //$NON-NLS-1$
+	private static final String DATE_STARTED_FIELD = "date-started"; //$NON-NLS-1$
+	private static final String DATE_ENDED_FIELD = "date-ended"; //$NON-NLS-1$
+	private static final String UNIXTIME_FIELD = "unixtime"; //$NON-NLS-1$
+	private static final String JOB_FIELD = "job"; //$NON-NLS-1$
+	private static final String NAME_FIELD = "name"; //$NON-NLS-1$
+	private static final String DESCRIPTION_FIELD = "description"; //$NON-NLS-1$
+	private static final String SYSTEM_FIELD = "system"; //$NON-NLS-1$
+	private static final String TIMESTAMP_FIELD = "timestamp"; //$NON-NLS-1$
+	private static final String EPOCH_FIELD = "epoch"; //$NON-NLS-1$
+
+	/**Pull parser factory, DTD are disabled to avoid external entities resolution*/
+	private static final XMLInputFactory XML_INPUT_FACTORY = XMLInputFactory.newInstance();
+
+	static {
+		XML_INPUT_FACTORY.setProperty( XMLInputFactory.SUPPORT_DTD, Boolean.FALSE );
+		XML_INPUT_FACTORY.setProperty( XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE );
+	}
+
+	/**API root URL with the version*/
+	private final String rundeckApiUrl;
+
+	/**Headers of the XML and JSON requests*/
+	private final Map<String, String> xmlRequestHeaders;
+	private final Map<String, String> jsonRequestHeaders;
+
+	private final ConditionalRequestCache conditionalRequestCache;
+
+	/**Estimator of the server clock offset sampled with each response*/
+	private final ClockOffsetEstimator clockOffsetEstimator;
+
+	/**Indicate if JSON responses are requested, disabled when the server does not support them*/
+	private volatile boolean jsonFormat;
+
+	/**
+	 * Initialize the client of a rundeck server
+	 *
+	 * @param rundeckUrl URL of the rundeck server
+	 * @param rundeckAPIKey authentication token
+	 * @param rundeckAPIversion API version to use
+	 * @param conditionalRequestCacheArg cache shared by all servers
+	 * @param clockOffsetEstimatorArg estimator of the server clock offset
+	 */
+	public RundeckExecutionsClient( final String rundeckUrl, final String rundeckAPIKey, final int rundeckAPIversion, final ConditionalRequestCache conditionalRequestCacheArg, final ClockOffsetEstimator clockOffsetEstimatorArg ) {
+
+		rundeckApiUrl = rundeckUrl.replaceFirst( "/*$", "" ) + API_URL + rundeckAPIversion; //$NON-NLS-1$ //$NON-NLS-2$
+		conditionalRequestCache = conditionalRequestCacheArg;
+		clockOffsetEstimator = clockOffsetEstimatorArg;
+
+		xmlRequestHeaders = requestHeaders( rundeckAPIKey, XML_CONTENT_TYPE );
+		jsonRequestHeaders = requestHeaders( rundeckAPIKey, JSON_CONTENT_TYPE );
+		jsonFormat = rundeckAPIversion >= JSON_MINIMUM_API_VERSION;
+	}
+
+	/**
+	 * Build the headers of the requests
+	 *
+	 * @param rundeckAPIKey authentication token
+	 * @param contentType accepted content type
+	 * @return request headers
+	 */
+	private static Map<String, String> requestHeaders( final String rundeckAPIKey, final String contentType ) {
+
+		final Map<String, String> headers = new HashMap<>();
+		headers.put( AUTH_TOKEN_HEADER, rundeckAPIKey );
+		headers.put( ACCEPT_HEADER, contentType );
+		return Collections.unmodifiableMap( headers );
+	}
+
+	/**
+	 * Get the lasts failed executions of a project
+	 *
+	 * @param project name of the project
+	 * @param begin minimum end date of the executions, null to get the lasts failed executions
+	 * @param max maximum number of executions
+	 * @param conditional false to always get and parse the executions
+	 * @return failed executions or null if they are unchanged since the previous call
+	 * @throws IOException in case of connection or parsing error
+	 */
+	public List<RundeckExecution> getFailedExecutions( final String project, final Date begin, final int max, final boolean conditional ) throws IOException {
+
+		final StringBuilder url = new StringBuilder( rundeckApiUrl ).append( EXECUTIONS_URL ).append( URLEncoder.encode( project, URL_ENCODING ) );
+		url.append( FAILED_STATUS_PARAMETER ).append( MAX_PARAMETER ).append( max );
+		if( null != begin ) {
+			url.append( BEGIN_PARAMETER ).append( begin.getTime() );
+		}
+
+		return getExecutions( url.toString(), project, conditional );
+	}
+
+	/**
+	 * Get the running executions of a project
+	 *
+	 * @param project name of the project
+	 * @param conditional false to always get and parse the executions
+	 * @return running executions or null if they are unchanged since the previous call
+	 * @throws IOException in case of connection or parsing error
+	 */
+	public List<RundeckExecution> getRunningExecutions( final String project, final boolean conditional ) throws IOException {
+
+		return getExecutions( rundeckApiUrl + RUNNING_EXECUTIONS_URL + URLEncoder.encode( project, URL_ENCODING ), project, conditional );
+	}
+
+	/**
+	 * Get and parse an executions list
+	 *
+	 * @param url executions list URL
+	 * @param project name of the project
+	 * @param conditional false to always get and parse the executions
+	 * @return executions or null if they are unchanged since the previous call
+	 * @throws IOException in case of connection or parsing error
+	 */
+	private List<RundeckExecution> getExecutions( final String url, final String project, final boolean conditional ) throws IOException {
+
+		final byte[] body = getBody( url, conditional );
+		if( null == body ) {
+			return null;
+		}
+
+		if( isJson( body ) ) {
+
+			try {
+				return parseJsonExecutions( body, project );
+			}
+			catch( final MalformedJsonException e ) {
+				return parseExecutions( getXmlBody( url, false, e ), project );
+			}
+		}
+
+		return parseExecutions( body, project );
+	}
+
+	/**
+	 * Get the current time of the rundeck server
+	 *
+	 * @return server time in milliseconds
+	 * @throws IOException in case of connection or parsing error
+	 */
+	public long getServerTime() throws IOException {
+
+		final String url = rundeckApiUrl + SYSTEM_INFO_URL;
+		final byte[] body = getBody( url, false );
+		if( isJson( body ) ) {
+
+			try {
+				return parseJsonServerTime( body );
+			}
+			catch( final MalformedJsonException e ) {
+				return parseServerTime( getXmlBody( url, false, e ) );
+			}
+		}
+
+		return parseServerTime( body );
+	}
+
+	/**
+	 * Get a response in JSON if it is supported, in XML otherwise
+	 *
+	 * @param url URL to get without format parameter
+	 * @param conditional false to always get the response body
+	 * @return response body or null if the response is unchanged since the previous call
+	 * @throws IOException in case of connection error
+	 */
+	private byte[] getBody( final String url, final boolean conditional ) throws IOException {
+
+		if( ! jsonFormat ) {
+			return conditionalRequestCache.get( url, xmlRequestHeaders, conditional, clockOffsetEstimator );
+		}
+
+		//The format parameter keeps the JSON and XML responses in distinct cache entries
+		final String jsonUrl;
+		if( url.indexOf( '?' ) >= 0 ) {
+			jsonUrl = url + '&' + JSON_FORMAT_PARAMETER;
+		}
+		else {
+			jsonUrl = url + '?' + JSON_FORMAT_PARAMETER;
+		}
+
+		final byte[] body;
+		try {
+			body = conditionalRequestCache.get( jsonUrl, jsonRequestHeaders, conditional, clockOffsetEstimator );
+		}
+		catch( final IOException e ) {
+			return getXmlBody( url, conditional, e );
+		}
+
+		//Servers without JSON support ignore the requested format
+		if( null != body && ! isJson( body ) ) {
+			jsonFormat = false;
+		}
+
+		return body;
+	}
+
+	/**
+	 * Get a XML response after a failed or not supported JSON one, JSON responses are not requested anymore if the server answers in XML
+	 *
+	 * @param url URL to get without format parameter
+	 * @param conditional false to always get the response body
+	 * @param jsonException error of the JSON response
+	 * @return response body or null if the response is unchanged since the previous call
+	 * @throws IOException in case of connection error, a connection error is not a missing JSON support
+	 */
+	private byte[] getXmlBody( final String url, final boolean conditional, final IOException jsonException ) throws IOException {
+
+		try {
+			final byte[] xmlBody = conditionalRequestCache.get( url, xmlRequestHeaders, conditional, clockOffsetEstimator );
+			jsonFormat = false;
+			return xmlBody;
+		}
+		catch( final IOException xmlException ) {
+			xmlException.addSuppressed( jsonException );
+			throw xmlException;
+		}
+	}
+
+	/**
+	 * Check if a response is a JSON one
+	 *
+	 * @param body response body
+	 * @return true if the first significant character starts a JSON object
+	 */
+	static boolean isJson( final byte[] body ) {
+
+		for( final byte character : body ) {
+
+			if( ! Character.isWhitespace( character ) ) {
+				return '{' == character;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Parse an executions list with a pull parser, only the fields used by the monitor are read and no document tree is built
+	 *
+	 * @param body XML response or notification
+	 * @param project name of the project, null to read the project of each execution
+	 * @return executions
+	 * @throws IOException in case of parsing error or error response
+	 */
+	static List<RundeckExecution> parseExecutions( final byte[] body, final String project ) throws IOException {
+
+		final List<RundeckExecution> rundeckExecutions = new ArrayList<>();
+
+		try {
+			final XMLStreamReader xmlStreamReader = XML_INPUT_FACTORY.createXMLStreamReader( new ByteArrayInputStream( body ) );
+			try {
+				//Depth of the current element, of the current execution and of its job
+				int depth = 0;
+				int executionDepth = -1;
+				int jobDepth = -1;
+				boolean errorResponse = false;
+
+				RundeckExecution rundeckExecution = null;
+				RundeckJob rundeckJob = null;
+
+				while( xmlStreamReader.hasNext() ) {
+
+					final int event = xmlStreamReader.next();
+					if( XMLStreamConstants.END_ELEMENT == event ) {
+
+						if( depth == executionDepth ) {
+							rundeckExecutions.add( rundeckExecution );
+							executionDepth = -1;
+						}
+						else if( depth == jobDepth ) {
+							jobDepth = -1;
+						}
+
+						depth--;
+						continue;
+					}
+
+					if( XMLStreamConstants.START_ELEMENT != event ) {
+						continue;
+					}
+
+					depth++;
+					final String elementName = xmlStreamReader.getLocalName();
+
+					//Old API versions return errors in a result element
+					if( 1 == depth ) {
+						errorResponse = RESULT_ELEMENT.equals( elementName ) && Boolean.parseBoolean( xmlStreamReader.getAttributeValue( null, ERROR_ATTRIBUTE ) );
+					}
+					else if( errorResponse && MESSAGE_ELEMENT.equals( elementName ) ) {
+						throw new IOException( "Rundeck error response: " + xmlStreamReader.getElementText().trim() ); //$NON-NLS-1$
+					}
+					else if( executionDepth < 0 ) {
+
+						if( EXECUTION_ELEMENT.equals( elementName ) ) {
+
+							rundeckExecution = new RundeckExecution();
+							rundeckExecution.setId( Long.valueOf( xmlStreamReader.getAttributeValue( null, ID_ATTRIBUTE ) ) );
+							rundeckExecution.setUrl( xmlStreamReader.getAttributeValue( null, HREF_ATTRIBUTE ) );
+							rundeckExecution.setStatus( getStatus( xmlStreamReader.getAttributeValue( null, STATUS_ATTRIBUTE ) ) );
+							if( null == project ) {
+								rundeckExecution.setProject( xmlStreamReader.getAttributeValue( null, PROJECT_ATTRIBUTE ) );
+							}
+							else {
+								rundeckExecution.setProject( project );
+							}
+							executionDepth = depth;
+						}
+					}
+					else if( depth == executionDepth + 1 ) {
+
+						switch( elementName ) {
+
+							case DATE_STARTED_ELEMENT:
+								rundeckExecution.setStartedAt( getDate( xmlStreamReader ) );
+								break;
+
+							case DATE_ENDED_ELEMENT:
+								rundeckExecution.setEndedAt( getDate( xmlStreamReader ) );
+								break;
+
+							case JOB_ELEMENT:
+								rundeckJob = new RundeckJob();
+								rundeckExecution.setJob( rundeckJob );
+								jobDepth = depth;
+								break;
+
+							case DESCRIPTION_ELEMENT:
+								rundeckExecution.setDescription( xmlStreamReader.getElementText() );
+								//The end element is consumed with the text
+								depth--;
+								break;
+
+							default:
+								//Field not used by the monitor
+								break;
+						}
+					}
+					else if( depth == jobDepth + 1 && NAME_ELEMENT.equals( elementName ) ) {
+
+						rundeckJob.setName( xmlStreamReader.getElementText() );
+						depth--;
+					}
+				}
+			}
+			finally {
+				xmlStreamReader.close();
+			}
+		}
+		catch( final XMLStreamException | NumberFormatException e ) {
+			throw new IOException( "Invalid executions response", e ); //$NON-NLS-1$
+		}
+
+		return rundeckExecutions;
+	}
+
+	/**
+	 * Convert an execution status attribute
+	 *
+	 * @param status status attribute like failed or failed-with-retry, can be null
+	 * @return execution status or null if the status is unknown
+	 */
+	private static ExecutionStatus getStatus( final String status ) {
+
+		if( null == status ) {
+			return null;
+		}
+
+		try {
+			return ExecutionStatus.valueOf( status.toUpperCase( Locale.ENGLISH ).replace( '-', '_' ) );
+		}
+		catch( final IllegalArgumentException e ) {
+			//Custom or more recent status
+			return null;
+		}
+	}
+
+	/**
+	 * Get the date of the current date-started or date-ended element
+	 *
+	 * @param xmlStreamReader reader positioned on the date element
+	 * @return date or null if there is no date
+	 */
+	private static Date getDate( final XMLStreamReader xmlStreamReader ) {
+
+		final String unixTime = xmlStreamReader.getAttributeValue( null, UNIXTIME_ATTRIBUTE );
+		if( null == unixTime || unixTime.isEmpty() ) {
+			return null;
+		}
+
+		return new Date( Long.parseLong( unixTime ) );
+	}
+
+	/**
+	 * Parse the server time of a XML system info response
+	 *
+	 * @param body XML response
+	 * @return server time in milliseconds
+	 * @throws IOException in case of parsing error or error response
+	 */
+	static long parseServerTime( final byte[] body ) throws IOException {
+
+		try {
+			final XMLStreamReader xmlStreamReader = XML_INPUT_FACTORY.createXMLStreamReader( new ByteArrayInputStream( body ) );
+			try {
+				boolean rootElement = true;
+				boolean errorResponse = false;
+
+				while( xmlStreamReader.hasNext() ) {
+
+					if( XMLStreamConstants.START_ELEMENT != xmlStreamReader.next() ) {
+						continue;
+					}
+
+					final String elementName = xmlStreamReader.getLocalName();
+					if( rootElement ) {
+						errorResponse = RESULT_ELEMENT.equals( elementName ) && Boolean.parseBoolean( xmlStreamReader.getAttributeValue( null, ERROR_ATTRIBUTE ) );
+						rootElement = false;
+					}
+					else if( errorResponse && MESSAGE_ELEMENT.equals( elementName ) ) {
+						throw new IOException( "Rundeck error response: " + xmlStreamReader.getElementText().trim() ); //$NON-NLS-1$
+					}
+					else if( TIMESTAMP_ELEMENT.equals( elementName ) ) {
+						return Long.parseLong( xmlStreamReader.getAttributeValue( null, EPOCH_ATTRIBUTE ) );
+					}
+				}
+			}
+			finally {
+				xmlStreamReader.close();
+			}
+		}
+		catch( final XMLStreamException | NumberFormatException e ) {
+			throw new IOException( "Invalid system info response", e ); //$NON-NLS-1$
+		}
+
+		throw new IOException( "No server time in the system info response" ); //$NON-NLS-1$
+	}
+
+	/**
+	 * Parse a JSON executions list, only the fields used by the monitor are read
+	 *
+	 * @param body JSON response
+	 * @param project name of the project
+	 * @return executions
+	 * @throws MalformedJsonException in case of parsing error, the response is not in the supported JSON format
+	 * @throws IOException in case of error response
+	 */
+	static List<RundeckExecution> parseJsonExecutions( final byte[] body, final String project ) throws IOException {
+
+		final List<RundeckExecution> rundeckExecutions = new ArrayList<>();
+
+		try( final JsonReader jsonReader = newJsonReader( body ) ) {
+
+			boolean errorResponse = false;
+			String errorMessage = null;
+
+			jsonReader.beginObject();
+			while( jsonReader.hasNext() ) {
+
+				switch( jsonReader.nextName() ) {
+
+					case EXECUTIONS_FIELD:
+						jsonReader.beginArray();
+						while( jsonReader.hasNext() ) {
+							rundeckExecutions.add( readJsonExecution( jsonReader, project ) );
+						}
+						jsonReader.endArray();
+						break;
+
+					case ERROR_FIELD:
+						if( JsonToken.BOOLEAN == jsonReader.peek() ) {
+							errorResponse = jsonReader.nextBoolean();
+						}
+						else {
+							jsonReader.skipValue();
+						}
+						break;
+
+					case MESSAGE_FIELD:
+						errorMessage = nextStringOrNull( jsonReader );
+						break;
+
+					default:
+						//Field not used by the monitor
+						jsonReader.skipValue();
+						break;
+				}
+			}
+			jsonReader.endObject();
+
+			if( errorResponse ) {
+				throw new IOException( "Rundeck error response: " + errorMessage ); //$NON-NLS-1$
+			}
+		}
+		catch( final IllegalStateException | NumberFormatException | EOFException e ) {
+			throw new MalformedJsonException( "Invalid executions response", e ); //$NON-NLS-1$
+		}
+
+		return rundeckExecutions;
+	}
+
+	/**
+	 * Read an execution of a JSON executions list
+	 *
+	 * @param jsonReader reader positioned on the execution object
+	 * @param project name of the project
+	 * @return execution
+	 * @throws IOException in case of parsing error
+	 */
+	private static RundeckExecution readJsonExecution( final JsonReader jsonReader, final String project ) throws IOException {
+
+		final RundeckExecution rundeckExecution = new RundeckExecution();
+		rundeckExecution.setProject( project );
+
+		jsonReader.beginObject();
+		while( jsonReader.hasNext() ) {
+
+			switch( jsonReader.nextName() ) {
+
+				case ID_FIELD:
+					rundeckExecution.setId( Long.valueOf( jsonReader.nextLong() ) );
+					break;
+
+				case HREF_FIELD:
+					rundeckExecution.setUrl( nextStringOrNull( jsonReader ) );
+					break;
+
+				case STATUS_FIELD:
+					rundeckExecution.setStatus( getStatus( nextStringOrNull( jsonReader ) ) );
+					break;
+
+				case DATE_STARTED_FIELD:
+					rundeckExecution.setStartedAt( readJsonDate( jsonReader ) );
+					break;
+
+				case DATE_ENDED_FIELD:
+					rundeckExecution.setEndedAt( readJsonDate( jsonReader ) );
+					break;
+
+				case JOB_FIELD:
+					rundeckExecution.setJob( readJsonJob( jsonReader ) );
+					break;
+
+				case DESCRIPTION_FIELD:
+					rundeckExecution.setDescription( nextStringOrNull( jsonReader ) );
+					break;
+
+				default:
+					//Field not used by the monitor
+					jsonReader.skipValue();
+					break;
+			}
+		}
+		jsonReader.endObject();
+
+		return rundeckExecution;
+	}
+
+	/**
+	 * Read the job of a JSON execution
+	 *
+	 * @param jsonReader reader positioned on the job object
+	 * @return job or null if the execution is not a job one
+	 * @throws IOException in case of parsing error
+	 */
+	private static RundeckJob readJsonJob( final JsonReader jsonReader ) throws IOException {
+
+		if( JsonToken.NULL == jsonReader.peek() ) {
+			jsonReader.nextNull();
+			return null;
+		}
+
+		final RundeckJob rundeckJob = new RundeckJob();
+
+		jsonReader.beginObject();
+		while( jsonReader.hasNext() ) {
+
+			if( NAME_FIELD.equals( jsonReader.nextName() ) ) {
+				rundeckJob.setName( nextStringOrNull( jsonReader ) );
+			}
+			else {
+				jsonReader.skipValue();
+			}
+		}
+		jsonReader.endObject();
+
+		return rundeckJob;
+	}
+
+	/**
+	 * Read a date-started or date-ended object of a JSON execution
+	 *
+	 * @param jsonReader reader positioned on the date object
+	 * @return date or null if there is no date
+	 * @throws IOException in case of parsing error
+	 */
+	private static Date readJsonDate( final JsonReader jsonReader ) throws IOException {
+
+		if( JsonToken.NULL == jsonReader.peek() ) {
+			jsonReader.nextNull();
+			return null;
+		}
+
+		Date date = null;
+
+		jsonReader.beginObject();
+		while( jsonReader.hasNext() ) {
+
+			if( UNIXTIME_FIELD.equals( jsonReader.nextName() ) ) {
+				date = new Date( jsonReader.nextLong() );
+			}
+			else {
+				jsonReader.skipValue();
+			}
+		}
+		jsonReader.endObject();
+
+		return date;
+	}
+
+	/**
+	 * Parse the server time of a JSON system info response
+	 *
+	 * @param body JSON response
+	 * @return server time in milliseconds
+	 * @throws MalformedJsonException in case of parsing error, the response is not in the supported JSON format
+	 * @throws IOException in case of error response
+	 */
+	static long parseJsonServerTime( final byte[] body ) throws IOException {
+
+		try( final JsonReader jsonReader = newJsonReader( body ) ) {
+
+			String errorMessage = null;
+
+			jsonReader.beginObject();
+			while( jsonReader.hasNext() ) {
+
+				final String name = jsonReader.nextName();
+				if( SYSTEM_FIELD.equals( name ) ) {
+
+					jsonReader.beginObject();
+					while( jsonReader.hasNext() ) {
+
+						if( TIMESTAMP_FIELD.equals( jsonReader.nextName() ) ) {
+
+							jsonReader.beginObject();
+							while( jsonReader.hasNext() ) {
+
+								if( EPOCH_FIELD.equals( jsonReader.nextName() ) ) {
+									return jsonReader.nextLong();
+								}
+								jsonReader.skipValue();
+							}
+							jsonReader.endObject();
+						}
+						else {
+							jsonReader.skipValue();
+						}
+					}
+					jsonReader.endObject();
+				}
+				else if( MESSAGE_FIELD.equals( name ) ) {
+					errorMessage = nextStringOrNull( jsonReader );
+				}
+				else {
+					jsonReader.skipValue();
+				}
+			}
+			jsonReader.endObject();
+
+			throw new IOException( "No server time in the system info response: " + errorMessage ); //$NON-NLS-1$
+		}
+		catch( final IllegalStateException | NumberFormatException | EOFException e ) {
+			throw new MalformedJsonException( "Invalid system info response", e ); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Create a JSON reader on a response
+	 *
+	 * @param body JSON response
+	 * @return JSON reader
+	 */
+	private static JsonReader newJsonReader( final byte[] body ) {
+
+		return new JsonReader( new InputStreamReader( new ByteArrayInputStream( body ), StandardCharsets.UTF_8 ) );
+	}
+
+	/**
+	 * Read a string value which can be null
+	 *
+	 * @param jsonReader reader positioned on the value
+	 * @return string value or null
+	 * @throws IOException in case of parsing error
+	 */
+	private static String nextStringOrNull( final JsonReader jsonReader ) throws IOException {
+
+		if( JsonToken.NULL == jsonReader.peek() ) {
+			jsonReader.nextNull();
+			return null;
+		}
+
+		return jsonReader.nextString();
+	}
+}
@@ -4,29 +4,37 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
-import java.util.LinkedHashSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
 
 import org.rundeck.api.RundeckApiException.RundeckApiLoginException;
 import org.rundeck.api.RundeckApiException.RundeckApiTokenException;
-import org.rundeck.api.RundeckClient;
-import org.rundeck.api.RundeckClientBuilder;
 import org.rundeck.api.domain.RundeckExecution;
-import org.rundeck.api.domain.RundeckExecution.ExecutionStatus;
-import org.rundeck.api.domain.RundeckProject;
-import org.rundeck.api.query.ExecutionQuery;
-import org.rundeck.api.util.PagedResults;
 
+import com.github.sbugat.rundeckmonitor.configuration.ConfigurationChange;
 import com.github.sbugat.rundeckmonitor.configuration.InvalidPropertyException;
 import com.github.sbugat.rundeckmonitor.configuration.MissingPropertyException;
 import com.github.sbugat.rundeckmonitor.configuration.RundeckMonitorConfiguration;
+import com.github.sbugat.rundeckmonitor.configuration.RundeckMonitorConfigurationWatcher;
+import com.github.sbugat.rundeckmonitor.configuration.RundeckServerConfiguration;
 import com.github.sbugat.rundeckmonitor.configuration.UnknownProjectException;
+import com.github.sbugat.rundeckmonitor.tools.ClockOffsetEstimator;
+import com.github.sbugat.rundeckmonitor.tools.ConditionalRequestCache;
 import com.github.sbugat.rundeckmonitor.tools.EnvironmentTools;
+import com.github.sbugat.rundeckmonitor.tools.HttpTransport;
 import com.github.sbugat.rundeckmonitor.wizard.InterfaceType;
 import com.github.sbugat.rundeckmonitor.wizard.RundeckMonitorConfigurationWizard;
 
@@ -36,18 +44,50 @@ import com.github.sbugat.rundeckmonitor.wizard.RundeckMonitorConfigurationWizard
  * @author Sylvain Bugat
  *
  */
-public class RundeckMonitor implements Runnable {
+public class RundeckMonitor {
+
+	/**Comparator to sort executions with the most recent first*/
+	private static final Comparator<JobExecutionInfo> MOST_RECENT_FIRST = new Comparator<JobExecutionInfo>() {
+		@Override
+		public int compare( final JobExecutionInfo jobExecutionInfo1, final JobExecutionInfo jobExecutionInfo2 ) {
+			return jobExecutionInfo2.getStartedAt().compareTo( jobExecutionInfo1.getStartedAt() );
+		}
+	};
+
+	/**Delay between 2 checks of the version checker*/
+	private static final long WATCH_DELAY = 1000L;
+
+	/**Format of the next retry time of the disconnected servers displayed in the tool tip*/
+	private static final String RETRY_TIME_FORMAT = "HH:mm:ss"; //$NON-NLS-1$
 
 	private final VersionChecker versionChecker;
 
-	/**Configuration of the rundeck monitor with default values if some properties are missing or are empty*/
-	private final RundeckMonitorConfiguration rundeckMonitorConfiguration;
+	/**Runtime executing all the background tasks of the monitor*/
+	private final RundeckMonitorScheduler rundeckMonitorScheduler;
+
+	/**Configuration and monitors of the rundeck servers in use, replaced together*/
+	private static final class ActiveConfiguration {
+
+		/**Configuration of the rundeck monitor with default values if some properties are missing or are empty, frozen*/
+		private final RundeckMonitorConfiguration configuration;
 
-	/**Time zone difference between local machine and rundeck server to correctly detect late execution*/
-	private long dateDelta;
+		/**Monitor of each rundeck server, the first one is the main server*/
+		private final List<RundeckServerMonitor> serverMonitors;
 
-	/**Rundeck client API used to interact with rundeck rest API*/
-	private RundeckClient rundeckClient;
+		ActiveConfiguration( final RundeckMonitorConfiguration configurationArg, final List<RundeckServerMonitor> serverMonitorsArg ) {
+			configuration = configurationArg;
+			serverMonitors = Collections.unmodifiableList( new ArrayList<>( serverMonitorsArg ) );
+		}
+	}
+
+	/**Configuration and servers monitors, each task uses the same snapshot until its end*/
+	private volatile ActiveConfiguration activeConfiguration;
+
+	/**Lock of the configuration changes: reload and version checker deactivation, the tasks reading the configuration are not blocked*/
+	private final ReentrantLock configurationLock = new ReentrantLock();
+
+	/**Lock of the updates, an update waits the rundeck responses without locking the monitor and the next update must wait its end*/
+	private final ReentrantLock updateLock = new ReentrantLock();
 
 	/**Tray icon and his menu for updating jobs and state displayed*/
 	private final RundeckMonitorTrayIcon rundeckMonitorTrayIcon;
@@ -55,10 +95,49 @@ public class RundeckMonitor implements Runnable {
 	/**Current state (failed job/long process/disconnected) of the rundeck monitor*/
 	private final RundeckMonitorState rundeckMonitorState = new RundeckMonitorState();
 
-	/**Set for all known late execution identifiers*/
-	private Set<Long> knownLateExecutionIds = new LinkedHashSet<>();
-	/**Set for all known failed execution identifiers*/
-	private Set<Long> knownFailedExecutionIds = new LinkedHashSet<>();
+	/**Transport shared by all rundeck servers and the version checker*/
+	private final HttpTransport httpTransport;
+
+	/**Cache of the executions responses shared by all rundeck servers*/
+	private final ConditionalRequestCache conditionalRequestCache;
+
+	/**Refresh delay adapted to the activity of the monitored rundeck servers*/
+	private final AdaptiveRefreshDelay adaptiveRefreshDelay = new AdaptiveRefreshDelay();
+
+	/**Late and failed executions of the last update*/
+	private List<JobExecutionInfo> displayedExecutions = Collections.emptyList();
+
+	/**Tool tip of the last update*/
+	private String toolTip;
+
+	/**Delay before the next update in milliseconds*/
+	private long nextRefreshDelay;
+
+	/**Indicate if the reloaded configuration is invalid, the polling is suspended until the configuration is fixed*/
+	private volatile boolean configurationError;
+
+	/**Watcher of the configuration file changes*/
+	private RundeckMonitorConfigurationWatcher rundeckMonitorConfigurationWatcher;
+
+	/**Receiver of the rundeck job notifications, null if disabled*/
+	private volatile RundeckWebhookReceiver rundeckWebhookReceiver;
+
+	/**Listener of the executions notified by rundeck*/
+	private final RundeckWebhookReceiver.NotificationListener notificationListener = new RundeckWebhookReceiver.NotificationListener() {
+		@Override
+		@SuppressWarnings("synthetic-access")
+		public void executionsNotified( final List<RundeckExecution> rundeckExecutions ) {
+			notifyExecutions( rundeckExecutions );
+		}
+	};
+
+	/**Task executed when a running execution reaches the late threshold*/
+	private final Runnable lateExecutionListener = new Runnable() {
+		@Override
+		public void run() {
+			checkLateExecutions();
+		}
+	};
 
 	/**
 	 * Initialize the rundeck monitor, load configuration and try to connect to the configured rundeck
@@ -68,315 +147,838 @@ public class RundeckMonitor implements Runnable {
 	 * @throws MissingPropertyException
 	 * @throws UnknownProjectException
 	 */
-	public RundeckMonitor( final RundeckMonitorConfiguration rundeckMonitorConfigurationArg, final VersionChecker versionCheckerArg ) throws IOException, MissingPropertyException, InvalidPropertyException, UnknownProjectException {
+	public RundeckMonitor( final RundeckMonitorConfiguration rundeckMonitorConfigurationArg, final VersionChecker versionCheckerArg, final RundeckMonitorScheduler rundeckMonitorSchedulerArg, final HttpTransport httpTransportArg ) throws IOException, MissingPropertyException, InvalidPropertyException, UnknownProjectException {
 
 		versionChecker = versionCheckerArg;
-		rundeckMonitorConfiguration = rundeckMonitorConfigurationArg;
-
-		//Configuration checking
-		rundeckMonitorConfiguration.verifyConfiguration();
-
-		//Initialize the client builder with token  or login/password authentication
-		final RundeckClientBuilder rundeckClientBuilder;
-		final String rundeckAPIKey = rundeckMonitorConfiguration.getRundeckAPIKey();
-		final String rundeckUrl = rundeckMonitorConfiguration.getRundeckUrl();
-		if( null != rundeckAPIKey && ! rundeckAPIKey.isEmpty() ) {
-			rundeckClientBuilder = RundeckClient.builder().url( rundeckUrl ).token( rundeckAPIKey );
-		}
-		else {
-			rundeckClientBuilder = RundeckClient.builder().url( rundeckUrl ).login( rundeckMonitorConfiguration.getRundeckLogin(), rundeckMonitorConfiguration.getRundeckPassword() );
+		rundeckMonitorScheduler = rundeckMonitorSchedulerArg;
+		httpTransport = httpTransportArg;
+		conditionalRequestCache = new ConditionalRequestCache( httpTransport );
+
+		//Configuration checking, the argument stays editable if the startup fails
+		rundeckMonitorConfigurationArg.verifyConfiguration();
+		final RundeckMonitorConfiguration rundeckMonitorConfiguration = new RundeckMonitorConfiguration( rundeckMonitorConfigurationArg ).freeze();
+		httpTransport.setTimeouts( rundeckMonitorConfiguration.getConnectTimeout(), rundeckMonitorConfiguration.getReadTimeout() );
+
+		final List<RundeckServerMonitor> rundeckServerMonitors = createServerMonitors( rundeckMonitorConfiguration, Collections.<RundeckServerMonitor>emptyList() );
+		activeConfiguration = new ActiveConfiguration( rundeckMonitorConfiguration, rundeckServerMonitors );
+		toolTip = rundeckMonitorConfiguration.getRundeckMonitorName();
+
+		//Connect to all rundeck servers while the tray icon is initialized
+		for( final RundeckServerMonitor rundeckServerMonitor : rundeckServerMonitors ) {
+			rundeckServerMonitor.startConnection( getConnectionTimeout( rundeckMonitorConfiguration ) );
 		}
 
-		//Initialize the rundeck client with version
-		rundeckClient = rundeckClientBuilder.version( rundeckMonitorConfiguration.getRundeckAPIversion() ).build();
-
-		//Test authentication credentials
-		rundeckClient.testAuth();
-
-		//Check if the configured project exists
-		boolean existingProject = false;
-		for( final RundeckProject rundeckProject: rundeckClient.getProjects() ) {
-
-			if( rundeckMonitorConfiguration.getRundeckProject().equals( rundeckProject.getName() ) ) {
-				existingProject = true;
-				break;
+		//Initialize the tray icon
+		try {
+			if( EnvironmentTools.isWindows() && InterfaceType.SWING.name().equals( rundeckMonitorConfiguration.getInterfaceType() ) ) {
+				rundeckMonitorTrayIcon = new RundeckMonitorSwingTrayIcon( rundeckMonitorConfiguration, rundeckMonitorState, rundeckMonitorScheduler );
+			}
+			else {
+				rundeckMonitorTrayIcon = new RundeckMonitorAWTTrayIcon( rundeckMonitorConfiguration, rundeckMonitorState, rundeckMonitorScheduler );
 			}
 		}
-
-		if( ! existingProject ) {
-
-			throw new UnknownProjectException(  rundeckMonitorConfiguration.getRundeckProject() );
+		catch( final RuntimeException e ) {
+			disposeServerMonitors( rundeckServerMonitors );
+			throw e;
 		}
 
-		//Time-zone delta between srundeck server and the computer where rundeck monitor is running
-		dateDelta = rundeckClient.getSystemInfo().getDate().getTime() - new Date().getTime();
+		try {
+			//Display the last known executions before connecting to rundeck
+			final boolean snapshotRestored = RundeckMonitorSnapshot.restore( rundeckServerMonitors, rundeckMonitorState );
+			if( snapshotRestored ) {
+
+				final List<JobExecutionInfo> lateExecutions = new ArrayList<>();
+				final List<JobExecutionInfo> failedExecutions = new ArrayList<>();
+				for( final RundeckServerMonitor rundeckServerMonitor : rundeckServerMonitors ) {
+					rundeckServerMonitor.addLastExecutions( lateExecutions, failedExecutions );
+				}
 
-		//Initialize the tray icon
-		if( EnvironmentTools.isWindows() && InterfaceType.SWING.name().equals( rundeckMonitorConfiguration.getInterfaceType() ) ) {
-			rundeckMonitorTrayIcon = new RundeckMonitorSwingTrayIcon( rundeckMonitorConfiguration, rundeckMonitorState );
-		}
-		else {
-			rundeckMonitorTrayIcon = new RundeckMonitorAWTTrayIcon( rundeckMonitorConfiguration, rundeckMonitorState );
-		}
+				rundeckMonitorState.setLateJobs( ! lateExecutions.isEmpty() );
+				displayedExecutions = mergeExecutions( lateExecutions, failedExecutions );
+				publishView();
+			}
 
-		try {
-			//Initialize and update the rundeck monitor failed/late jobs
-			updateRundeckHistory( true );
+			//Wait the connection to all rundeck servers
+			for( final RundeckServerMonitor rundeckServerMonitor : rundeckServerMonitors ) {
+				rundeckServerMonitor.finishConnection();
+			}
+
+			//Initialize and update the rundeck monitor failed/late jobs, the known executions of the snapshot are not alerted again
+			updateRundeckHistory( ! snapshotRestored );
 
 			//Clean any temporary downloaded jar
 			versionChecker.cleanOldAndTemporaryJar();
 		}
 		catch(final Exception e) {
+			disposeServerMonitors( rundeckServerMonitors );
 			rundeckMonitorTrayIcon.disposeTrayIcon();
 			throw e;
 		}
 	}
 
-	public void reloadConfiguration() throws IOException, MissingPropertyException, InvalidPropertyException {
+	/**
+	 * Reload the configuration file and apply only its changes: only the changed servers are reconnected
+	 * and the known executions are kept if no server has changed
+	 *
+	 * The new servers are connected without blocking the updates, the new configuration and servers are then used together by the next tasks
+	 *
+	 * @return changes of the reloaded configuration
+	 * @throws IOException in case of loading configuration error
+	 * @throws MissingPropertyException
+	 * @throws InvalidPropertyException
+	 * @throws UnknownProjectException if a configured project doesn't exist, the current configuration is kept
+	 */
+	public Set<ConfigurationChange> reloadConfiguration() throws IOException, MissingPropertyException, InvalidPropertyException, UnknownProjectException {
+
+		configurationLock.lock();
+		try {
+			//Configuration checking, the current configuration is kept if the new one is invalid
+			final RundeckMonitorConfiguration newRundeckMonitorConfiguration = new RundeckMonitorConfiguration();
+			newRundeckMonitorConfiguration.loadConfigurationPropertieFile();
+			newRundeckMonitorConfiguration.verifyConfiguration();
+			newRundeckMonitorConfiguration.freeze();
+
+			final ActiveConfiguration previousConfiguration = activeConfiguration;
+			final Set<ConfigurationChange> changes = newRundeckMonitorConfiguration.getChanges( previousConfiguration.configuration );
+			if( changes.contains( ConfigurationChange.TIMEOUTS ) ) {
+				httpTransport.setTimeouts( newRundeckMonitorConfiguration.getConnectTimeout(), newRundeckMonitorConfiguration.getReadTimeout() );
+			}
 
-		//Configuration checking
-		rundeckMonitorConfiguration.loadConfigurationPropertieFile();
-		rundeckMonitorConfiguration.verifyConfiguration();
+			//Connect concurrently to the new and changed rundeck servers only
+			final List<RundeckServerMonitor> newRundeckServerMonitors = createServerMonitors( newRundeckMonitorConfiguration, previousConfiguration.serverMonitors );
+			final List<RundeckServerMonitor> connectedServerMonitors = new ArrayList<>( newRundeckServerMonitors );
+			connectedServerMonitors.removeAll( previousConfiguration.serverMonitors );
+			try {
+				for( final RundeckServerMonitor rundeckServerMonitor : connectedServerMonitors ) {
+					rundeckServerMonitor.startConnection( getConnectionTimeout( newRundeckMonitorConfiguration ) );
+				}
+				for( final RundeckServerMonitor rundeckServerMonitor : connectedServerMonitors ) {
+					rundeckServerMonitor.finishConnection();
+				}
+			}
+			catch( final UnknownProjectException | RuntimeException e ) {
+				disposeServerMonitors( connectedServerMonitors );
+				throw e;
+			}
+
+			//The current update must end before replacing its servers
+			updateLock.lock();
+			try {
+				final List<RundeckServerMonitor> removedServerMonitors = new ArrayList<>( previousConfiguration.serverMonitors );
+				removedServerMonitors.removeAll( newRundeckServerMonitors );
+
+				//Replace the previous configuration and servers between 2 tasks, the kept servers are only renamed and relabeled
+				synchronized( this ) {
+
+					final List<RundeckServerConfiguration> rundeckServers = newRundeckMonitorConfiguration.getRundeckServers();
+					for( int i = 0 ; i < newRundeckServerMonitors.size() ; i++ ) {
+
+						final RundeckServerMonitor rundeckServerMonitor = newRundeckServerMonitors.get( i );
+						if( ! connectedServerMonitors.contains( rundeckServerMonitor ) ) {
+							rundeckServerMonitor.reconfigure( rundeckServers.get( i ), rundeckServers.size() > 1, newRundeckMonitorConfiguration.getRefreshDelay() * 1000L );
+						}
+					}
 
-		//Initialize the client builder with token  or login/password authentication
-		final RundeckClientBuilder rundeckClientBuilder;
-		final String rundeckAPIKey = rundeckMonitorConfiguration.getRundeckAPIKey();
-		final String rundeckUrl = rundeckMonitorConfiguration.getRundeckUrl();
-		if( null != rundeckAPIKey && ! rundeckAPIKey.isEmpty() ) {
-			rundeckClientBuilder = RundeckClient.builder().url( rundeckUrl ).token( rundeckAPIKey );
+					activeConfiguration = new ActiveConfiguration( newRundeckMonitorConfiguration, newRundeckServerMonitors );
+					disposeServerMonitors( removedServerMonitors );
+
+					if( changes.contains( ConfigurationChange.SERVERS ) ) {
+
+						//Reinit monitor state
+						rundeckMonitorState.setFailedJobs( false );
+						rundeckMonitorState.setLateJobs( false );
+						rundeckMonitorState.setDisconnected( false );
+					}
+					else {
+						toolTip = getToolTip( activeConfiguration );
+					}
+				}
+
+				if( changes.contains( ConfigurationChange.SERVERS ) ) {
+
+					//Initialize and update the rundeck monitor failed/late jobs
+					updateRundeckHistory( true );
+				}
+			}
+			finally {
+				updateLock.unlock();
+			}
+
+			return changes;
 		}
-		else {
-			rundeckClientBuilder = RundeckClient.builder().url( rundeckUrl ).login( rundeckMonitorConfiguration.getRundeckLogin(), rundeckMonitorConfiguration.getRundeckPassword() );
+		finally {
+			configurationLock.unlock();
 		}
+	}
 
-		//Initialize the rundeck client with version
-		rundeckClient = rundeckClientBuilder.version( rundeckMonitorConfiguration.getRundeckAPIversion() ).build();
+	/**
+	 * Create a monitor for each configured rundeck server, the monitors of the servers with the same connection are kept
+	 * and the known executions of the other already monitored servers are kept if their URL has not changed
+	 *
+	 * @param configuration configuration of the servers
+	 * @param rundeckServerMonitors monitors of the current servers, empty at startup
+	 * @return rundeck servers monitors, the created ones are not connected
+	 */
+	private List<RundeckServerMonitor> createServerMonitors( final RundeckMonitorConfiguration configuration, final List<RundeckServerMonitor> rundeckServerMonitors ) {
 
-		//Test authentication credentials
-		rundeckClient.testAuth();
+		final List<RundeckServerConfiguration> rundeckServers = configuration.getRundeckServers();
+		final boolean serverNameDisplayed = rundeckServers.size() > 1;
 
-		//Check if the configured project exists
-		boolean existingProject = false;
-		for( final RundeckProject rundeckProject: rundeckClient.getProjects() ) {
+		final Map<String, RundeckServerMonitor> previousServerMonitors = new HashMap<>();
+		for( final RundeckServerMonitor rundeckServerMonitor : rundeckServerMonitors ) {
+			previousServerMonitors.put( rundeckServerMonitor.getRundeckServerConfiguration().getName(), rundeckServerMonitor );
+		}
+
+		final List<RundeckServerMonitor> newRundeckServerMonitors = new ArrayList<>();
+		for( int i = 0 ; i < rundeckServers.size() ; i++ ) {
+
+			final RundeckServerConfiguration rundeckServer = rundeckServers.get( i );
 
-			if( rundeckMonitorConfiguration.getRundeckProject().equals( rundeckProject.getName() ) ) {
-				existingProject = true;
-				break;
+			//The main server is named with the monitor name and stays the same server when the monitor is renamed
+			RundeckServerMonitor previousServerMonitor = previousServerMonitors.get( rundeckServer.getName() );
+			if( 0 == i && ! rundeckServerMonitors.isEmpty() ) {
+				previousServerMonitor = rundeckServerMonitors.get( 0 );
 			}
-		}
 
-		if( ! existingProject ) {
-			JOptionPane.showMessageDialog( null, "Invalid rundeck project," + System.lineSeparator() + "check and change this parameter value:" + System.lineSeparator() + '"' + RundeckMonitorConfiguration.RUNDECK_MONITOR_PROPERTY_PROJECT + '=' + rundeckMonitorConfiguration.getRundeckProject() + "\".", "RundeckMonitor initialization error", JOptionPane.ERROR_MESSAGE ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
-			System.exit( 1 );
+			if( null != previousServerMonitor && previousServerMonitor.getRundeckServerConfiguration().isSameConnection( rundeckServer ) ) {
+				newRundeckServerMonitors.add( previousServerMonitor );
+			}
+			else {
+				newRundeckServerMonitors.add( new RundeckServerMonitor( rundeckServer, serverNameDisplayed, previousServerMonitor, configuration.getRefreshDelay() * 1000L, conditionalRequestCache ) );
+			}
 		}
 
-		//Time-zone delta between srundeck server and the computer where rundeck monitor is running
-		dateDelta = rundeckClient.getSystemInfo().getDate().getTime() - new Date().getTime();
+		return newRundeckServerMonitors;
+	}
 
-		//Reinit monitor state
-		rundeckMonitorState.setFailedJobs( false );
-		rundeckMonitorState.setLateJobs( false );
-		rundeckMonitorState.setDisconnected( false );
+	/**
+	 * Get the maximum duration of a server connection: the connect and read timeouts of the configuration
+	 *
+	 * @param configuration configuration with the timeouts in seconds
+	 * @return connection timeout in milliseconds
+	 */
+	private static long getConnectionTimeout( final RundeckMonitorConfiguration configuration ) {
 
-		//Initialize and update the rundeck monitor failed/late jobs
-		updateRundeckHistory( true );
+		return ( configuration.getConnectTimeout() + configuration.getReadTimeout() ) * 1000L;
 	}
 
+	/**
+	 * Stop all the pending calls of rundeck servers monitors
+	 *
+	 * @param serverMonitors rundeck servers monitors to dispose
+	 */
+	private static void disposeServerMonitors( final List<RundeckServerMonitor> serverMonitors ) {
 
-	private boolean checkNewConfiguration( final Date lastConfigurationUpdateDate ) {
+		for( final RundeckServerMonitor rundeckServerMonitor : serverMonitors ) {
+			rundeckServerMonitor.dispose();
+		}
+	}
 
-		Date lastConfigurationDate = lastConfigurationUpdateDate;
+	/**
+	 * Start the background tasks of the monitor: rundeck polling, configuration watching and version checker watching
+	 *
+	 * @throws IOException if the configuration file cannot be watched
+	 */
+	public void start() throws IOException {
+
+		//The reload connects to the servers, it is done by the scheduler and not by the watcher thread
+		final Runnable checkNewConfigurationTask = new Runnable() {
+			@Override
+			@SuppressWarnings("synthetic-access")
+			public void run() {
+				checkNewConfiguration();
+			}
+		};
+		rundeckMonitorConfigurationWatcher = new RundeckMonitorConfigurationWatcher( new Runnable() {
+			@Override
+			@SuppressWarnings("synthetic-access")
+			public void run() {
+				rundeckMonitorScheduler.submit( checkNewConfigurationTask );
+			}
+		} );
 
-		if( RundeckMonitorConfiguration.propertiesFileUpdated( lastConfigurationDate ) ) {
+		rundeckMonitorScheduler.scheduleWithFixedDelay( new Runnable() {
+			@Override
+			@SuppressWarnings("synthetic-access")
+			public void run() {
+				checkVersionChecker();
+			}
+		}, WATCH_DELAY );
 
-			//Wait until configuration is reloaded or exit
-			while( true ) {
+		rundeckMonitorScheduler.startPolling( new Callable<Long>() {
+			@Override
+			@SuppressWarnings("synthetic-access")
+			public Long call() {
+				return Long.valueOf( poll() );
+			}
+		}, nextRefreshDelay );
 
-				if( RundeckMonitorConfiguration.propertiesFileUpdated( lastConfigurationDate ) ) {
-					//reload the configuration
-					try {
-						reloadConfiguration();
-						rundeckMonitorTrayIcon.reloadConfiguration();
+		startWebhookReceiver();
+	}
 
-						//Set the tray icon as reconnected
-						rundeckMonitorState.setDisconnected( false );
-						rundeckMonitorTrayIcon.updateTrayIcon();
-						return true;
-					}
-					catch( final Exception e) {
+	/**
+	 * Start the rundeck notifications receiver if it is enabled, replacing the previous one
+	 */
+	private void startWebhookReceiver() {
 
-						//Set the tray icon as disconnected
-						rundeckMonitorState.setDisconnected( true );
-						rundeckMonitorTrayIcon.updateTrayIcon();
+		if( null != rundeckWebhookReceiver ) {
+			rundeckWebhookReceiver.stop();
+			rundeckWebhookReceiver = null;
+		}
 
-						if( handleStartupException( e, false ) ) {
+		final RundeckMonitorConfiguration configuration = activeConfiguration.configuration;
+		final int webhookPort = configuration.getWebhookPort();
+		if( webhookPort <= 0 ) {
+			return;
+		}
 
-							new RundeckMonitorConfigurationWizard( rundeckMonitorConfiguration, true );
-							lastConfigurationDate = new Date();
-						}
-						//Dispose tray icon and exit
-						else {
-							rundeckMonitorTrayIcon.disposeTrayIcon();
-							System.exit( 1 );
-						}
-					}
+		try {
+			rundeckWebhookReceiver = new RundeckWebhookReceiver( configuration.getWebhookAddress(), webhookPort, configuration.getWebhookToken(), notificationListener );
+		}
+		catch( final IOException e ) {
+
+			//Keep polling at the normal rate without notifications
+			SwingUtilities.invokeLater( new Runnable() {
+				@Override
+				public void run() {
+					JOptionPane.showMessageDialog( null, "Unable to receive rundeck notifications on port " + webhookPort + ':' + System.lineSeparator() + e.getMessage(), "RundeckMonitor notifications error", JOptionPane.WARNING_MESSAGE ); //$NON-NLS-1$ //$NON-NLS-2$
 				}
+			} );
+		}
+	}
 
-				//Wait 1s
-				try {
+	/**
+	 * Reload the configuration after a change of the configuration file, launch the wizard if the new configuration is invalid
+	 */
+	private void checkNewConfiguration() {
 
-					Thread.sleep( 1000 );
-				}
-				catch ( final InterruptedException e1) {
+		//reload the configuration
+		try {
+			final Set<ConfigurationChange> changes = reloadConfiguration();
+			reloadTrayIconConfiguration( changes );
 
-					//Nothing to do
-				}
+			//Set the tray icon as reconnected
+			if( configurationError ) {
+
+				configurationError = false;
+				rundeckMonitorState.setDisconnected( false );
 			}
-		}
+			publishView();
 
-		return false;
+			if( changes.contains( ConfigurationChange.WEBHOOK ) ) {
+				startWebhookReceiver();
+			}
+
+			//The refresh delay, the displayed jobs number or the jobs labels can have changed
+			if( changes.contains( ConfigurationChange.FAILED_JOB_NUMBER ) || changes.contains( ConfigurationChange.MONITOR_NAME ) ) {
+				rundeckMonitorScheduler.pollNow();
+			}
+			else if( changes.contains( ConfigurationChange.SERVERS ) || changes.contains( ConfigurationChange.REFRESH ) ) {
+				rundeckMonitorScheduler.pollIn( nextRefreshDelay );
+			}
+		}
+		catch( final UnknownProjectException e ) {
+
+			//Suspend the polling until the exit
+			configurationError = true;
+			SwingUtilities.invokeLater( new Runnable() {
+				@Override
+				public void run() {
+					JOptionPane.showMessageDialog( null, "Invalid rundeck project," + System.lineSeparator() + "check and change this parameter value:" + System.lineSeparator() + '"' + RundeckMonitorConfiguration.RUNDECK_MONITOR_PROPERTY_PROJECT + '=' + e.getProjectName() + "\".", "RundeckMonitor initialization error", JOptionPane.ERROR_MESSAGE ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+					System.exit( 1 );
+				}
+			} );
+		}
+		catch( final Exception e) {
+
+			//Suspend the polling and set the tray icon as disconnected
+			configurationError = true;
+			rundeckMonitorState.setDisconnected( true );
+			publishView();
+
+			//Dispose tray icon and exit if the configuration is not edited
+			showStartupException( e, false, getEditedConfiguration(), new Runnable() {
+				@Override
+				@SuppressWarnings("synthetic-access")
+				public void run() {
+					rundeckMonitorConfigurationWatcher.close();
+					rundeckMonitorTrayIcon.disposeTrayIcon();
+				}
+			} );
+		}
 	}
 
 	/**
-	 * RundeckMonitor background process method executing the main loop
+	 * Get the configuration to fix in the wizard: the invalid configuration file if it can be read, else the current configuration
+	 *
+	 * @return editable configuration
 	 */
-	public void run() {
+	private RundeckMonitorConfiguration getEditedConfiguration() {
 
-		Date lastConfigurationUpdateDate = new Date();
+		final RundeckMonitorConfiguration editedConfiguration = new RundeckMonitorConfiguration();
+		try {
+			editedConfiguration.loadConfigurationPropertieFile();
+			return editedConfiguration;
+		}
+		catch( final IOException e ) {
+			return new RundeckMonitorConfiguration( activeConfiguration.configuration );
+		}
+	}
 
-		while( true ){
-			try {
+	/**
+	 * Apply the configuration changes to the tray icon menu on the event dispatch thread and wait until it is done, the next views are displayed on the new menu
+	 *
+	 * @param changes changes of the reloaded configuration
+	 * @throws InvocationTargetException if the menu rebuild failed
+	 * @throws InterruptedException if the wait is interrupted
+	 */
+	private void reloadTrayIconConfiguration( final Set<ConfigurationChange> changes ) throws InvocationTargetException, InterruptedException {
+
+		final RundeckMonitorConfiguration configuration = activeConfiguration.configuration;
+		SwingUtilities.invokeAndWait( new Runnable() {
+			@Override
+			@SuppressWarnings("synthetic-access")
+			public void run() {
+				rundeckMonitorTrayIcon.reloadConfiguration( configuration, changes );
+			}
+		} );
+	}
 
-				if( checkNewConfiguration( lastConfigurationUpdateDate ) ) {
-					lastConfigurationUpdateDate = new Date();
-				}
+	/**
+	 * Save the version checker deactivation and restart the monitor when a new version is downloaded
+	 */
+	private void checkVersionChecker() {
 
-				//Update the tray icon menu
-				updateRundeckHistory( false );
+		//A reload in progress can replace the configuration, retry on the next check
+		if( versionChecker.isversionCheckerDisabled() && configurationLock.tryLock() ) {
 
-				if( versionChecker.isversionCheckerDisabled() ) {
+			try {
+				final ActiveConfiguration currentConfiguration = activeConfiguration;
+				final RundeckMonitorConfiguration newRundeckMonitorConfiguration = new RundeckMonitorConfiguration( currentConfiguration.configuration );
+				newRundeckMonitorConfiguration.disableVersionChecker();
+				newRundeckMonitorConfiguration.saveMonitorConfigurationPropertieFile();
+				activeConfiguration = new ActiveConfiguration( newRundeckMonitorConfiguration.freeze(), currentConfiguration.serverMonitors );
 
-					rundeckMonitorConfiguration.disableVersionChecker();
-					rundeckMonitorConfiguration.saveMonitorConfigurationPropertieFile();
+				versionChecker.resetVersionCheckerDisabled();
+			}
+			catch( final IOException e ) {
 
-					versionChecker.resetVersionCheckerDisabled();
-				}
+				//Retry on the next check
+			}
+			finally {
+				configurationLock.unlock();
+			}
+		}
 
-				//If download finished
-				if( versionChecker.isDownloadDone() && versionChecker.restart() ) {
+		//If download finished
+		if( versionChecker.isDownloadDone() && versionChecker.restart() ) {
 
-					//Restart, remove the tray icon and exit
+			//Restart, remove the tray icon and exit on the event dispatch thread
+			rundeckMonitorScheduler.shutdown();
+			SwingUtilities.invokeLater( new Runnable() {
+				@Override
+				@SuppressWarnings("synthetic-access")
+				public void run() {
 					rundeckMonitorTrayIcon.disposeTrayIcon();
 					System.exit( 0 );
 				}
+			} );
+		}
+	}
 
-				try {
-					Thread.sleep( rundeckMonitorConfiguration.getRefreshDelay() * 1000 );
-				}
-				catch ( final Exception e ) {
+	/**
+	 * Polling task updating the failed/late jobs
+	 *
+	 * @return delay in milliseconds before the next poll
+	 */
+	private long poll() {
 
-					//Nothing to do
-				}
-			}
-			//If an exception is catch, consider the monitor as disconnected
-			catch ( final IOException | RuntimeException e ) {
+		//Wait until the configuration is fixed
+		if( configurationError ) {
+			return activeConfiguration.configuration.getRefreshDelay() * 1000L;
+		}
 
-				rundeckMonitorState.setDisconnected( true );
-				rundeckMonitorTrayIcon.updateTrayIcon();
+		try {
+			//Update the tray icon menu
+			updateRundeckHistory( false );
 
-				try {
+			return nextRefreshDelay;
+		}
+		//If an exception is catch, consider the monitor as disconnected
+		catch ( final RuntimeException e ) {
 
-					Thread.sleep( rundeckMonitorConfiguration.getRefreshDelay() * 1000 );
-				}
-				catch ( final InterruptedException e1) {
+			rundeckMonitorState.setDisconnected( true );
+			publishView();
 
-					//Nothing to do
-				}
-			}
+			return activeConfiguration.configuration.getRefreshDelay() * 1000L;
 		}
 	}
 
 	/**
 	 * Call Rundeck rest API and update the monitor state and displayed jobs if there are new failed/late jobs
 	 *
+	 * The rundeck responses are waited without locking the monitor, notifications and late executions are displayed meanwhile
+	 *
 	 * @param init boolean to indicate if it's the first call to this method for the monitor initialization
 	 */
 	private void updateRundeckHistory( final boolean init ) {
 
-		//call Rundeck rest API
-		final ExecutionQuery executionQuery = ExecutionQuery.builder().project( rundeckMonitorConfiguration.getRundeckProject() ).status( ExecutionStatus.FAILED ).build();
-		final PagedResults<RundeckExecution> lastFailedJobs = rundeckClient.getExecutions( executionQuery, Long.valueOf( rundeckMonitorConfiguration.getFailedJobNumber() ), null );
+		updateLock.lock();
+		try {
+			//All the update uses the same configuration and servers, a reload waits the end of the update
+			final ActiveConfiguration currentConfiguration = activeConfiguration;
+			final RundeckMonitorConfiguration configuration = currentConfiguration.configuration;
+			final List<RundeckServerMonitor> rundeckServerMonitors = currentConfiguration.serverMonitors;
+
+			//The whole update must be done before the next one
+			final long deadline = System.currentTimeMillis() + configuration.getRefreshDelay() * 1000L;
+
+			final int failedJobNumber = configuration.getFailedJobNumber();
 
-		final List<RundeckExecution> currentExecutions = rundeckClient.getRunningExecutions( rundeckMonitorConfiguration.getRundeckProject() );
+			//Servers are independent, start all their calls before waiting any of them
+			synchronized( this ) {
+				for( final RundeckServerMonitor rundeckServerMonitor : rundeckServerMonitors ) {
+					rundeckServerMonitor.startUpdate( failedJobNumber, init );
+				}
+			}
 
-		//Rundeck calls are OK
-		rundeckMonitorState.setDisconnected( false );
+			//Resume the full update of the disconnected servers back
+			for( final RundeckServerMonitor rundeckServerMonitor : rundeckServerMonitors ) {
+				rundeckServerMonitor.waitProbe( deadline );
+			}
+			synchronized( this ) {
+				for( final RundeckServerMonitor rundeckServerMonitor : rundeckServerMonitors ) {
+					rundeckServerMonitor.resumeUpdate( failedJobNumber, init );
+				}
+			}
 
-		final Date currentTime = new Date();
+			for( final RundeckServerMonitor rundeckServerMonitor : rundeckServerMonitors ) {
+				rundeckServerMonitor.waitUpdate( deadline );
+			}
 
-		final List<JobExecutionInfo> listJobExecutionInfo = new ArrayList<>();
+			applyRundeckHistory( currentConfiguration, init );
+		}
+		finally {
+			updateLock.unlock();
+		}
+	}
 
-		boolean lateExecutionFound = false;
+	/**
+	 * Apply the rundeck responses of an update to the monitor state and displayed jobs
+	 *
+	 * @param currentConfiguration configuration and servers of the update
+	 * @param init boolean to indicate if it's the first update for the monitor initialization
+	 */
+	private synchronized void applyRundeckHistory( final ActiveConfiguration currentConfiguration, final boolean init ) {
 
-		//Scan runnings jobs to detect if they are late
-		for( final RundeckExecution rundeckExecution : currentExecutions ) {
+		final RundeckMonitorConfiguration configuration = currentConfiguration.configuration;
+		final List<RundeckServerMonitor> rundeckServerMonitors = currentConfiguration.serverMonitors;
 
-			if( currentTime.getTime() - rundeckExecution.getStartedAt().getTime() + dateDelta > rundeckMonitorConfiguration.getLateThreshold() * 1000 ) {
+		final int failedJobNumber = configuration.getFailedJobNumber();
+		final int lateThreshold = configuration.getLateThreshold();
 
-				lateExecutionFound = true;
+		final List<JobExecutionInfo> lateExecutions = new ArrayList<>();
+		final List<JobExecutionInfo> failedExecutions = new ArrayList<>();
 
-				final boolean newLongExecution = ! knownLateExecutionIds.contains( rundeckExecution.getId() );
-				if( newLongExecution ) {
-					knownLateExecutionIds.add( rundeckExecution.getId() );
-				}
+		boolean lateExecutionFound = false;
+		boolean newFailedJobFound = false;
+		boolean runningExecutionFound = false;
+		long nextLateExecutionTime = Long.MAX_VALUE;
+		boolean disconnected = false;
+		boolean allServersDisconnected = ! rundeckServerMonitors.isEmpty();
+		long nextRetryTime = Long.MAX_VALUE;
+
+		for( final RundeckServerMonitor rundeckServerMonitor : rundeckServerMonitors ) {
 
-				final String jobName;
-				if( null != rundeckExecution.getJob() ) {
-					jobName = rundeckExecution.getJob().getName();
+			try {
+				if( rundeckServerMonitor.finishUpdate( failedJobNumber, lateThreshold, init ) ) {
+					rundeckMonitorState.setFailedJobs( true );
+					newFailedJobFound = true;
 				}
-				else {
-					jobName = rundeckExecution.getDescription();
+			}
+			//A disconnected server keeps its lasts known executions and doesn't block the others
+			catch( final RuntimeException e ) {
+
+				if( init ) {
+					throw e;
 				}
-				listJobExecutionInfo.add( new JobExecutionInfo( rundeckExecution.getId(), rundeckExecution.getStartedAt(), jobName, true, newLongExecution ) );
+
+				disconnected = true;
+			}
+
+			final RundeckCircuitBreaker rundeckCircuitBreaker = rundeckServerMonitor.getRundeckCircuitBreaker();
+			if( RundeckCircuitBreaker.State.OPEN == rundeckCircuitBreaker.getState() ) {
+				nextRetryTime = Math.min( nextRetryTime, rundeckCircuitBreaker.getRetryTime() );
+			}
+			else {
+				allServersDisconnected = false;
+			}
+
+			if( rundeckServerMonitor.isLateExecutionFound() ) {
+				lateExecutionFound = true;
 			}
+			if( rundeckServerMonitor.isRunningExecutionFound() ) {
+				runningExecutionFound = true;
+			}
+			nextLateExecutionTime = Math.min( nextLateExecutionTime, rundeckServerMonitor.getNextLateExecutionTime() );
+
+			rundeckServerMonitor.addLastExecutions( lateExecutions, failedExecutions );
 		}
 
+		rundeckMonitorState.setDisconnected( disconnected );
 		rundeckMonitorState.setLateJobs( lateExecutionFound );
 
-		//Add all lasts failed jobs to the list
-		for( final RundeckExecution rundeckExecution : lastFailedJobs.getResults() ) {
+		//Poll faster while executions are running and slow down when rundeck is idle
+		nextRefreshDelay = adaptiveRefreshDelay.nextDelay( configuration.getRefreshDelay(), configuration.getMaximumRefreshDelay(), runningExecutionFound || newFailedJobFound, nextLateExecutionTime );
+
+		//Notifications give the changes, the polling only reconciles the missed ones
+		if( null != rundeckWebhookReceiver ) {
+			nextRefreshDelay = Math.max( nextRefreshDelay, configuration.getWebhookRefreshDelay() * 1000L );
+		}
+
+		//No server can be called before the first retry
+		if( allServersDisconnected ) {
+			nextRefreshDelay = Math.max( nextRefreshDelay, nextRetryTime - System.currentTimeMillis() );
+		}
 
-			final boolean newFailedJob = ! knownFailedExecutionIds.contains( rundeckExecution.getId() );
-			if( newFailedJob ) {
+		//Flag the running executions as late on time even if the next update is later
+		for( final RundeckServerMonitor rundeckServerMonitor : rundeckServerMonitors ) {
+			rundeckServerMonitor.scheduleLateExecutionDeadlines( rundeckMonitorScheduler.getScheduledExecutor(), lateExecutionListener );
+		}
+
+		displayedExecutions = mergeExecutions( lateExecutions, failedExecutions );
+
+		if( init ) {
+
+			rundeckMonitorState.setFailedJobs( false );
+		}
+
+		//Display failed/late jobs, the tray icon color and the disconnected servers
+		toolTip = getToolTip( currentConfiguration );
+		publishView();
+
+		try {
+			RundeckMonitorSnapshot.save( rundeckServerMonitors, rundeckMonitorState );
+		}
+		catch( final IOException e ) {
 
+			//The snapshot is only used to restart faster, the next update will retry
+		}
+	}
+
+	/**
+	 * Get the tool tip of the tray icon with the disconnected servers and their next retry time and the notifications port
+	 *
+	 * @param currentConfiguration configuration and servers of the update
+	 * @return tool tip of the tray icon
+	 */
+	private String getToolTip( final ActiveConfiguration currentConfiguration ) {
+
+		final List<RundeckServerMonitor> rundeckServerMonitors = currentConfiguration.serverMonitors;
+		final StringBuilder toolTip = new StringBuilder( currentConfiguration.configuration.getRundeckMonitorName() );
+		final SimpleDateFormat retryTimeFormat = new SimpleDateFormat( RETRY_TIME_FORMAT );
+
+		for( final RundeckServerMonitor rundeckServerMonitor : rundeckServerMonitors ) {
+
+			final RundeckCircuitBreaker rundeckCircuitBreaker = rundeckServerMonitor.getRundeckCircuitBreaker();
+			if( RundeckCircuitBreaker.State.CLOSED != rundeckCircuitBreaker.getState() ) {
+
+				toolTip.append( System.lineSeparator() ).append( rundeckServerMonitor.getRundeckServerConfiguration().getName() );
+				toolTip.append( " disconnected (" ).append( rundeckCircuitBreaker.getConsecutiveFailures() ).append( " failures), next retry at " ); //$NON-NLS-1$ //$NON-NLS-2$
+				toolTip.append( retryTimeFormat.format( new Date( rundeckCircuitBreaker.getRetryTime() ) ) );
+			}
+		}
+
+		if( null != rundeckWebhookReceiver ) {
+			toolTip.append( System.lineSeparator() ).append( "Receiving rundeck notifications on port " ).append( rundeckWebhookReceiver.getPort() ); //$NON-NLS-1$
+		}
+
+		return toolTip.toString();
+	}
+
+	/**
+	 * Get the statistics of the rundeck calls displayed by the about menu: clock offsets, unchanged responses and requests
+	 *
+	 * @param currentConfiguration configuration and servers of the monitor
+	 * @return statistics of the rundeck calls
+	 */
+	private String getStatistics( final ActiveConfiguration currentConfiguration ) {
+
+		//Estimated clock offset of each server used by the late executions detection
+		final StringBuilder statistics = new StringBuilder( "Clock offsets:" ); //$NON-NLS-1$
+		for( final RundeckServerMonitor rundeckServerMonitor : currentConfiguration.serverMonitors ) {
+
+			final ClockOffsetEstimator clockOffsetEstimator = rundeckServerMonitor.getClockOffsetEstimator();
+			statistics.append( System.lineSeparator() ).append( rundeckServerMonitor.getRundeckServerConfiguration().getName() ).append( ": " ); //$NON-NLS-1$
+			statistics.append( clockOffsetEstimator.getOffset() ).append( " ms (rtt " ).append( clockOffsetEstimator.getRoundTripTime() ).append( " ms)" ); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		final long cacheHits = conditionalRequestCache.getHits();
+		final long cacheMisses = conditionalRequestCache.getMisses();
+		if( cacheHits + cacheMisses > 0 ) {
+			statistics.append( System.lineSeparator() ).append( "Unchanged responses: " ).append( cacheHits ).append( '/' ).append( cacheHits + cacheMisses ); //$NON-NLS-1$
+		}
+
+		//Average latency and compression of the HTTP requests
+		final long requests = httpTransport.getRequests();
+		if( requests > 0 ) {
+			statistics.append( System.lineSeparator() ).append( "Requests: " ).append( httpTransport.getRequestsDuration() / requests ).append( " ms average, " ); //$NON-NLS-1$ //$NON-NLS-2$
+			statistics.append( httpTransport.getReceivedBytes() / 1024 ).append( '/' ).append( httpTransport.getDecodedBytes() / 1024 ).append( " KB received" ); //$NON-NLS-1$
+		}
+
+		return statistics.toString();
+	}
+
+	/**
+	 * Apply the executions notified by rundeck to their projects and display them without waiting the next update
+	 *
+	 * @param rundeckExecutions notified executions
+	 */
+	private synchronized void notifyExecutions( final List<RundeckExecution> rundeckExecutions ) {
+
+		final ActiveConfiguration currentConfiguration = activeConfiguration;
+		final int failedJobNumber = currentConfiguration.configuration.getFailedJobNumber();
+
+		for( final RundeckExecution rundeckExecution : rundeckExecutions ) {
+
+			final RundeckProjectHistory rundeckProjectHistory = getProjectHistory( currentConfiguration.serverMonitors, rundeckExecution );
+			if( null != rundeckProjectHistory && rundeckProjectHistory.notifyExecution( rundeckExecution, failedJobNumber ) ) {
 				rundeckMonitorState.setFailedJobs( true );
-				knownFailedExecutionIds.add( rundeckExecution.getId() );
 			}
+		}
 
-			final String jobName;
-			if( null != rundeckExecution.getJob() ) {
-				jobName = rundeckExecution.getJob().getName();
+		checkLateExecutions();
+	}
+
+	/**
+	 * Find the project history of a notified execution, on the server of the execution URL first
+	 *
+	 * @param rundeckServerMonitors monitors of the servers
+	 * @param rundeckExecution notified execution
+	 * @return project history or null if the execution project is not monitored
+	 */
+	private static RundeckProjectHistory getProjectHistory( final List<RundeckServerMonitor> rundeckServerMonitors, final RundeckExecution rundeckExecution ) {
+
+		for( final RundeckServerMonitor rundeckServerMonitor : rundeckServerMonitors ) {
+
+			final RundeckProjectHistory rundeckProjectHistory = rundeckServerMonitor.getProjectHistory( rundeckExecution, true );
+			if( null != rundeckProjectHistory ) {
+				return rundeckProjectHistory;
 			}
-			else {
-				jobName = rundeckExecution.getDescription();
+		}
+
+		//The notification URL can use another host name than the configuration
+		for( final RundeckServerMonitor rundeckServerMonitor : rundeckServerMonitors ) {
+
+			final RundeckProjectHistory rundeckProjectHistory = rundeckServerMonitor.getProjectHistory( rundeckExecution, false );
+			if( null != rundeckProjectHistory ) {
+				return rundeckProjectHistory;
 			}
-			listJobExecutionInfo.add( new JobExecutionInfo( rundeckExecution.getId(), rundeckExecution.getStartedAt(), jobName, false, newFailedJob && ! init ) );
 		}
 
-		//Display failed/late jobs on the trayIcon menu
-		rundeckMonitorTrayIcon.updateExecutionIdsList( listJobExecutionInfo );
+		return null;
+	}
 
-		if( init ) {
+	/**
+	 * Flag the running executions reaching the late threshold between 2 updates, using the lasts running executions without calling rundeck
+	 */
+	private synchronized void checkLateExecutions() {
 
-			rundeckMonitorState.setFailedJobs( false );
+		final ActiveConfiguration currentConfiguration = activeConfiguration;
+		final int lateThreshold = currentConfiguration.configuration.getLateThreshold();
+
+		final List<JobExecutionInfo> lateExecutions = new ArrayList<>();
+		final List<JobExecutionInfo> failedExecutions = new ArrayList<>();
+
+		boolean lateExecutionFound = false;
+
+		for( final RundeckServerMonitor rundeckServerMonitor : currentConfiguration.serverMonitors ) {
+
+			rundeckServerMonitor.checkLateExecutions( lateThreshold );
+			rundeckServerMonitor.scheduleLateExecutionDeadlines( rundeckMonitorScheduler.getScheduledExecutor(), lateExecutionListener );
+
+			if( rundeckServerMonitor.isLateExecutionFound() ) {
+				lateExecutionFound = true;
+			}
+
+			rundeckServerMonitor.addLastExecutions( lateExecutions, failedExecutions );
+		}
+
+		rundeckMonitorState.setLateJobs( lateExecutionFound );
+
+		displayedExecutions = mergeExecutions( lateExecutions, failedExecutions );
+		publishView();
+	}
+
+	/**
+	 * Publish the last executions and state to the tray icon, displayed later on the event dispatch thread.
+	 * The new executions are given only to this view, the next views display them again without alerting them again
+	 */
+	private synchronized void publishView() {
+
+		final List<JobExecutionInfo> newExecutions = new ArrayList<>();
+		for( final RundeckServerMonitor rundeckServerMonitor : activeConfiguration.serverMonitors ) {
+			rundeckServerMonitor.drainNewExecutions( newExecutions );
 		}
 
-		//Update the tray icon color
-		rundeckMonitorTrayIcon.updateTrayIcon();
+		//The new executions are kept as new by the monitor, the snapshot saves them even if the view is not displayed yet
+		for( final JobExecutionInfo jobExecutionInfo : newExecutions ) {
+			rundeckMonitorState.addNewProcess( jobExecutionInfo );
+		}
+
+		rundeckMonitorTrayIcon.publish( new RundeckMonitorView( displayedExecutions, newExecutions, rundeckMonitorState.isLateJobs(), rundeckMonitorState.isDisconnected(), toolTip, getStatistics( activeConfiguration ) ) );
 	}
 
 	/**
-	 * Rundeck launcher exception handler, display an error message based on the argument exception
+	 * Merge all projects executions, late jobs first and then failed jobs
+	 *
+	 * @param lateExecutions late executions of all projects
+	 * @param failedExecutions failed executions of all projects
+	 * @return executions to display
+	 */
+	private static List<JobExecutionInfo> mergeExecutions( final List<JobExecutionInfo> lateExecutions, final List<JobExecutionInfo> failedExecutions ) {
+
+		Collections.sort( lateExecutions, MOST_RECENT_FIRST );
+		Collections.sort( failedExecutions, MOST_RECENT_FIRST );
+
+		final List<JobExecutionInfo> listJobExecutionInfo = new ArrayList<>( lateExecutions );
+		listJobExecutionInfo.addAll( failedExecutions );
+
+		return listJobExecutionInfo;
+	}
+
+	/**
+	 * Display the startup exception dialog on the event dispatch thread without blocking the calling task, then launch the wizard or exit
+	 *
+	 * @param exception exception to display
+	 * @param initialization indicate if the tray icon is not loaded yet
+	 * @param editedConfiguration configuration to fix in the wizard
+	 * @param exitTask task to run before the exit, can be null
+	 */
+	private static void showStartupException( final Exception exception, final boolean initialization, final RundeckMonitorConfiguration editedConfiguration, final Runnable exitTask ) {
+
+		SwingUtilities.invokeLater( new Runnable() {
+			@Override
+			@SuppressWarnings("synthetic-access")
+			public void run() {
+
+				if( handleStartupException( exception, initialization ) ) {
+
+					new RundeckMonitorConfigurationWizard( editedConfiguration, true );
+				}
+				else {
+
+					if( null != exitTask ) {
+						exitTask.run();
+					}
+					System.exit( 1 );
+				}
+			}
+		} );
+	}
+
+	/**
+	 * Rundeck launcher exception handler, display an error message based on the argument exception, must be called on the event dispatch thread
 	 *
 	 * @param exception exception to analyze
 	 * @param initialization indicate if the tray icon is not loaded yet
@@ -451,31 +1053,85 @@ public class RundeckMonitor implements Runnable {
 	 * @param args program arguments: none is expected and used
 	 * @throws InterruptedException
 	 */
-	public static void main( final String args[] ) throws InterruptedException {
+	public static void main( final String args[] ) {
+
+		//Runtime of all the monitor tasks
+		final RundeckMonitorScheduler rundeckMonitorScheduler = new RundeckMonitorScheduler();
+
+		//HTTP transport shared by the monitor and the version checker
+		final HttpTransport httpTransport = new HttpTransport();
 
 		//Launch the configuration wizard if there is no configuration file
 		if( ! RundeckMonitorConfiguration.propertiesFileExists() ) {
 			new RundeckMonitorConfigurationWizard( new RundeckMonitorConfiguration(), true );
 		}
 
-		//Wait until the configuration file is created
-		while( ! RundeckMonitorConfiguration.propertiesFileExists() ) {
-
-			try {
-				Thread.sleep( 1000 );
-			}
-			catch( final InterruptedException e ) {
-				//Ignore this error
-			}
-		}
-
 		//Initialization of the version checker
-		final VersionChecker versionChecker = new VersionChecker( "Sylvain-Bugat", "RundeckMonitor", "rundeck-monitor", "-jar-with-dependencies" ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		final VersionChecker versionChecker = new VersionChecker( "Sylvain-Bugat", "RundeckMonitor", "rundeck-monitor", "-jar-with-dependencies", httpTransport ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
 
 		//Clean any temporary downloaded jar
 		versionChecker.cleanOldAndTemporaryJar();
 
-		while( true ) {
+		//Launch the monitor when the configuration file is created and valid
+		try {
+			new RundeckMonitorLauncher( versionChecker, rundeckMonitorScheduler, httpTransport ).start();
+		}
+		catch( final IOException e ) {
+
+			JOptionPane.showMessageDialog( null, "Unable to watch the configuration file:" + System.lineSeparator() + e.getMessage(), "RundeckMonitor initialization error", JOptionPane.ERROR_MESSAGE ); //$NON-NLS-1$ //$NON-NLS-2$
+			System.exit( 1 );
+		}
+	}
+	/**
+	 * Launcher of the monitor, the launch is retried on each change of the configuration file until the monitor is started
+	 */
+	private static final class RundeckMonitorLauncher implements Runnable {
+
+		private final VersionChecker versionChecker;
+
+		private final RundeckMonitorScheduler rundeckMonitorScheduler;
+
+		private final HttpTransport httpTransport;
+
+		/**Watcher of the configuration file until the monitor is started*/
+		private RundeckMonitorConfigurationWatcher rundeckMonitorConfigurationWatcher;
+
+		/**Indicate if the monitor is started, the next configuration changes are handled by the monitor*/
+		private boolean started;
+
+		RundeckMonitorLauncher( final VersionChecker versionCheckerArg, final RundeckMonitorScheduler rundeckMonitorSchedulerArg, final HttpTransport httpTransportArg ) {
+
+			versionChecker = versionCheckerArg;
+			rundeckMonitorScheduler = rundeckMonitorSchedulerArg;
+			httpTransport = httpTransportArg;
+		}
+
+		/**
+		 * Watch the configuration file and try to launch the monitor
+		 *
+		 * @throws IOException if the configuration file cannot be watched
+		 */
+		void start() throws IOException {
+
+			rundeckMonitorConfigurationWatcher = new RundeckMonitorConfigurationWatcher( new Runnable() {
+				@Override
+				@SuppressWarnings("synthetic-access")
+				public void run() {
+					rundeckMonitorScheduler.submit( RundeckMonitorLauncher.this );
+				}
+			} );
+
+			rundeckMonitorScheduler.submit( this );
+		}
+
+		@Override
+		@SuppressWarnings("synthetic-access")
+		public synchronized void run() {
+
+			//Wait until the configuration file is created or updated
+			if( started || ! RundeckMonitorConfiguration.propertiesFileExists() ) {
+				return;
+			}
 
 			final RundeckMonitorConfiguration rundeckMonitorConfiguration = new RundeckMonitorConfiguration();
 
@@ -484,36 +1140,24 @@ public class RundeckMonitor implements Runnable {
 				//Configuration loading
 				rundeckMonitorConfiguration.loadConfigurationPropertieFile();
 
-				//Start the main thread
-				new Thread( new RundeckMonitor( rundeckMonitorConfiguration, versionChecker ) ).start();
+				//Start the monitor tasks
+				new RundeckMonitor( rundeckMonitorConfiguration, versionChecker, rundeckMonitorScheduler, httpTransport ).start();
 
 				if( rundeckMonitorConfiguration.isVersionCheckerEnabled() ) {
-					//Start the version checker thread
-					new Thread( versionChecker ).start();
+					//Start the version checker task
+					rundeckMonitorScheduler.submit( versionChecker );
 				}
 
-				//Monitor and Version started without exception, end the launch thread
+				//Monitor and Version started without exception, end the launch
+				started = true;
+				rundeckMonitorConfigurationWatcher.close();
 				return;
 			}
 			catch ( final Exception e ) {
 
-				if( ! handleStartupException( e, true ) ) {
-					System.exit( 1 );
-				}
-			}
-
-			//Date the current time and launch the configuration wizard
-			final Date systemDate = new Date();
-
-			new RundeckMonitorConfigurationWizard( rundeckMonitorConfiguration, true );
-
-			//Wait until the configuration file is updated
-			boolean configurationFileUpdated = false;
-			while( ! configurationFileUpdated ) {
-
-				Thread.sleep( 1000 );
-				configurationFileUpdated = RundeckMonitorConfiguration.propertiesFileUpdated( systemDate );
+				//Launch the configuration wizard or exit, the launch is retried when the configuration file is saved
+				showStartupException( e, true, rundeckMonitorConfiguration, null );
 			}
 		}
 	}
-}
\ No newline at end of file
+}
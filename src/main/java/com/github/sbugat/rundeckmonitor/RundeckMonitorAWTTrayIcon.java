@@ -16,15 +16,17 @@ import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import javax.swing.JDialog;
 import javax.swing.JOptionPane;
 
+import com.github.sbugat.rundeckmonitor.configuration.ConfigurationChange;
 import com.github.sbugat.rundeckmonitor.configuration.RundeckMonitorConfiguration;
 import com.github.sbugat.rundeckmonitor.wizard.JobTabRedirection;
 
@@ -42,15 +44,23 @@ public class RundeckMonitorAWTTrayIcon extends RundeckMonitorTrayIcon {
 	/**MenuItem for lasts late/failed jobs*/
 	private final Map<MenuItem, JobExecutionInfo> failedMenuItems = new LinkedHashMap<>();
 
+	/**Current style of each late/failed job menu item, only changed styles are applied*/
+	private MenuItemStyle[] menuItemStyles;
+
+	/**Fonts of the late/failed job menu items derived once, null until a menu item font exists*/
+	private Font plainFont;
+	private Font boldFont;
+
 	/**
 	 * Initialize the tray icon for the rundeckMonitor if the OS is compatible with it
 	 *
 	 * @param rundeckMonitorConfigurationArg loaded configuration
 	 * @param rundeckMonitorStateArg state of the rundeck monitor
+	 * @param rundeckMonitorSchedulerArg runtime of the monitor tasks
 	 */
-	public RundeckMonitorAWTTrayIcon( final RundeckMonitorConfiguration rundeckMonitorConfigurationArg, final RundeckMonitorState rundeckMonitorStateArg ) {
+	public RundeckMonitorAWTTrayIcon( final RundeckMonitorConfiguration rundeckMonitorConfigurationArg, final RundeckMonitorState rundeckMonitorStateArg, final RundeckMonitorScheduler rundeckMonitorSchedulerArg ) {
 
-		super( rundeckMonitorConfigurationArg, rundeckMonitorStateArg );
+		super( rundeckMonitorConfigurationArg, rundeckMonitorStateArg, rundeckMonitorSchedulerArg );
 
 		//Action listener to get job execution detail on the rundeck URL
 		menuListener = new ActionListener() {
@@ -70,7 +80,7 @@ public class RundeckMonitorAWTTrayIcon extends RundeckMonitorTrayIcon {
 					}
 
 					try {
-						final URI executionURI = new URI( rundeckMonitorConfiguration.getRundeckUrl() + RUNDECK_JOB_EXECUTION_URL + jobTabRedirection.getAccessUrlPrefix() + '/' + jobExecutionInfo.getExecutionId() + jobTabRedirection.getAccessUrlSuffix() );
+						final URI executionURI = new URI( jobExecutionInfo.getRundeckUrl() + RUNDECK_JOB_EXECUTION_URL + jobTabRedirection.getAccessUrlPrefix() + '/' + jobExecutionInfo.getExecutionId() + jobTabRedirection.getAccessUrlSuffix() );
 						desktop.browse( executionURI );
 					}
 					catch ( final URISyntaxException | IOException exception) {
@@ -90,17 +100,15 @@ public class RundeckMonitorAWTTrayIcon extends RundeckMonitorTrayIcon {
 				rundeckMonitorState.setFailedJobs( false );
 
 				//Reset all failed icon
-				for( final Entry<MenuItem,JobExecutionInfo> entry: failedMenuItems.entrySet() ) {
+				int i = 0;
+				for( final MenuItem menuItem : failedMenuItems.keySet() ) {
 
-					final Font menuItemFont = entry.getKey().getFont();
-					if( null != menuItemFont ) {
-						entry.getKey().setFont( menuItemFont.deriveFont( Font.PLAIN ) );
-					}
+					applyMenuItemStyle( menuItem, i, MenuItemStyle.PLAIN );
+					i++;
 				}
 
 				//Clear all new failed jobs
-				newLateProcess.clear();
-				newFailedProcess.clear();
+				rundeckMonitorState.clearNewProcess();
 
 				updateTrayIcon();
 			}
@@ -109,6 +117,7 @@ public class RundeckMonitorAWTTrayIcon extends RundeckMonitorTrayIcon {
 		//Popup menu
 		popupMenu = new PopupMenu();
 
+		menuItemStyles = newMenuItemStyles();
 		for( int i = 0 ; i < rundeckMonitorConfiguration.getFailedJobNumber() ; i++ ){
 
 			final MenuItem failedItem = new MenuItem();
@@ -121,10 +130,14 @@ public class RundeckMonitorAWTTrayIcon extends RundeckMonitorTrayIcon {
 
 		final MenuItem reinitItem = new MenuItem( "Reset alert" ); //$NON-NLS-1$
 		popupMenu.add( reinitItem );
+		reinitItem.addActionListener( reinitListener );
+
+		final MenuItem refreshItem = new MenuItem( "Refresh now" ); //$NON-NLS-1$
+		popupMenu.add( refreshItem );
+		refreshItem.addActionListener( refreshListener );
 
 		popupMenu.addSeparator();
 
-		reinitItem.addActionListener( reinitListener );
 		final MenuItem aboutItem = new MenuItem( "About RundeckMonitor" ); //$NON-NLS-1$
 		popupMenu.add( aboutItem );
 
@@ -156,8 +169,10 @@ public class RundeckMonitorAWTTrayIcon extends RundeckMonitorTrayIcon {
 		});
 
 		//Add the icon  to the system tray
-		trayIcon = new TrayIcon( IMAGE_OK, rundeckMonitorConfiguration.getRundeckMonitorName(), popupMenu );
-		trayIcon.setImageAutoSize( true );
+		trayIcon = new TrayIcon( getTrayImage( TrayImage.OK ), rundeckMonitorConfiguration.getRundeckMonitorName(), popupMenu );
+		rundeckMonitorNotifier = new RundeckMonitorNotifier( trayIcon );
+		//Images are already scaled to the tray icon size
+		trayIcon.setImageAutoSize( false );
 
 		trayIcon.addMouseListener( new MouseAdapter() {
 
@@ -202,44 +217,89 @@ public class RundeckMonitorAWTTrayIcon extends RundeckMonitorTrayIcon {
 			final JobExecutionInfo jobExecutionInfo = listJobExecutionInfo.get( i );
 			final MenuItem menuItem = entry.getKey();
 
-			entry.setValue( jobExecutionInfo );
-			final SimpleDateFormat formatter = new SimpleDateFormat( rundeckMonitorConfiguration.getDateFormat() );
-			final String longExecution = jobExecutionInfo.isLongExecution() ? LONG_EXECUTION_MARKER : ""; //$NON-NLS-1$
-			final String message = formatter.format( jobExecutionInfo.getStartedAt() ) + ": " +jobExecutionInfo.getDescription(); //$NON-NLS-1$
-			menuItem.setLabel( message + longExecution );
+			final JobExecutionInfo previousJobExecutionInfo = entry.setValue( jobExecutionInfo );
+			final String message = getExecutionLabel( jobExecutionInfo );
 
-			if( jobExecutionInfo.isNewJob() ) {
+			//Only a menu item displaying another execution is relabeled
+			if( ! sameMenuItemLabel( previousJobExecutionInfo, jobExecutionInfo ) ) {
 
 				if( jobExecutionInfo.isLongExecution() ) {
-					trayIcon.displayMessage( NEW_LONG_EXECUTION_ALERT, message, TrayIcon.MessageType.WARNING );
-					newLateProcess.add( jobExecutionInfo.getExecutionId() );
+					menuItem.setLabel( message + LONG_EXECUTION_MARKER );
 				}
 				else {
-					trayIcon.displayMessage( NEW_FAILED_JOB_ALERT, message, TrayIcon.MessageType.ERROR );
-					newFailedProcess.add( jobExecutionInfo.getExecutionId() );
+					menuItem.setLabel( message );
 				}
 			}
 
-			//Check if the font of the menuItem exists
-			final Font menuItemFont = entry.getKey().getFont();
-			if( null != menuItemFont ) {
-				//Mark failed and late jobs with an icon and bold menuitem
-				if( newFailedProcess.contains( jobExecutionInfo.getExecutionId() ) ) {
-					menuItem.setFont( menuItemFont.deriveFont( Font.BOLD ) );
-				}
-				else if( newLateProcess.contains( jobExecutionInfo.getExecutionId() ) ) {
-					menuItem.setFont( menuItemFont.deriveFont( Font.BOLD ) );
-				}
-				else {
-					menuItem.setFont( menuItemFont.deriveFont( Font.PLAIN ) );
-				}
-			}
+			//Mark failed and late jobs with a bold menuitem
+			applyMenuItemStyle( menuItem, i, getMenuItemStyle( jobExecutionInfo ) );
 
 			i++;
 		}
 	}
 
-	public void reloadConfiguration() {
+	/**
+	 * Change the font of a late/failed job menu item if its style has changed
+	 *
+	 * @param menuItem menu item to update
+	 * @param index index of the menu item
+	 * @param menuItemStyle style to apply
+	 */
+	private void applyMenuItemStyle( final MenuItem menuItem, final int index, final MenuItemStyle menuItemStyle ) {
+
+		if( menuItemStyles[ index ] == menuItemStyle ) {
+			return;
+		}
+
+		//Check if the font of the menuItem exists
+		if( null == plainFont ) {
+
+			final Font menuItemFont = menuItem.getFont();
+			if( null == menuItemFont ) {
+				return;
+			}
+
+			plainFont = menuItemFont.deriveFont( Font.PLAIN );
+			boldFont = menuItemFont.deriveFont( Font.BOLD );
+		}
+
+		menuItemStyles[ index ] = menuItemStyle;
+		if( MenuItemStyle.PLAIN == menuItemStyle ) {
+			menuItem.setFont( plainFont );
+		}
+		else {
+			menuItem.setFont( boldFont );
+		}
+	}
+
+	/**
+	 * Create the styles of new late/failed job menu items
+	 *
+	 * @return plain style for each menu item
+	 */
+	private MenuItemStyle[] newMenuItemStyles() {
+
+		final MenuItemStyle[] newMenuItemStyles = new MenuItemStyle[ rundeckMonitorConfiguration.getFailedJobNumber() ];
+		Arrays.fill( newMenuItemStyles, MenuItemStyle.PLAIN );
+		return newMenuItemStyles;
+	}
+
+	@Override
+	public void reloadConfiguration( final RundeckMonitorConfiguration rundeckMonitorConfigurationArg, final Set<ConfigurationChange> changes ) {
+
+		super.reloadConfiguration( rundeckMonitorConfigurationArg, changes );
+
+		if( ! changes.contains( ConfigurationChange.FAILED_JOB_NUMBER ) ) {
+
+			//Relabel all menu items on the next display with the new date format
+			if( changes.contains( ConfigurationChange.DATE_FORMAT ) ) {
+				for( final Entry<MenuItem,JobExecutionInfo> entry: failedMenuItems.entrySet() ) {
+					entry.setValue( null );
+				}
+			}
+
+			return;
+		}
 
 		//Remove all old failedMenuItems from the popup menu
 		for( final MenuItem failedItem : failedMenuItems.keySet() ) {
@@ -248,6 +308,7 @@ public class RundeckMonitorAWTTrayIcon extends RundeckMonitorTrayIcon {
 		}
 
 		failedMenuItems.clear();
+		menuItemStyles = newMenuItemStyles();
 
 		//Add all new menu items to the popup menu
 		for( int i = 0 ; i < rundeckMonitorConfiguration.getFailedJobNumber() ; i++ ){
@@ -257,7 +318,5 @@ public class RundeckMonitorAWTTrayIcon extends RundeckMonitorTrayIcon {
 			popupMenu.insert( failedItem, i );
 			failedItem.addActionListener( menuListener );
 		}
-
-		super.reloadConfiguration();
 	}
 }
@@ -0,0 +1,190 @@
+package com.github.sbugat.rundeckmonitor;
+
+import java.awt.TrayIcon;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.github.sbugat.rundeckmonitor.tools.NamedThreadFactory;
+import com.github.sbugat.rundeckmonitor.tools.TokenBucket;
+
+/**
+ * Alerts of the new failed jobs and long executions displayed by the tray icon
+ *
+ * Alerts are displayed by a dedicated thread: the new jobs of a short window are grouped in one alert
+ * and the number of alerts is rate limited, the remaining jobs are grouped until an alert can be displayed
+ *
+ * @author Sylvain Bugat
+ *
+ */
+public class RundeckMonitorNotifier {
+
+	/**Delay in milliseconds to group the new jobs before the alert*/
+	private static final long COALESCING_WINDOW = 2000L;
+
+	/**Maximum number of consecutive alerts*/
+	private static final int ALERTS_BURST = 3;
+
+	/**Minimum delay in milliseconds between 2 alerts after a burst*/
+	private static final long ALERTS_INTERVAL = 20_000L;
+
+	/**Maximum number of jobs listed in a grouped alert*/
+	private static final int LISTED_JOBS = 3;
+
+	private static final String JOBS_SEPARATOR = ", "; //$NON-NLS-1$
+	private static final String MORE_JOBS = "..."; //$NON-NLS-1$
+	private static final String NEW_FAILED_JOBS_ALERT = " new failed jobs"; //$NON-NLS-1$
+	private static final String NEW_LONG_EXECUTIONS_ALERT = " new long executions"; //$NON-NLS-1$
+
+	private final TrayIcon trayIcon;
+
+	/**Thread displaying the alerts, a slow native alert doesn't block the event dispatch thread*/
+	private final ScheduledExecutorService notifierExecutor = Executors.newSingleThreadScheduledExecutor( new NamedThreadFactory( "rundeck-monitor-notifier" ) ); //$NON-NLS-1$
+
+	private final TokenBucket alertsBucket = new TokenBucket( ALERTS_BURST, ALERTS_INTERVAL );
+
+	/**Labels of the jobs not alerted yet, only used by the notifier thread*/
+	private final List<String> pendingFailedJobs = new ArrayList<>();
+	private final List<String> pendingLateJobs = new ArrayList<>();
+
+	/**Indicate if the display of the pending jobs is scheduled, only used by the notifier thread*/
+	private boolean displayScheduled;
+
+	/**Display the pending jobs*/
+	private final Runnable pendingJobsDisplay = new Runnable() {
+		@Override
+		@SuppressWarnings("synthetic-access")
+		public void run() {
+			displayPendingJobs();
+		}
+	};
+
+	/**
+	 * Initialize the notifier of a tray icon
+	 *
+	 * @param trayIconArg tray icon displaying the alerts
+	 */
+	public RundeckMonitorNotifier( final TrayIcon trayIconArg ) {
+		trayIcon = trayIconArg;
+	}
+
+	/**
+	 * Alert a new failed job
+	 *
+	 * @param label label of the job
+	 */
+	public void newFailedJob( final String label ) {
+		addPendingJob( pendingFailedJobs, label );
+	}
+
+	/**
+	 * Alert a new long execution
+	 *
+	 * @param label label of the job
+	 */
+	public void newLateJob( final String label ) {
+		addPendingJob( pendingLateJobs, label );
+	}
+
+	/**
+	 * Stop the alerts, the pending jobs are not alerted
+	 */
+	public void shutdown() {
+		notifierExecutor.shutdownNow();
+	}
+
+	/**
+	 * Add a job to alert and schedule the display at the end of the window
+	 *
+	 * @param pendingJobs pending jobs of the same alert type
+	 * @param label label of the job
+	 */
+	private void addPendingJob( final List<String> pendingJobs, final String label ) {
+
+		try {
+			notifierExecutor.execute( new Runnable() {
+				@Override
+				@SuppressWarnings("synthetic-access")
+				public void run() {
+
+					pendingJobs.add( label );
+					scheduleDisplay( COALESCING_WINDOW );
+				}
+			} );
+		}
+		catch( final RejectedExecutionException e ) {
+
+			//The tray icon is disposed
+		}
+	}
+
+	/**
+	 * Schedule the display of the pending jobs if it is not already scheduled
+	 *
+	 * @param delay delay in milliseconds
+	 */
+	private void scheduleDisplay( final long delay ) {
+
+		if( ! displayScheduled ) {
+
+			displayScheduled = true;
+			notifierExecutor.schedule( pendingJobsDisplay, delay, TimeUnit.MILLISECONDS );
+		}
+	}
+
+	/**
+	 * Display an alert for each type of pending jobs, failed jobs first, the jobs are kept pending if the alerts limit is reached
+	 */
+	private void displayPendingJobs() {
+
+		displayScheduled = false;
+
+		displayPendingJobs( pendingFailedJobs, RundeckMonitorTrayIcon.NEW_FAILED_JOB_ALERT, NEW_FAILED_JOBS_ALERT, TrayIcon.MessageType.ERROR );
+		displayPendingJobs( pendingLateJobs, RundeckMonitorTrayIcon.NEW_LONG_EXECUTION_ALERT, NEW_LONG_EXECUTIONS_ALERT, TrayIcon.MessageType.WARNING );
+
+		if( ! pendingFailedJobs.isEmpty() || ! pendingLateJobs.isEmpty() ) {
+			scheduleDisplay( Math.max( COALESCING_WINDOW, alertsBucket.getWaitTime() ) );
+		}
+	}
+
+	/**
+	 * Display one alert for the pending jobs of a type
+	 *
+	 * @param pendingJobs pending jobs of the same alert type
+	 * @param singleJobCaption caption of the alert for one job
+	 * @param jobsCaption caption of the alert for several jobs after their number
+	 * @param messageType type of the alert
+	 */
+	private void displayPendingJobs( final List<String> pendingJobs, final String singleJobCaption, final String jobsCaption, final TrayIcon.MessageType messageType ) {
+
+		if( pendingJobs.isEmpty() || ! alertsBucket.tryAcquire() ) {
+			return;
+		}
+
+		if( 1 == pendingJobs.size() ) {
+			trayIcon.displayMessage( singleJobCaption, pendingJobs.get( 0 ), messageType );
+		}
+		else {
+
+			final StringBuilder message = new StringBuilder();
+			for( int i = 0 ; i < pendingJobs.size() && i < LISTED_JOBS ; i++ ) {
+
+				if( i > 0 ) {
+					message.append( JOBS_SEPARATOR );
+				}
+				message.append( pendingJobs.get( i ) );
+			}
+
+			if( pendingJobs.size() > LISTED_JOBS ) {
+				message.append( MORE_JOBS );
+			}
+
+			trayIcon.displayMessage( pendingJobs.size() + jobsCaption, message.toString(), messageType );
+		}
+
+		pendingJobs.clear();
+	}
+}
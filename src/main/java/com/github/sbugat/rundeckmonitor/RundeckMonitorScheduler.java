@@ -0,0 +1,203 @@
+package com.github.sbugat.rundeckmonitor;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.github.sbugat.rundeckmonitor.tools.NamedThreadFactory;
+
+/**
+ * Runtime of the rundeck monitor: rundeck polling, late executions deadlines, configuration watching and version checking are tasks of the same scheduler
+ *
+ * The polling can be triggered immediately and all tasks are cancelled on shutdown
+ *
+ * @author Sylvain Bugat
+ *
+ */
+public class RundeckMonitorScheduler {
+
+	/**Scheduler threads: polling, configuration reload, version checker download and short tasks like late deadlines*/
+	private static final int SCHEDULER_THREADS = 4;
+
+	/**Executor of all the monitor tasks, its threads keep the monitor alive until the shutdown*/
+	private final ScheduledThreadPoolExecutor scheduledExecutor;
+
+	/**Polling task returning the delay in milliseconds before the next poll*/
+	private Callable<Long> pollingTask;
+
+	/**Next scheduled poll*/
+	private ScheduledFuture<?> nextPoll;
+
+	/**Indicate if a poll is running*/
+	private boolean polling;
+
+	/**Indicate if an immediate poll has been requested during a running poll*/
+	private boolean pollRequested;
+
+	/**Delay of the last successful poll, reused if a poll fails unexpectedly*/
+	private long lastPollingDelay;
+
+	/**Execute the polling task and schedule the next one*/
+	private final Runnable pollingRunnable = new Runnable() {
+		@Override
+		@SuppressWarnings("synthetic-access")
+		public void run() {
+			poll();
+		}
+	};
+
+	public RundeckMonitorScheduler() {
+
+		scheduledExecutor = new ScheduledThreadPoolExecutor( SCHEDULER_THREADS, new NamedThreadFactory( "rundeck-monitor-scheduler", false ) ); //$NON-NLS-1$
+		scheduledExecutor.setRemoveOnCancelPolicy( true );
+	}
+
+	/**
+	 * Start polling rundeck, each poll returns the delay before the next one
+	 *
+	 * @param pollingTaskArg polling task returning the delay in milliseconds before the next poll
+	 * @param initialDelay delay in milliseconds before the first poll
+	 */
+	public synchronized void startPolling( final Callable<Long> pollingTaskArg, final long initialDelay ) {
+
+		pollingTask = pollingTaskArg;
+		lastPollingDelay = initialDelay;
+		schedulePoll( initialDelay );
+	}
+
+	/**
+	 * Poll rundeck immediately, or just after the running poll
+	 */
+	public synchronized void pollNow() {
+
+		if( null == pollingTask ) {
+			return;
+		}
+
+		if( polling ) {
+			pollRequested = true;
+		}
+		else {
+			schedulePoll( 0 );
+		}
+	}
+
+	/**
+	 * Replace the delay of the next poll, ignored if a poll is running because it will schedule the next one
+	 *
+	 * @param delay delay in milliseconds before the next poll
+	 */
+	public synchronized void pollIn( final long delay ) {
+
+		if( null != pollingTask && ! polling ) {
+			schedulePoll( delay );
+		}
+	}
+
+	/**
+	 * Schedule a periodic task
+	 *
+	 * @param task task to execute
+	 * @param delay delay in milliseconds between the end of an execution and the next one
+	 * @return scheduled task
+	 */
+	public ScheduledFuture<?> scheduleWithFixedDelay( final Runnable task, final long delay ) {
+
+		return scheduledExecutor.scheduleWithFixedDelay( task, delay, delay, TimeUnit.MILLISECONDS );
+	}
+
+	/**
+	 * Schedule a one-shot task
+	 *
+	 * @param task task to execute
+	 * @param delay delay in milliseconds before the execution
+	 * @return scheduled task
+	 */
+	public ScheduledFuture<?> schedule( final Runnable task, final long delay ) {
+
+		return scheduledExecutor.schedule( task, delay, TimeUnit.MILLISECONDS );
+	}
+
+	/**
+	 * Execute a task as soon as possible
+	 *
+	 * @param task task to execute
+	 */
+	public void submit( final Runnable task ) {
+
+		scheduledExecutor.execute( task );
+	}
+
+	public ScheduledExecutorService getScheduledExecutor() {
+		return scheduledExecutor;
+	}
+
+	/**
+	 * Cancel all tasks and interrupt the running ones
+	 */
+	public synchronized void shutdown() {
+
+		if( null != nextPoll ) {
+			nextPoll.cancel( false );
+		}
+
+		scheduledExecutor.shutdownNow();
+	}
+
+	/**
+	 * Replace the next scheduled poll
+	 *
+	 * @param delay delay in milliseconds before the next poll
+	 */
+	private void schedulePoll( final long delay ) {
+
+		if( scheduledExecutor.isShutdown() ) {
+			return;
+		}
+
+		if( null != nextPoll ) {
+			nextPoll.cancel( false );
+		}
+
+		nextPoll = scheduledExecutor.schedule( pollingRunnable, delay, TimeUnit.MILLISECONDS );
+	}
+
+	/**
+	 * Execute the polling task and schedule the next poll
+	 */
+	private void poll() {
+
+		final Callable<Long> currentPollingTask;
+		long delay;
+		synchronized( this ) {
+			polling = true;
+			pollRequested = false;
+			currentPollingTask = pollingTask;
+			delay = lastPollingDelay;
+		}
+
+		try {
+			delay = currentPollingTask.call().longValue();
+		}
+		catch( final Exception e ) {
+
+			//The polling task handles its own errors, keep the previous delay
+		}
+		finally {
+			synchronized( this ) {
+
+				polling = false;
+				lastPollingDelay = delay;
+
+				if( pollRequested ) {
+					schedulePoll( 0 );
+				}
+				else {
+					schedulePoll( delay );
+				}
+			}
+		}
+	}
+}
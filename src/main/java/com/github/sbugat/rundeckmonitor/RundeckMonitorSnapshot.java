@@ -0,0 +1,230 @@
+package com.github.sbugat.rundeckmonitor;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.github.sbugat.rundeckmonitor.tools.BoundedLongSet;
+
+/**
+ * Compact binary snapshot of the monitor state (known executions, displayed executions, high-watermarks, time differences and alerts)
+ * saved after each update and loaded on startup to display the last known executions without waiting rundeck and without alerting again
+ *
+ * @author Sylvain Bugat
+ *
+ */
+public final class RundeckMonitorSnapshot {
+
+	/**Snapshot file, next to the configuration file*/
+	public static final String RUNDECK_MONITOR_SNAPSHOT_FILE = "rundeckMonitor.snapshot"; //$NON-NLS-1$
+	private static final String TEMPORARY_FILE_SUFFIX = ".tmp"; //$NON-NLS-1$
+
+	/**File header and format version, a snapshot with another version is ignored*/
+	private static final int SNAPSHOT_MAGIC_NUMBER = 0x524D534E;
+	private static final int SNAPSHOT_VERSION = 2;
+
+	/**Maximum length in bytes of a string read from a snapshot, a longer length is a corrupted snapshot*/
+	private static final int MAXIMUM_STRING_LENGTH = 16 * 1024 * 1024;
+
+	private RundeckMonitorSnapshot() {
+		//Static class
+	}
+
+	/**
+	 * Save the snapshot, the previous one is replaced atomically
+	 *
+	 * @param rundeckServerMonitors monitors of all rundeck servers
+	 * @param rundeckMonitorState current state of the monitor with the new late/failed jobs
+	 * @throws IOException in case of writing error, the temporary file is removed
+	 */
+	public static void save( final List<RundeckServerMonitor> rundeckServerMonitors, final RundeckMonitorState rundeckMonitorState ) throws IOException {
+
+		final Path snapshotFile = Paths.get( RUNDECK_MONITOR_SNAPSHOT_FILE );
+		final Path temporaryFile = Paths.get( RUNDECK_MONITOR_SNAPSHOT_FILE + TEMPORARY_FILE_SUFFIX );
+
+		try( final DataOutputStream dataOutputStream = new DataOutputStream( new BufferedOutputStream( Files.newOutputStream( temporaryFile ) ) ) ) {
+
+			dataOutputStream.writeInt( SNAPSHOT_MAGIC_NUMBER );
+			dataOutputStream.writeInt( SNAPSHOT_VERSION );
+
+			//Alerts not reset yet
+			dataOutputStream.writeBoolean( rundeckMonitorState.isFailedJobs() );
+			writeIds( dataOutputStream, rundeckMonitorState.getNewLateProcess() );
+			writeIds( dataOutputStream, rundeckMonitorState.getNewFailedProcess() );
+
+			dataOutputStream.writeInt( rundeckServerMonitors.size() );
+			for( final RundeckServerMonitor rundeckServerMonitor : rundeckServerMonitors ) {
+				rundeckServerMonitor.writeSnapshot( dataOutputStream );
+			}
+		}
+		catch( final IOException | RuntimeException e ) {
+
+			//Don't leave a partial snapshot, the previous one is kept
+			Files.deleteIfExists( temporaryFile );
+			throw e;
+		}
+
+		Files.move( temporaryFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+	}
+
+	/**
+	 * Load the snapshot in the monitors of the servers and projects still configured
+	 *
+	 * @param rundeckServerMonitors monitors of all rundeck servers
+	 * @param rundeckMonitorState state of the monitor to restore with the new late/failed jobs
+	 * @return true if a snapshot has been loaded
+	 */
+	public static boolean restore( final List<RundeckServerMonitor> rundeckServerMonitors, final RundeckMonitorState rundeckMonitorState ) {
+
+		final Map<String, RundeckServerMonitor> serverMonitors = new HashMap<>();
+		for( final RundeckServerMonitor rundeckServerMonitor : rundeckServerMonitors ) {
+			serverMonitors.put( rundeckServerMonitor.getRundeckServerConfiguration().getRundeckUrl(), rundeckServerMonitor );
+		}
+
+		try( final DataInputStream dataInputStream = new DataInputStream( new BufferedInputStream( Files.newInputStream( Paths.get( RUNDECK_MONITOR_SNAPSHOT_FILE ) ) ) ) ) {
+
+			if( SNAPSHOT_MAGIC_NUMBER != dataInputStream.readInt() || SNAPSHOT_VERSION != dataInputStream.readInt() ) {
+				return false;
+			}
+
+			rundeckMonitorState.setFailedJobs( dataInputStream.readBoolean() );
+			readIds( dataInputStream, rundeckMonitorState.getNewLateProcess() );
+			readIds( dataInputStream, rundeckMonitorState.getNewFailedProcess() );
+
+			final int serverNumber = dataInputStream.readInt();
+			for( int i = 0 ; i < serverNumber ; i++ ) {
+				RundeckServerMonitor.readSnapshot( dataInputStream, serverMonitors );
+			}
+
+			return true;
+		}
+		catch( final NoSuchFileException e ) {
+
+			//No snapshot yet
+			return false;
+		}
+		catch( final IOException | RuntimeException e ) {
+
+			//Invalid snapshot, the state will be rebuilt from rundeck
+			rundeckMonitorState.setFailedJobs( false );
+			rundeckMonitorState.clearNewProcess();
+			return false;
+		}
+	}
+
+	/**
+	 * Write a set of execution identifiers
+	 *
+	 * @param dataOutputStream snapshot stream
+	 * @param ids identifiers to write
+	 * @throws IOException in case of writing error
+	 */
+	static void writeIds( final DataOutputStream dataOutputStream, final BoundedLongSet ids ) throws IOException {
+
+		final long[] values = ids.toArray();
+		dataOutputStream.writeInt( values.length );
+		for( final long value : values ) {
+			dataOutputStream.writeLong( value );
+		}
+	}
+
+	/**
+	 * Read a set of execution identifiers
+	 *
+	 * @param dataInputStream snapshot stream
+	 * @param ids set where identifiers are added
+	 * @throws IOException in case of reading error
+	 */
+	static void readIds( final DataInputStream dataInputStream, final BoundedLongSet ids ) throws IOException {
+
+		ids.clear();
+		final int size = dataInputStream.readInt();
+		for( int i = 0 ; i < size ; i++ ) {
+			ids.add( dataInputStream.readLong() );
+		}
+	}
+
+	/**
+	 * Write a string as its length and its UTF-8 bytes, without the 64 KB limit of DataOutputStream.writeUTF
+	 *
+	 * @param dataOutputStream snapshot stream
+	 * @param value string to write
+	 * @throws IOException in case of writing error
+	 */
+	static void writeString( final DataOutputStream dataOutputStream, final String value ) throws IOException {
+
+		final byte[] bytes = value.getBytes( StandardCharsets.UTF_8 );
+		dataOutputStream.writeInt( bytes.length );
+		dataOutputStream.write( bytes );
+	}
+
+	/**
+	 * Read a string written by writeString
+	 *
+	 * @param dataInputStream snapshot stream
+	 * @return read string
+	 * @throws IOException in case of reading error or invalid length
+	 */
+	static String readString( final DataInputStream dataInputStream ) throws IOException {
+
+		final int length = dataInputStream.readInt();
+		if( length < 0 || length > MAXIMUM_STRING_LENGTH ) {
+			throw new IOException( "Invalid string length in the snapshot: " + length ); //$NON-NLS-1$
+		}
+
+		final byte[] bytes = new byte[ length ];
+		dataInputStream.readFully( bytes );
+		return new String( bytes, StandardCharsets.UTF_8 );
+	}
+
+	/**
+	 * Write a list of displayed executions
+	 *
+	 * @param dataOutputStream snapshot stream
+	 * @param jobExecutionInfos executions to write
+	 * @throws IOException in case of writing error
+	 */
+	static void writeExecutions( final DataOutputStream dataOutputStream, final List<JobExecutionInfo> jobExecutionInfos ) throws IOException {
+
+		dataOutputStream.writeInt( jobExecutionInfos.size() );
+		for( final JobExecutionInfo jobExecutionInfo : jobExecutionInfos ) {
+
+			dataOutputStream.writeLong( jobExecutionInfo.getExecutionId().longValue() );
+			dataOutputStream.writeLong( jobExecutionInfo.getStartedAt().getTime() );
+			writeString( dataOutputStream, String.valueOf( jobExecutionInfo.getDescription() ) );
+		}
+	}
+
+	/**
+	 * Read a list of displayed executions, restored executions are not new to avoid alerting again
+	 *
+	 * @param dataInputStream snapshot stream
+	 * @param jobExecutionInfos list where executions are added
+	 * @param longExecution true for late executions
+	 * @param rundeckUrl URL of the rundeck server of the executions
+	 * @throws IOException in case of reading error
+	 */
+	static void readExecutions( final DataInputStream dataInputStream, final List<JobExecutionInfo> jobExecutionInfos, final boolean longExecution, final String rundeckUrl ) throws IOException {
+
+		jobExecutionInfos.clear();
+		final int size = dataInputStream.readInt();
+		for( int i = 0 ; i < size ; i++ ) {
+
+			final long executionId = dataInputStream.readLong();
+			final Date startedAt = new Date( dataInputStream.readLong() );
+			jobExecutionInfos.add( new JobExecutionInfo( Long.valueOf( executionId ), startedAt, readString( dataInputStream ), longExecution, rundeckUrl ) );
+		}
+	}
+}
@@ -1,18 +1,28 @@
 package com.github.sbugat.rundeckmonitor;
 
+import com.github.sbugat.rundeckmonitor.tools.BoundedLongSet;
+
 /**
- * Class containing the current state of the monitor
+ * Class containing the current state of the monitor, the failed jobs state and the new jobs are also reset on the event dispatch thread
  *
  * @author Sylvain Bugat
  *
  */
 public class RundeckMonitorState {
 
-	private boolean failedJobs;
+	private volatile boolean failedJobs;
+
+	private volatile boolean lateJobs;
+
+	private volatile boolean disconnected;
+
+	/**Maximum number of new late/failed jobs kept until the alert reset*/
+	private static final int NEW_PROCESS_CAPACITY = 1024;
 
-	private boolean lateJobs;
+	/**New late/failed jobs, added when they are published to the tray icon and kept until the alert reset*/
+	private final BoundedLongSet newLateProcess = new BoundedLongSet( NEW_PROCESS_CAPACITY );
 
-	private boolean disconnected;
+	private final BoundedLongSet newFailedProcess = new BoundedLongSet( NEW_PROCESS_CAPACITY );
 
 	public boolean isFailedJobs() {
 		return failedJobs;
@@ -37,4 +47,36 @@ public class RundeckMonitorState {
 	public void setDisconnected( final boolean disconnectedArg ) {
 		disconnected = disconnectedArg;
 	}
+
+	public BoundedLongSet getNewLateProcess() {
+		return newLateProcess;
+	}
+
+	public BoundedLongSet getNewFailedProcess() {
+		return newFailedProcess;
+	}
+
+	/**
+	 * Keep a published execution as new until the alert reset
+	 *
+	 * @param jobExecutionInfo new late or failed execution
+	 */
+	public void addNewProcess( final JobExecutionInfo jobExecutionInfo ) {
+
+		if( jobExecutionInfo.isLongExecution() ) {
+			newLateProcess.add( jobExecutionInfo.getExecutionId().longValue() );
+		}
+		else {
+			newFailedProcess.add( jobExecutionInfo.getExecutionId().longValue() );
+		}
+	}
+
+	/**
+	 * Clear all new late/failed jobs
+	 */
+	public void clearNewProcess() {
+
+		newLateProcess.clear();
+		newFailedProcess.clear();
+	}
 }
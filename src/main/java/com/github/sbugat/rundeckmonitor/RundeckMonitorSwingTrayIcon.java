@@ -14,16 +14,18 @@ import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import javax.swing.JMenuItem;
 import javax.swing.JOptionPane;
 import javax.swing.JPopupMenu;
 
+import com.github.sbugat.rundeckmonitor.configuration.ConfigurationChange;
 import com.github.sbugat.rundeckmonitor.configuration.RundeckMonitorConfiguration;
 import com.github.sbugat.rundeckmonitor.wizard.JobTabRedirection;
 
@@ -41,15 +43,23 @@ public class RundeckMonitorSwingTrayIcon extends RundeckMonitorTrayIcon{
 	/**MenuItem for lasts late/failed jobs*/
 	private final Map<JMenuItem, JobExecutionInfo> failedMenuItems = new LinkedHashMap<>();
 
+	/**Current style of each late/failed job menu item, only changed styles are applied*/
+	private MenuItemStyle[] menuItemStyles;
+
+	/**Fonts of the late/failed job menu items derived once*/
+	private final Font plainFont;
+	private final Font boldFont;
+
 	/**
 	 * Initialize the tray icon for the rundeckMonitor if the OS is compatible with it
 	 *
 	 * @param rundeckMonitorConfigurationArg loaded configuration
 	 * @param rundeckMonitorStateArg state of the rundeck monitor
+	 * @param rundeckMonitorSchedulerArg runtime of the monitor tasks
 	 */
-	public RundeckMonitorSwingTrayIcon( final RundeckMonitorConfiguration rundeckMonitorConfigurationArg, final RundeckMonitorState rundeckMonitorStateArg ) {
+	public RundeckMonitorSwingTrayIcon( final RundeckMonitorConfiguration rundeckMonitorConfigurationArg, final RundeckMonitorState rundeckMonitorStateArg, final RundeckMonitorScheduler rundeckMonitorSchedulerArg ) {
 
-		super( rundeckMonitorConfigurationArg, rundeckMonitorStateArg );
+		super( rundeckMonitorConfigurationArg, rundeckMonitorStateArg, rundeckMonitorSchedulerArg );
 
 		//Action listener to get job execution detail on the rundeck URL
 		menuListener = new ActionListener() {
@@ -69,7 +79,7 @@ public class RundeckMonitorSwingTrayIcon extends RundeckMonitorTrayIcon{
 					}
 
 					try {
-						final URI executionURI = new URI( rundeckMonitorConfiguration.getRundeckUrl() + RUNDECK_JOB_EXECUTION_URL + jobTabRedirection.getAccessUrlPrefix() + '/' + jobExecutionInfo.getExecutionId() + jobTabRedirection.getAccessUrlSuffix() );
+						final URI executionURI = new URI( jobExecutionInfo.getRundeckUrl() + RUNDECK_JOB_EXECUTION_URL + jobTabRedirection.getAccessUrlPrefix() + '/' + jobExecutionInfo.getExecutionId() + jobTabRedirection.getAccessUrlSuffix() );
 						desktop.browse( executionURI );
 					}
 					catch ( final URISyntaxException | IOException exception) {
@@ -89,16 +99,15 @@ public class RundeckMonitorSwingTrayIcon extends RundeckMonitorTrayIcon{
 				rundeckMonitorState.setFailedJobs( false );
 
 				//Reset all failed icon
-				for( final Entry<JMenuItem,JobExecutionInfo> entry: failedMenuItems.entrySet() ) {
+				int i = 0;
+				for( final JMenuItem menuItem : failedMenuItems.keySet() ) {
 
-					final JMenuItem menuItem = entry.getKey();
-					menuItem.setIcon( null );
-					menuItem.setFont( menuItem.getFont().deriveFont( Font.PLAIN ) );
+					applyMenuItemStyle( menuItem, i, MenuItemStyle.PLAIN );
+					i++;
 				}
 
 				//Clear all new failed jobs
-				newLateProcess.clear();
-				newFailedProcess.clear();
+				rundeckMonitorState.clearNewProcess();
 
 				updateTrayIcon();
 			}
@@ -109,6 +118,11 @@ public class RundeckMonitorSwingTrayIcon extends RundeckMonitorTrayIcon{
 		JPopupMenu.setDefaultLightWeightPopupEnabled( true );
 		popupMenu = new JPopupMenu();
 
+		final Font menuItemFont = new JMenuItem().getFont();
+		plainFont = menuItemFont.deriveFont( Font.PLAIN );
+		boldFont = menuItemFont.deriveFont( Font.BOLD );
+
+		menuItemStyles = newMenuItemStyles();
 		for( int i = 0 ; i < rundeckMonitorConfiguration.getFailedJobNumber() ; i++ ){
 
 			final JMenuItem failedItem = new JMenuItem();
@@ -121,10 +135,14 @@ public class RundeckMonitorSwingTrayIcon extends RundeckMonitorTrayIcon{
 
 		final JMenuItem reinitItem = new JMenuItem( "Reset alert" ); //$NON-NLS-1$
 		popupMenu.add( reinitItem );
+		reinitItem.addActionListener( reinitListener );
+
+		final JMenuItem refreshItem = new JMenuItem( "Refresh now" ); //$NON-NLS-1$
+		popupMenu.add( refreshItem );
+		refreshItem.addActionListener( refreshListener );
 
 		popupMenu.addSeparator();
 
-		reinitItem.addActionListener( reinitListener );
 		final JMenuItem aboutItem = new JMenuItem( "About RundeckMonitor" ); //$NON-NLS-1$
 		popupMenu.add( aboutItem );
 
@@ -140,8 +158,10 @@ public class RundeckMonitorSwingTrayIcon extends RundeckMonitorTrayIcon{
 		exitItem.addActionListener( exitListener );
 
 		//Add the icon  to the system tray
-		trayIcon = new TrayIcon( IMAGE_OK, rundeckMonitorConfiguration.getRundeckMonitorName() );
-		trayIcon.setImageAutoSize( true );
+		trayIcon = new TrayIcon( getTrayImage( TrayImage.OK ), rundeckMonitorConfiguration.getRundeckMonitorName() );
+		rundeckMonitorNotifier = new RundeckMonitorNotifier( trayIcon );
+		//Images are already scaled to the tray icon size
+		trayIcon.setImageAutoSize( false );
 
 		trayIcon.addMouseListener( new MouseAdapter() {
 
@@ -218,43 +238,85 @@ public class RundeckMonitorSwingTrayIcon extends RundeckMonitorTrayIcon{
 			final JobExecutionInfo jobExecutionInfo = listJobExecutionInfo.get( i );
 			final JMenuItem jMenuItem = entry.getKey();
 
-			entry.setValue( jobExecutionInfo );
-			final SimpleDateFormat formatter = new SimpleDateFormat( rundeckMonitorConfiguration.getDateFormat() );
-			final String longExecution = jobExecutionInfo.isLongExecution() ? LONG_EXECUTION_MARKER : ""; //$NON-NLS-1$
-			final String message = formatter.format( jobExecutionInfo.getStartedAt() ) + ": " +jobExecutionInfo.getDescription(); //$NON-NLS-1$
-			jMenuItem.setText( message + longExecution );
+			final JobExecutionInfo previousJobExecutionInfo = entry.setValue( jobExecutionInfo );
+			final String message = getExecutionLabel( jobExecutionInfo );
 
-			if( jobExecutionInfo.isNewJob() ) {
+			//Only a menu item displaying another execution is relabeled
+			if( ! sameMenuItemLabel( previousJobExecutionInfo, jobExecutionInfo ) ) {
 
 				if( jobExecutionInfo.isLongExecution() ) {
-					trayIcon.displayMessage( NEW_LONG_EXECUTION_ALERT, message, TrayIcon.MessageType.WARNING );
-					newLateProcess.add( jobExecutionInfo.getExecutionId() );
+					jMenuItem.setText( message + LONG_EXECUTION_MARKER );
 				}
 				else {
-					trayIcon.displayMessage( NEW_FAILED_JOB_ALERT, message, TrayIcon.MessageType.ERROR );
-					newFailedProcess.add( jobExecutionInfo.getExecutionId() );
+					jMenuItem.setText( message );
 				}
 			}
 
 			//Mark failed and late jobs with an icon and bold menuitem
-			if( newFailedProcess.contains( jobExecutionInfo.getExecutionId() ) ) {
-				jMenuItem.setFont( entry.getKey().getFont().deriveFont( Font.BOLD ) );
-				jMenuItem.setIcon( ICON_KO_SMALL );
-			}
-			else if( newLateProcess.contains( jobExecutionInfo.getExecutionId() ) ) {
-				jMenuItem.setFont( entry.getKey().getFont().deriveFont( Font.BOLD ) );
-				jMenuItem.setIcon( ICON_LATE_SMALL );
-			}
-			else {
-				jMenuItem.setFont( entry.getKey().getFont().deriveFont( Font.PLAIN ) );
-				jMenuItem.setIcon( null );
-			}
+			applyMenuItemStyle( jMenuItem, i, getMenuItemStyle( jobExecutionInfo ) );
 
 			i++;
 		}
 	}
 
-	public void reloadConfiguration() {
+	/**
+	 * Change the font and the icon of a late/failed job menu item if its style has changed
+	 *
+	 * @param jMenuItem menu item to update
+	 * @param index index of the menu item
+	 * @param menuItemStyle style to apply
+	 */
+	private void applyMenuItemStyle( final JMenuItem jMenuItem, final int index, final MenuItemStyle menuItemStyle ) {
+
+		if( menuItemStyles[ index ] == menuItemStyle ) {
+			return;
+		}
+
+		menuItemStyles[ index ] = menuItemStyle;
+		switch( menuItemStyle ) {
+			case NEW_FAILED:
+				jMenuItem.setFont( boldFont );
+				jMenuItem.setIcon( TrayImage.KO_SMALL.getIcon() );
+				break;
+			case NEW_LATE:
+				jMenuItem.setFont( boldFont );
+				jMenuItem.setIcon( TrayImage.LATE_SMALL.getIcon() );
+				break;
+			default:
+				jMenuItem.setFont( plainFont );
+				jMenuItem.setIcon( null );
+				break;
+		}
+	}
+
+	/**
+	 * Create the styles of new late/failed job menu items
+	 *
+	 * @return plain style for each menu item
+	 */
+	private MenuItemStyle[] newMenuItemStyles() {
+
+		final MenuItemStyle[] newMenuItemStyles = new MenuItemStyle[ rundeckMonitorConfiguration.getFailedJobNumber() ];
+		Arrays.fill( newMenuItemStyles, MenuItemStyle.PLAIN );
+		return newMenuItemStyles;
+	}
+
+	@Override
+	public void reloadConfiguration( final RundeckMonitorConfiguration rundeckMonitorConfigurationArg, final Set<ConfigurationChange> changes ) {
+
+		super.reloadConfiguration( rundeckMonitorConfigurationArg, changes );
+
+		if( ! changes.contains( ConfigurationChange.FAILED_JOB_NUMBER ) ) {
+
+			//Relabel all menu items on the next display with the new date format
+			if( changes.contains( ConfigurationChange.DATE_FORMAT ) ) {
+				for( final Entry<JMenuItem,JobExecutionInfo> entry: failedMenuItems.entrySet() ) {
+					entry.setValue( null );
+				}
+			}
+
+			return;
+		}
 
 		//Remove all old failedMenuItems from the popup menu
 		for( final JMenuItem failedItem : failedMenuItems.keySet() ) {
@@ -263,6 +325,7 @@ public class RundeckMonitorSwingTrayIcon extends RundeckMonitorTrayIcon{
 		}
 
 		failedMenuItems.clear();
+		menuItemStyles = newMenuItemStyles();
 
 		//Add all new menu items to the popup menu
 		for( int i = 0 ; i < rundeckMonitorConfiguration.getFailedJobNumber() ; i++ ){
@@ -272,7 +335,5 @@ public class RundeckMonitorSwingTrayIcon extends RundeckMonitorTrayIcon{
 			popupMenu.insert( failedItem, i );
 			failedItem.addActionListener( menuListener );
 		}
-
-		super.reloadConfiguration();
 	}
 }
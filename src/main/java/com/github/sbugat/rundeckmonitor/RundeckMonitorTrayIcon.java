@@ -1,9 +1,9 @@
 package com.github.sbugat.rundeckmonitor;
 
 import java.awt.Desktop;
+import java.awt.Dimension;
 import java.awt.Image;
 import java.awt.SystemTray;
-import java.awt.Toolkit;
 import java.awt.TrayIcon;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
@@ -14,17 +14,22 @@ import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.HashSet;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
-import javax.swing.Icon;
-import javax.swing.ImageIcon;
 import javax.swing.JDialog;
 import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
 import javax.swing.UnsupportedLookAndFeelException;
 
+import com.github.sbugat.rundeckmonitor.configuration.ConfigurationChange;
 import com.github.sbugat.rundeckmonitor.configuration.RundeckMonitorConfiguration;
 import com.github.sbugat.rundeckmonitor.wizard.RundeckMonitorConfigurationWizard;
 
@@ -45,25 +50,46 @@ public abstract class RundeckMonitorTrayIcon {
 	/** Alert message when a new long execution is detected*/
 	static final String NEW_LONG_EXECUTION_ALERT = "New long execution"; //$NON-NLS-1$
 
-	/** OK image*/
-	final Image IMAGE_OK = Toolkit.getDefaultToolkit().getImage( getClass().getClassLoader().getResource( "OK.png" ) ); //$NON-NLS-1$
-	/** WARNING image when a job seems to be blocked*/
-	private final Image IMAGE_LATE = Toolkit.getDefaultToolkit().getImage( getClass().getClassLoader().getResource( "LATE.png" ) ); //$NON-NLS-1$
-	final Icon ICON_LATE_SMALL = new ImageIcon( Toolkit.getDefaultToolkit().getImage( getClass().getClassLoader().getResource( "LATE_SMALL.png" ) ) ); //$NON-NLS-1$
-	/** KO image when a job has failed*/
-	private final Image IMAGE_KO = Toolkit.getDefaultToolkit().getImage( getClass().getClassLoader().getResource( "KO.png" ) ); //$NON-NLS-1$
-	final Icon ICON_KO_SMALL = new ImageIcon( Toolkit.getDefaultToolkit().getImage( getClass().getClassLoader().getResource( "KO_SMALL.png" ) ) ); //$NON-NLS-1$
-	/** KO image when a job has failed and a job seems to be blocked*/
-	private final Image IMAGE_KO_LATE = Toolkit.getDefaultToolkit().getImage( getClass().getClassLoader().getResource( "KO_LATE.png" ) ); //$NON-NLS-1$
-	/** Disconnected from rundeck image */
-	private final Image IMAGE_DISCONNECTED = Toolkit.getDefaultToolkit().getImage( getClass().getClassLoader().getResource( "DISCONNECTED.png" ) ); //$NON-NLS-1$
+	/** Separator between the start date and the job name of a menu item*/
+	private static final String LABEL_SEPARATOR = ": "; //$NON-NLS-1$
+
+	/** Maximum number of cached menu item labels, far more than the displayed items*/
+	private static final int LABEL_CACHE_CAPACITY = 256;
+
+	/** Style of a late/failed job menu item*/
+	enum MenuItemStyle {
+
+		PLAIN,
+		NEW_FAILED,
+		NEW_LATE;
+	}
+
+	/** Cached label of an execution with the values used to build it*/
+	private static final class ExecutionLabel {
+
+		private final long startedAt;
+		private final String description;
+		private final String label;
+
+		ExecutionLabel( final long startedAtArg, final String descriptionArg, final String labelArg ) {
+			startedAt = startedAtArg;
+			description = descriptionArg;
+			label = labelArg;
+		}
+	}
 
 	/** System tray */
 	final SystemTray tray;
 
+	/** Size of the tray icons, the images are scaled once to this size*/
+	private final Dimension trayIconSize;
+
 	/** Task bar tray icon*/
 	TrayIcon trayIcon;
 
+	/** Alerts of the new late/failed jobs, created with the tray icon*/
+	RundeckMonitorNotifier rundeckMonitorNotifier;
+
 	/** Desktop to get the default browser*/
 	final Desktop desktop;
 
@@ -76,6 +102,9 @@ public abstract class RundeckMonitorTrayIcon {
 	/** About menu listener*/
 	final ActionListener aboutListener;
 
+	/** Refresh now menu listener*/
+	final ActionListener refreshListener;
+
 	/** Exit menu listener*/
 	final ActionListener exitListener;
 
@@ -83,25 +112,52 @@ public abstract class RundeckMonitorTrayIcon {
 	JDialog hiddenDialog;
 
 	/**Date format to use for printing the Job start date*/
-	final RundeckMonitorConfiguration rundeckMonitorConfiguration;
+	RundeckMonitorConfiguration rundeckMonitorConfiguration;
 
 	/**Current state of the trayIcon */
 	RundeckMonitorState rundeckMonitorState;
 
-	final Set<Long> newLateProcess = new HashSet<>();
+	/**Last view published by the monitor and not yet displayed, null if there is none*/
+	private final AtomicReference<RundeckMonitorView> pendingView = new AtomicReference<>();
 
-	final Set<Long> newFailedProcess = new HashSet<>();
+	/**Displayed view, only used on the event dispatch thread*/
+	private RundeckMonitorView currentView;
+
+	/**Display the last published view on the event dispatch thread*/
+	private final Runnable pendingViewDisplay = new Runnable() {
+		@Override
+		@SuppressWarnings("synthetic-access")
+		public void run() {
+			displayView( pendingView.getAndSet( null ) );
+		}
+	};
+
+	/**Formatter of the jobs start date, only used by the menu update*/
+	private SimpleDateFormat dateFormat;
+
+	/**Formatted labels of the lasts displayed executions by execution identifier, the least recently used is removed first*/
+	private final Map<Long, ExecutionLabel> executionLabels = new LinkedHashMap<Long, ExecutionLabel>( LABEL_CACHE_CAPACITY, 0.75f, true ) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry( final Entry<Long, ExecutionLabel> eldest ) {
+			return size() > LABEL_CACHE_CAPACITY;
+		}
+	};
 
 	/**
 	 * Initialize the tray icon for the rundeckMonitor if the OS is compatible with it
 	 *
 	 * @param rundeckMonitorConfigurationArg loaded configuration
 	 * @param rundeckMonitorStateArg state of the rundeck monitor
+	 * @param rundeckMonitorScheduler runtime of the monitor tasks
 	 */
-	public RundeckMonitorTrayIcon( final RundeckMonitorConfiguration rundeckMonitorConfigurationArg, final RundeckMonitorState rundeckMonitorStateArg ) {
+	public RundeckMonitorTrayIcon( final RundeckMonitorConfiguration rundeckMonitorConfigurationArg, final RundeckMonitorState rundeckMonitorStateArg, final RundeckMonitorScheduler rundeckMonitorScheduler ) {
 
 		rundeckMonitorConfiguration = rundeckMonitorConfigurationArg;
 		rundeckMonitorState = rundeckMonitorStateArg;
+		dateFormat = new SimpleDateFormat( rundeckMonitorConfiguration.getDateFormat() );
 
 		if( SystemTray.isSupported() ) {
 
@@ -125,11 +181,19 @@ public abstract class RundeckMonitorTrayIcon {
 				}
 			};
 
-			//Rundeck monitor about
+			//Rundeck monitor about with the statistics of the rundeck calls
 			aboutListener = new ActionListener() {
 				@SuppressWarnings("synthetic-access")
 				public void actionPerformed( final ActionEvent e) {
 
+					if( null != currentView ) {
+
+						final Object[] options = { "Project page", "Close" }; //$NON-NLS-1$ //$NON-NLS-2$
+						if( 0 != JOptionPane.showOptionDialog( null, currentView.getStatistics(), "RundeckMonitor", JOptionPane.DEFAULT_OPTION, JOptionPane.INFORMATION_MESSAGE, null, options, options[ 0 ] ) ) { //$NON-NLS-1$
+							return;
+						}
+					}
+
 					try {
 						final URI executionURI = new URI( RUNDECK_MONITOR_PROJECT_URL );
 						desktop.browse( executionURI );
@@ -143,14 +207,23 @@ public abstract class RundeckMonitorTrayIcon {
 				}
 			};
 
+			//Rundeck monitor immediate refresh
+			refreshListener = new ActionListener() {
+				public void actionPerformed( final ActionEvent e) {
+					rundeckMonitorScheduler.pollNow();
+				}
+			};
+
 			//Get the system tray
 			tray = SystemTray.getSystemTray();
+			trayIconSize = tray.getTrayIconSize();
 
 			//Rundeck monitor exit
 			exitListener = new ActionListener() {
 				@SuppressWarnings("synthetic-access")
 				public void actionPerformed( final ActionEvent e) {
 					tray.remove( trayIcon );
+					rundeckMonitorScheduler.shutdown();
 					System.exit( 0 );
 				}
 			};
@@ -174,9 +247,11 @@ public abstract class RundeckMonitorTrayIcon {
 		else {
 			//if the System is not compatible with SystemTray
 			tray = null;
+			trayIconSize = null;
 			desktop = null;
 			configurationListener = null;
 			aboutListener = null;
+			refreshListener = null;
 			exitListener= null;
 
 			JOptionPane.showMessageDialog( null, "SystemTray cannot be initialized", "RundeckMonitor initialization error", JOptionPane.ERROR_MESSAGE ); //$NON-NLS-1$ //$NON-NLS-2$
@@ -186,43 +261,194 @@ public abstract class RundeckMonitorTrayIcon {
 	}
 
 	/**
-	 * Update the list of failed/late jobs
+	 * Update the list of failed/late jobs, must be called on the event dispatch thread
 	 *
 	 * @param listJobExecutionInfo list of failed and late jobs informations
 	 */
 	public abstract void updateExecutionIdsList( final List<JobExecutionInfo> listJobExecutionInfo );
 
 	/**
-	 * Update the image of the tray icon
+	 * Publish a view to display, can be called from any thread
+	 *
+	 * Only one display is queued on the event dispatch thread: a view published before the previous one is displayed replaces it,
+	 * the new executions of the replaced view are kept to be alerted by the displayed one
+	 *
+	 * @param rundeckMonitorView view to display
+	 */
+	public void publish( final RundeckMonitorView rundeckMonitorView ) {
+
+		RundeckMonitorView previousView;
+		RundeckMonitorView mergedView;
+		do {
+			previousView = pendingView.get();
+			mergedView = rundeckMonitorView.mergeNewExecutions( previousView );
+		}
+		while( ! pendingView.compareAndSet( previousView, mergedView ) );
+
+		if( null == previousView ) {
+			SwingUtilities.invokeLater( pendingViewDisplay );
+		}
+	}
+
+	/**
+	 * Display a view on the event dispatch thread
+	 *
+	 * @param rundeckMonitorView view to display
+	 */
+	private void displayView( final RundeckMonitorView rundeckMonitorView ) {
+
+		currentView = rundeckMonitorView;
+
+		//Alert the new executions before displaying them as new
+		for( final JobExecutionInfo jobExecutionInfo : rundeckMonitorView.getNewExecutions() ) {
+			alertNewExecution( jobExecutionInfo, getExecutionLabel( jobExecutionInfo ) );
+		}
+
+		updateExecutionIdsList( rundeckMonitorView.getExecutions() );
+		updateTrayIcon();
+
+		if( ! rundeckMonitorView.getToolTip().equals( trayIcon.getToolTip() ) ) {
+			trayIcon.setToolTip( rundeckMonitorView.getToolTip() );
+		}
+	}
+
+	/**
+	 * Get the label of an execution menu item without the long execution marker, formatted only once per execution
+	 *
+	 * @param jobExecutionInfo displayed execution
+	 * @return start date and job name of the execution
+	 */
+	String getExecutionLabel( final JobExecutionInfo jobExecutionInfo ) {
+
+		final long startedAt = jobExecutionInfo.getStartedAtTime();
+		final String description = jobExecutionInfo.getDescription();
+
+		//Executions of different servers can have the same identifier
+		final ExecutionLabel executionLabel = executionLabels.get( jobExecutionInfo.getExecutionId() );
+		if( null != executionLabel && executionLabel.startedAt == startedAt && executionLabel.description.equals( description ) ) {
+			return executionLabel.label;
+		}
+
+		final String label = dateFormat.format( new Date( startedAt ) ) + LABEL_SEPARATOR + description;
+		executionLabels.put( jobExecutionInfo.getExecutionId(), new ExecutionLabel( startedAt, description, label ) );
+		return label;
+	}
+
+	/**
+	 * Get the style of an execution menu item
+	 *
+	 * @param jobExecutionInfo displayed execution
+	 * @return style of the menu item
+	 */
+	MenuItemStyle getMenuItemStyle( final JobExecutionInfo jobExecutionInfo ) {
+
+		if( rundeckMonitorState.getNewFailedProcess().contains( jobExecutionInfo.getExecutionId().longValue() ) ) {
+			return MenuItemStyle.NEW_FAILED;
+		}
+		else if( rundeckMonitorState.getNewLateProcess().contains( jobExecutionInfo.getExecutionId().longValue() ) ) {
+			return MenuItemStyle.NEW_LATE;
+		}
+
+		return MenuItemStyle.PLAIN;
+	}
+
+	/**
+	 * Display an alert for a new failed or late execution, the monitor keeps it as new until the alert reset
+	 *
+	 * @param jobExecutionInfo new execution, given by only one view
+	 * @param label label of the execution
+	 */
+	private void alertNewExecution( final JobExecutionInfo jobExecutionInfo, final String label ) {
+
+		if( jobExecutionInfo.isLongExecution() ) {
+			rundeckMonitorNotifier.newLateJob( label );
+		}
+		else {
+			rundeckMonitorNotifier.newFailedJob( label );
+		}
+	}
+
+	/**
+	 * Check if a menu item displays the same execution, its label is unchanged
+	 *
+	 * @param previousJobExecutionInfo execution displayed by the menu item, can be null
+	 * @param jobExecutionInfo execution to display
+	 * @return true if the label of the menu item is unchanged
+	 */
+	static boolean sameMenuItemLabel( final JobExecutionInfo previousJobExecutionInfo, final JobExecutionInfo jobExecutionInfo ) {
+
+		return null != previousJobExecutionInfo && previousJobExecutionInfo.getExecutionId().equals( jobExecutionInfo.getExecutionId() )
+			&& previousJobExecutionInfo.getRundeckUrl().equals( jobExecutionInfo.getRundeckUrl() )
+			&& previousJobExecutionInfo.getDescription().equals( jobExecutionInfo.getDescription() )
+			&& previousJobExecutionInfo.isLongExecution() == jobExecutionInfo.isLongExecution();
+	}
+
+	/**
+	 * Update the image of the tray icon with the displayed view, must be called on the event dispatch thread
 	 */
 	public void updateTrayIcon() {
 
-		if( rundeckMonitorState.isDisconnected() ) {
-			trayIcon.setImage( IMAGE_DISCONNECTED );
+		if( null == currentView ) {
+			return;
+		}
+
+		final Image image;
+		if( currentView.isDisconnected() ) {
+			image = getTrayImage( TrayImage.DISCONNECTED );
 		}
 		else if( rundeckMonitorState.isFailedJobs() ) {
 
-			if( rundeckMonitorState.isLateJobs() ) {
-				trayIcon.setImage( IMAGE_KO_LATE );
+			if( currentView.isLateJobs() ) {
+				image = getTrayImage( TrayImage.KO_LATE );
 			}
 			else {
-				trayIcon.setImage( IMAGE_KO );
+				image = getTrayImage( TrayImage.KO );
 			}
 		}
-		else if( rundeckMonitorState.isLateJobs() ) {
-			trayIcon.setImage( IMAGE_LATE );
+		else if( currentView.isLateJobs() ) {
+			image = getTrayImage( TrayImage.LATE );
 		}
 		else {
-			trayIcon.setImage( IMAGE_OK );
+			image = getTrayImage( TrayImage.OK );
+		}
+
+		if( image != trayIcon.getImage() ) {
+			trayIcon.setImage( image );
 		}
 	}
 
-	public void reloadConfiguration() {
+	/**
+	 * Get an image scaled to the tray icon size
+	 *
+	 * @param trayImage image to get
+	 * @return shared scaled image
+	 */
+	Image getTrayImage( final TrayImage trayImage ) {
+
+		return trayImage.getScaledImage( trayIconSize );
+	}
+
+	/**
+	 * Apply the changes of the reloaded configuration to the menu, must be called on the event dispatch thread
+	 *
+	 * @param rundeckMonitorConfigurationArg reloaded configuration
+	 * @param changes changes of the reloaded configuration
+	 */
+	public void reloadConfiguration( final RundeckMonitorConfiguration rundeckMonitorConfigurationArg, final Set<ConfigurationChange> changes ) {
+
+		rundeckMonitorConfiguration = rundeckMonitorConfigurationArg;
+
+		//The new jobs of the previous servers are not new anymore
+		if( changes.contains( ConfigurationChange.SERVERS ) ) {
 
-		newLateProcess.clear();
-		newFailedProcess.clear();
+			rundeckMonitorState.clearNewProcess();
+		}
+
+		if( changes.contains( ConfigurationChange.DATE_FORMAT ) ) {
 
-		trayIcon.setToolTip( rundeckMonitorConfiguration.getRundeckMonitorName() );
+			dateFormat = new SimpleDateFormat( rundeckMonitorConfiguration.getDateFormat() );
+			executionLabels.clear();
+		}
 	}
 
 	/**
@@ -230,6 +456,7 @@ public abstract class RundeckMonitorTrayIcon {
 	 */
 	public void disposeTrayIcon() {
 
+		rundeckMonitorNotifier.shutdown();
 		tray.remove( trayIcon );
 	}
 }
@@ -0,0 +1,91 @@
+package com.github.sbugat.rundeckmonitor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable view of the monitor built by the update tasks and displayed by the tray icon on the event dispatch thread
+ *
+ * @author Sylvain Bugat
+ *
+ */
+public class RundeckMonitorView {
+
+	/**Late jobs first and then failed jobs*/
+	private final List<JobExecutionInfo> executions;
+
+	/**New late and failed jobs to alert, only given by the first view displaying them*/
+	private final List<JobExecutionInfo> newExecutions;
+
+	private final boolean lateJobs;
+
+	private final boolean disconnected;
+
+	/**Tool tip of the tray icon*/
+	private final String toolTip;
+
+	/**Statistics of the rundeck calls displayed by the about menu*/
+	private final String statistics;
+
+	/**
+	 * Copy the displayed executions and state
+	 *
+	 * @param executionsArg late and failed executions to display
+	 * @param newExecutionsArg new late and failed executions to alert
+	 * @param lateJobsArg indicate if a late job is running
+	 * @param disconnectedArg indicate if a rundeck server is disconnected
+	 * @param toolTipArg tool tip of the tray icon
+	 * @param statisticsArg statistics of the rundeck calls
+	 */
+	public RundeckMonitorView( final List<JobExecutionInfo> executionsArg, final List<JobExecutionInfo> newExecutionsArg, final boolean lateJobsArg, final boolean disconnectedArg, final String toolTipArg, final String statisticsArg ) {
+
+		executions = Collections.unmodifiableList( new ArrayList<>( executionsArg ) );
+		newExecutions = Collections.unmodifiableList( new ArrayList<>( newExecutionsArg ) );
+		lateJobs = lateJobsArg;
+		disconnected = disconnectedArg;
+		toolTip = toolTipArg;
+		statistics = statisticsArg;
+	}
+
+	/**
+	 * Replace a view not displayed yet by this one, the new executions of the replaced view must still be alerted
+	 *
+	 * @param replacedView view not displayed yet, can be null
+	 * @return this view or a copy of this view with the new executions of both views
+	 */
+	public RundeckMonitorView mergeNewExecutions( final RundeckMonitorView replacedView ) {
+
+		if( null == replacedView || replacedView.newExecutions.isEmpty() ) {
+			return this;
+		}
+
+		final List<JobExecutionInfo> mergedNewExecutions = new ArrayList<>( replacedView.newExecutions );
+		mergedNewExecutions.addAll( newExecutions );
+		return new RundeckMonitorView( executions, mergedNewExecutions, lateJobs, disconnected, toolTip, statistics );
+	}
+
+	public List<JobExecutionInfo> getExecutions() {
+		return executions;
+	}
+
+	public List<JobExecutionInfo> getNewExecutions() {
+		return newExecutions;
+	}
+
+	public boolean isLateJobs() {
+		return lateJobs;
+	}
+
+	public boolean isDisconnected() {
+		return disconnected;
+	}
+
+	public String getToolTip() {
+		return toolTip;
+	}
+
+	public String getStatistics() {
+		return statistics;
+	}
+}
@@ -0,0 +1,442 @@
+package com.github.sbugat.rundeckmonitor;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+
+import org.rundeck.api.RundeckClient;
+import org.rundeck.api.domain.RundeckExecution;
+import org.rundeck.api.domain.RundeckExecution.ExecutionStatus;
+import org.rundeck.api.query.ExecutionQuery;
+
+import com.github.sbugat.rundeckmonitor.tools.BoundedLongSet;
+
+/**
+ * Failed and late executions history of a monitored rundeck project
+ *
+ * @author Sylvain Bugat
+ *
+ */
+public class RundeckProjectHistory {
+
+	/**Name of the rundeck project*/
+	private final String project;
+
+	/**URL of the rundeck server of the project*/
+	private final String rundeckUrl;
+
+	/**Label added to the job name when several projects or servers are monitored, can be null*/
+	private String executionLabel;
+
+	/**Maximum number of known execution identifiers, far more than the displayed and running executions*/
+	private static final int KNOWN_EXECUTION_IDS_CAPACITY = 1024;
+
+	/**Set for the lasts known late execution identifiers*/
+	private final BoundedLongSet knownLateExecutionIds = new BoundedLongSet( KNOWN_EXECUTION_IDS_CAPACITY );
+	/**Set for the lasts known failed execution identifiers*/
+	private final BoundedLongSet knownFailedExecutionIds = new BoundedLongSet( KNOWN_EXECUTION_IDS_CAPACITY );
+
+	/**Lasts late executions of the project*/
+	private final List<JobExecutionInfo> lastLateExecutions = new ArrayList<>();
+	/**Running executions of the project during the last update*/
+	private final List<RundeckExecution> lastRunningExecutions = new ArrayList<>();
+	/**Indicate if the running executions have been received at least once by this history*/
+	private boolean runningExecutionsKnown;
+	/**Local time when each running execution not late yet will be late*/
+	private final Map<Long, Long> lateExecutionTimes = new LinkedHashMap<>();
+	/**Local time when the next running execution will be late, Long.MAX_VALUE if there is none*/
+	private long nextLateExecutionTime = Long.MAX_VALUE;
+
+	/**Lasts failed executions of the project, most recent first*/
+	private final List<JobExecutionInfo> lastFailedExecutions = new ArrayList<>();
+	/**End date (rundeck server time) of the most recent failed execution already retrieved, used as high-watermark for incremental updates*/
+	private Date lastFailedExecutionEndDate;
+	/**Indicate if the next update must download all the lasts failed executions instead of only the new ones*/
+	private boolean fullFailedExecutionsRefresh = true;
+
+	/**Indicate if the current update downloads all the lasts failed executions*/
+	private boolean fullRefresh;
+
+	/**New late and failed executions not alerted yet, each one is alerted only once even if the executions are displayed again*/
+	private final List<JobExecutionInfo> newExecutions = new ArrayList<>();
+
+	public RundeckProjectHistory( final String projectArg, final String rundeckUrlArg, final String executionLabelArg ) {
+		project = projectArg;
+		rundeckUrl = rundeckUrlArg;
+		executionLabel = executionLabelArg;
+	}
+
+	/**
+	 * Prepare the rundeck API call to get the lasts failed executions of the project
+	 *
+	 * @param rundeckClient rundeck client to use
+	 * @param rundeckExecutionsClient cached executions client to use instead of the rundeck client, can be null
+	 * @param failedJobNumber maximum number of failed executions to get
+	 * @param init boolean to indicate if it's the first update
+	 * @return rundeck API call returning null if the failed executions are unchanged since the previous update
+	 */
+	public Callable<List<RundeckExecution>> failedExecutionsCall( final RundeckClient rundeckClient, final RundeckExecutionsClient rundeckExecutionsClient, final int failedJobNumber, final boolean init ) {
+
+		fullRefresh = init || fullFailedExecutionsRefresh || null == lastFailedExecutionEndDate;
+
+		//Only executions ended after the high-watermark are needed for an incremental update
+		final Date begin;
+		if( fullRefresh ) {
+			begin = null;
+		}
+		else {
+			begin = lastFailedExecutionEndDate;
+		}
+
+		//A full refresh always rebuilds the failed executions
+		final boolean conditional = ! fullRefresh;
+
+		if( null != rundeckExecutionsClient ) {
+
+			return new Callable<List<RundeckExecution>>() {
+				@Override
+				public List<RundeckExecution> call() throws IOException {
+					return rundeckExecutionsClient.getFailedExecutions( project, begin, failedJobNumber, conditional );
+				}
+			};
+		}
+
+		final ExecutionQuery.Builder executionQueryBuilder = ExecutionQuery.builder().project( project ).status( ExecutionStatus.FAILED );
+		if( null != begin ) {
+			executionQueryBuilder.begin( begin );
+		}
+		final ExecutionQuery executionQuery = executionQueryBuilder.build();
+
+		return new Callable<List<RundeckExecution>>() {
+			@Override
+			public List<RundeckExecution> call() {
+				return rundeckClient.getExecutions( executionQuery, Long.valueOf( failedJobNumber ), null ).getResults();
+			}
+		};
+	}
+
+	/**
+	 * Prepare the rundeck API call to get the running executions of the project
+	 *
+	 * @param rundeckClient rundeck client to use
+	 * @param rundeckExecutionsClient cached executions client to use instead of the rundeck client, can be null
+	 * @return rundeck API call returning null if the running executions are unchanged since the previous update
+	 */
+	public Callable<List<RundeckExecution>> runningExecutionsCall( final RundeckClient rundeckClient, final RundeckExecutionsClient rundeckExecutionsClient ) {
+
+		if( null != rundeckExecutionsClient ) {
+
+			//An unchanged response can only be ignored if the running executions are already known by this history
+			final boolean conditional = runningExecutionsKnown;
+
+			return new Callable<List<RundeckExecution>>() {
+				@Override
+				public List<RundeckExecution> call() throws IOException {
+					return rundeckExecutionsClient.getRunningExecutions( project, conditional );
+				}
+			};
+		}
+
+		return new Callable<List<RundeckExecution>>() {
+			@Override
+			public List<RundeckExecution> call() {
+				return rundeckClient.getRunningExecutions( project );
+			}
+		};
+	}
+
+	/**
+	 * Replace the running executions of the project by the ones returned by rundeck
+	 *
+	 * @param currentExecutions running executions of the project, null if they are unchanged
+	 */
+	public void setRunningExecutions( final List<RundeckExecution> currentExecutions ) {
+
+		if( null == currentExecutions ) {
+			return;
+		}
+
+		runningExecutionsKnown = true;
+		lastRunningExecutions.clear();
+		lastRunningExecutions.addAll( currentExecutions );
+	}
+
+	/**
+	 * Scan the lasts running executions to detect if they are late, can be done between 2 updates without calling rundeck
+	 *
+	 * @param currentTime local time of the check
+	 * @param dateDelta time difference between the rundeck server and the local time
+	 * @param lateThreshold late execution threshold in seconds
+	 * @return true if a late execution is found
+	 */
+	public boolean updateLateExecutions( final long currentTime, final long dateDelta, final int lateThreshold ) {
+
+		boolean lateExecutionFound = false;
+		lastLateExecutions.clear();
+		lateExecutionTimes.clear();
+		nextLateExecutionTime = Long.MAX_VALUE;
+
+		for( final RundeckExecution rundeckExecution : lastRunningExecutions ) {
+
+			final long lateExecutionTime = rundeckExecution.getStartedAt().getTime() - dateDelta + lateThreshold * 1000L;
+			if( currentTime <= lateExecutionTime ) {
+
+				lateExecutionTimes.put( rundeckExecution.getId(), Long.valueOf( lateExecutionTime + 1 ) );
+				nextLateExecutionTime = Math.min( nextLateExecutionTime, lateExecutionTime + 1 );
+			}
+			else {
+
+				lateExecutionFound = true;
+
+				final JobExecutionInfo lateExecution = new JobExecutionInfo( rundeckExecution.getId(), rundeckExecution.getStartedAt(), getJobName( rundeckExecution ), true, rundeckUrl );
+				if( ! knownLateExecutionIds.contains( rundeckExecution.getId() ) ) {
+					knownLateExecutionIds.add( rundeckExecution.getId() );
+					newExecutions.add( lateExecution );
+				}
+
+				lastLateExecutions.add( lateExecution );
+			}
+		}
+
+		return lateExecutionFound;
+	}
+
+	/**
+	 * Add the new failed executions to the lasts failed executions of the project
+	 *
+	 * @param lastFailedJobs failed executions returned by rundeck, null if they are unchanged since the previous update
+	 * @param failedJobNumber maximum number of failed executions to keep
+	 * @param init boolean to indicate if it's the first update
+	 * @return true if a new failed execution is found
+	 */
+	public boolean updateFailedExecutions( final List<RundeckExecution> lastFailedJobs, final int failedJobNumber, final boolean init ) {
+
+		//Unchanged incremental response: all its executions are already known
+		if( null == lastFailedJobs ) {
+			return false;
+		}
+
+		boolean newFailedJobFound = false;
+
+		final List<JobExecutionInfo> newFailedExecutions = new ArrayList<>();
+		for( final RundeckExecution rundeckExecution : lastFailedJobs ) {
+
+			final boolean newFailedJob = ! knownFailedExecutionIds.contains( rundeckExecution.getId() );
+			if( newFailedJob ) {
+
+				newFailedJobFound = true;
+				knownFailedExecutionIds.add( rundeckExecution.getId() );
+			}
+			//An incremental update can return again the last known execution(s)
+			else if( ! fullRefresh ) {
+				continue;
+			}
+
+			//Move the high-watermark to the most recent ended execution
+			final Date endedAt = rundeckExecution.getEndedAt();
+			if( null != endedAt && ( null == lastFailedExecutionEndDate || endedAt.after( lastFailedExecutionEndDate ) ) ) {
+				lastFailedExecutionEndDate = endedAt;
+			}
+
+			final JobExecutionInfo failedExecution = new JobExecutionInfo( rundeckExecution.getId(), rundeckExecution.getStartedAt(), getJobName( rundeckExecution ), false, rundeckUrl );
+			if( newFailedJob && ! init ) {
+				newExecutions.add( failedExecution );
+			}
+
+			newFailedExecutions.add( failedExecution );
+		}
+
+		//Keep previous failed jobs after the new ones
+		if( ! fullRefresh ) {
+			for( final JobExecutionInfo jobExecutionInfo : lastFailedExecutions ) {
+				if( newFailedExecutions.size() >= failedJobNumber ) {
+					break;
+				}
+				newFailedExecutions.add( jobExecutionInfo );
+			}
+		}
+
+		lastFailedExecutions.clear();
+		lastFailedExecutions.addAll( newFailedExecutions );
+		fullFailedExecutionsRefresh = false;
+
+		return newFailedJobFound;
+	}
+
+	/**
+	 * Apply an execution notified by a webhook: a started execution is running, an ended one is not running anymore
+	 * and a failed one is added to the failed executions. The high-watermark is not moved, the next update gets again the notified executions
+	 *
+	 * @param rundeckExecution notified execution with its status
+	 * @param failedJobNumber maximum number of failed executions to keep
+	 * @return true if the notified execution is a new failed execution
+	 */
+	public boolean notifyExecution( final RundeckExecution rundeckExecution, final int failedJobNumber ) {
+
+		//The notified running executions can differ from the last response, the next update must get them again
+		runningExecutionsKnown = false;
+
+		final Long executionId = rundeckExecution.getId();
+		for( final Iterator<RundeckExecution> iterator = lastRunningExecutions.iterator() ; iterator.hasNext() ; ) {
+
+			if( executionId.equals( iterator.next().getId() ) ) {
+				iterator.remove();
+			}
+		}
+
+		if( ExecutionStatus.RUNNING == rundeckExecution.getStatus() ) {
+
+			lastRunningExecutions.add( rundeckExecution );
+			return false;
+		}
+
+		if( ExecutionStatus.FAILED != rundeckExecution.getStatus() || knownFailedExecutionIds.contains( executionId ) ) {
+			return false;
+		}
+
+		knownFailedExecutionIds.add( executionId );
+		final JobExecutionInfo failedExecution = new JobExecutionInfo( executionId, rundeckExecution.getStartedAt(), getJobName( rundeckExecution ), false, rundeckUrl );
+		newExecutions.add( failedExecution );
+		lastFailedExecutions.add( 0, failedExecution );
+		while( lastFailedExecutions.size() > failedJobNumber ) {
+			lastFailedExecutions.remove( lastFailedExecutions.size() - 1 );
+		}
+
+		return true;
+	}
+
+	/**
+	 * Write the known and displayed executions and the high-watermark of the project in the snapshot
+	 *
+	 * @param dataOutputStream snapshot stream
+	 * @throws IOException in case of writing error
+	 */
+	public void writeSnapshot( final DataOutputStream dataOutputStream ) throws IOException {
+
+		RundeckMonitorSnapshot.writeIds( dataOutputStream, knownLateExecutionIds );
+		RundeckMonitorSnapshot.writeIds( dataOutputStream, knownFailedExecutionIds );
+
+		dataOutputStream.writeBoolean( null != lastFailedExecutionEndDate );
+		if( null != lastFailedExecutionEndDate ) {
+			dataOutputStream.writeLong( lastFailedExecutionEndDate.getTime() );
+		}
+
+		RundeckMonitorSnapshot.writeExecutions( dataOutputStream, lastFailedExecutions );
+		RundeckMonitorSnapshot.writeExecutions( dataOutputStream, lastLateExecutions );
+	}
+
+	/**
+	 * Restore the known and displayed executions and the high-watermark of the project from the snapshot
+	 *
+	 * @param dataInputStream snapshot stream
+	 * @throws IOException in case of reading error
+	 */
+	public void readSnapshot( final DataInputStream dataInputStream ) throws IOException {
+
+		RundeckMonitorSnapshot.readIds( dataInputStream, knownLateExecutionIds );
+		RundeckMonitorSnapshot.readIds( dataInputStream, knownFailedExecutionIds );
+
+		if( dataInputStream.readBoolean() ) {
+			lastFailedExecutionEndDate = new Date( dataInputStream.readLong() );
+		}
+		else {
+			lastFailedExecutionEndDate = null;
+		}
+
+		RundeckMonitorSnapshot.readExecutions( dataInputStream, lastFailedExecutions, false, rundeckUrl );
+		RundeckMonitorSnapshot.readExecutions( dataInputStream, lastLateExecutions, true, rundeckUrl );
+
+		//Only the failed executions ended after the restored high-watermark are needed
+		fullFailedExecutionsRefresh = null == lastFailedExecutionEndDate;
+	}
+
+	/**
+	 * Force the next update to download all the lasts failed executions and the running executions after a failed update:
+	 * some failed executions may have been missed and the cache may have recorded a running executions response that was not applied
+	 */
+	public void reloadExecutions() {
+
+		fullFailedExecutionsRefresh = true;
+		runningExecutionsKnown = false;
+	}
+
+	/**
+	 * Move the new late and failed executions not alerted yet to a list, they are not new anymore for the next views
+	 *
+	 * @param alertedExecutions list where the new executions are added
+	 */
+	public void drainNewExecutions( final List<JobExecutionInfo> alertedExecutions ) {
+
+		alertedExecutions.addAll( newExecutions );
+		newExecutions.clear();
+	}
+
+	/**
+	 * Get the job name of an execution or its description for an ad-hoc execution
+	 *
+	 * @param rundeckExecution execution
+	 * @return name of the job
+	 */
+	private String getJobName( final RundeckExecution rundeckExecution ) {
+
+		final String jobName;
+		if( null != rundeckExecution.getJob() ) {
+			jobName = rundeckExecution.getJob().getName();
+		}
+		else {
+			jobName = rundeckExecution.getDescription();
+		}
+
+		if( null != executionLabel ) {
+			return jobName + " (" + executionLabel + ')'; //$NON-NLS-1$
+		}
+
+		return jobName;
+	}
+
+	public String getProject() {
+		return project;
+	}
+
+	public int getRunningExecutionNumber() {
+		return lastRunningExecutions.size();
+	}
+
+	public Map<Long, Long> getLateExecutionTimes() {
+		return lateExecutionTimes;
+	}
+
+	public long getNextLateExecutionTime() {
+		return nextLateExecutionTime;
+	}
+
+	public List<JobExecutionInfo> getLastLateExecutions() {
+		return lastLateExecutions;
+	}
+
+	public List<JobExecutionInfo> getLastFailedExecutions() {
+		return lastFailedExecutions;
+	}
+
+	/**
+	 * Change the label added to the job names, the lasts failed executions are reloaded by the next update to be relabeled
+	 *
+	 * @param executionLabelArg new label, can be null
+	 */
+	public void setExecutionLabel( final String executionLabelArg ) {
+
+		if( ! Objects.equals( executionLabel, executionLabelArg ) ) {
+
+			executionLabel = executionLabelArg;
+			fullFailedExecutionsRefresh = true;
+		}
+	}
+}
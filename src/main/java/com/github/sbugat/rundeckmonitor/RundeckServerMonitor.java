@@ -0,0 +1,776 @@
+package com.github.sbugat.rundeckmonitor;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.rundeck.api.RundeckApiException;
+import org.rundeck.api.RundeckClient;
+import org.rundeck.api.RundeckClientBuilder;
+import org.rundeck.api.domain.RundeckExecution;
+import org.rundeck.api.domain.RundeckProject;
+
+import com.github.sbugat.rundeckmonitor.configuration.RundeckServerConfiguration;
+import com.github.sbugat.rundeckmonitor.configuration.UnknownProjectException;
+import com.github.sbugat.rundeckmonitor.tools.ClockOffsetEstimator;
+import com.github.sbugat.rundeckmonitor.tools.ConditionalRequestCache;
+import com.github.sbugat.rundeckmonitor.tools.NamedThreadFactory;
+
+/**
+ * Monitor of a rundeck server: client, time difference and history of each monitored project of this server
+ *
+ * Each server uses its own executor for rundeck API calls, so a slow or hung server cannot delay the others
+ *
+ * @author Sylvain Bugat
+ *
+ */
+public class RundeckServerMonitor {
+
+	/**Maximum number of rundeck API calls done concurrently on this server during an update*/
+	private static final int RUNDECK_CALLS_THREADS = 4;
+
+	/**
+	 * Late deadline of a running execution with its scheduled local time
+	 */
+	private static final class LateExecutionDeadline {
+
+		/**Local time when the execution will be late*/
+		private final long time;
+
+		private final ScheduledFuture<?> future;
+
+		LateExecutionDeadline( final long timeArg, final ScheduledFuture<?> futureArg ) {
+			time = timeArg;
+			future = futureArg;
+		}
+	}
+
+	/**Configuration of the server, only its name can change when the monitor is kept after a reload*/
+	private volatile RundeckServerConfiguration rundeckServerConfiguration;
+
+	/**Rundeck client API used to interact with rundeck rest API*/
+	private final RundeckClient rundeckClient;
+
+	/**Executions client with conditional requests used with token authentication, null with login authentication*/
+	private final RundeckExecutionsClient rundeckExecutionsClient;
+
+	/**Time difference between local machine and rundeck server to correctly detect late execution, updated with each response*/
+	private final ClockOffsetEstimator clockOffsetEstimator;
+
+	/**Executor used to call independent rundeck API concurrently during an update*/
+	private final ThreadPoolExecutor rundeckCallsExecutor;
+
+	/**Number of rundeck API calls running, a call waited by an update is not running anymore when its result is received*/
+	private final AtomicInteger runningCalls = new AtomicInteger();
+
+	/**Circuit breaker stopping the calls to this server while it is disconnected*/
+	private final RundeckCircuitBreaker rundeckCircuitBreaker;
+
+	/**Circuit breaker state of the current update*/
+	private RundeckCircuitBreaker.State updateState = RundeckCircuitBreaker.State.CLOSED;
+
+	/**Failed and late executions history of each monitored project*/
+	private final List<RundeckProjectHistory> rundeckProjectHistories = new ArrayList<>();
+
+	/**Pending rundeck API calls of the current update, empty if the server is still blocked by previous calls*/
+	private final List<Future<List<RundeckExecution>>> lastFailedJobsFutures = new ArrayList<>();
+	private final List<Future<List<RundeckExecution>>> currentExecutionsFutures = new ArrayList<>();
+	/**Pending probe call of the current update when the circuit breaker is half-open*/
+	private Future<Long> dateDeltaFuture;
+
+	/**Results of the rundeck API calls of the current update, received without blocking the monitor and applied later*/
+	private final List<List<RundeckExecution>> lastFailedJobsResults = new ArrayList<>();
+	private final List<List<RundeckExecution>> currentExecutionsResults = new ArrayList<>();
+	/**Failure of the current update, null if all the calls succeeded*/
+	private RuntimeException updateFailure;
+
+	/**Pending connection calls: authentication with the projects check and server time*/
+	private Future<Set<String>> existingProjectsFuture;
+	private Future<Long> connectionDateDeltaFuture;
+
+	/**Time limit of the connection calls*/
+	private long connectionDeadline;
+
+	/**Indicate if a late execution has been found during the last update*/
+	private boolean lateExecutionFound;
+
+	/**Indicate if a running execution has been found during the last update*/
+	private boolean runningExecutionFound;
+
+	/**Local time when the next running execution of this server will be late, Long.MAX_VALUE if there is none*/
+	private long nextLateExecutionTime = Long.MAX_VALUE;
+
+	/**Scheduled late deadline of each running execution not late yet*/
+	private final Map<Long, LateExecutionDeadline> lateExecutionDeadlines = new HashMap<>();
+
+	/**
+	 * Initialize the rundeck client and the projects history of the server
+	 *
+	 * @param rundeckServerConfigurationArg configuration of the server
+	 * @param serverNameDisplayed indicate if the server name is added to the job name, when several servers are monitored
+	 * @param previousRundeckServerMonitor previous monitor of this server to keep known executions, can be null
+	 * @param minimumRetryDelay delay in milliseconds before the first retry after a failed update
+	 * @param conditionalRequestCache cache detecting the unchanged executions responses
+	 */
+	public RundeckServerMonitor( final RundeckServerConfiguration rundeckServerConfigurationArg, final boolean serverNameDisplayed, final RundeckServerMonitor previousRundeckServerMonitor, final long minimumRetryDelay, final ConditionalRequestCache conditionalRequestCache ) {
+
+		rundeckServerConfiguration = rundeckServerConfigurationArg;
+		rundeckCircuitBreaker = new RundeckCircuitBreaker( minimumRetryDelay );
+
+		//Keep the clock offset and the known executions of the same server
+		final boolean sameServer = null != previousRundeckServerMonitor && previousRundeckServerMonitor.rundeckServerConfiguration.getRundeckUrl().equals( rundeckServerConfiguration.getRundeckUrl() );
+		if( sameServer ) {
+			clockOffsetEstimator = previousRundeckServerMonitor.clockOffsetEstimator;
+		}
+		else {
+			clockOffsetEstimator = new ClockOffsetEstimator();
+		}
+
+		//Initialize the client builder with token  or login/password authentication
+		final RundeckClientBuilder rundeckClientBuilder;
+		final String rundeckAPIKey = rundeckServerConfiguration.getRundeckAPIKey();
+		final String rundeckUrl = rundeckServerConfiguration.getRundeckUrl();
+		if( null != rundeckAPIKey && ! rundeckAPIKey.isEmpty() ) {
+			rundeckClientBuilder = RundeckClient.builder().url( rundeckUrl ).token( rundeckAPIKey );
+			rundeckExecutionsClient = new RundeckExecutionsClient( rundeckUrl, rundeckAPIKey, rundeckServerConfiguration.getRundeckAPIversion(), conditionalRequestCache, clockOffsetEstimator );
+		}
+		else {
+			rundeckClientBuilder = RundeckClient.builder().url( rundeckUrl ).login( rundeckServerConfiguration.getRundeckLogin(), rundeckServerConfiguration.getRundeckPassword() );
+			rundeckExecutionsClient = null;
+		}
+
+		//Initialize the rundeck client with version
+		rundeckClient = rundeckClientBuilder.version( rundeckServerConfiguration.getRundeckAPIversion() ).build();
+
+		rundeckCallsExecutor = new ThreadPoolExecutor( RUNDECK_CALLS_THREADS, RUNDECK_CALLS_THREADS, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(), new NamedThreadFactory( "rundeck-monitor-call-" + rundeckServerConfiguration.getName() ) ); //$NON-NLS-1$
+
+		//Keep the known executions of the already monitored projects
+		final Map<String, RundeckProjectHistory> previousProjectHistories = new HashMap<>();
+		if( sameServer ) {
+			for( final RundeckProjectHistory rundeckProjectHistory : previousRundeckServerMonitor.rundeckProjectHistories ) {
+				previousProjectHistories.put( rundeckProjectHistory.getProject(), rundeckProjectHistory );
+			}
+		}
+
+		final List<String> rundeckProjects = rundeckServerConfiguration.getRundeckProjects();
+		for( final String rundeckProject : rundeckProjects ) {
+
+			final String executionLabel = getExecutionLabel( rundeckProject, rundeckProjects.size() > 1, serverNameDisplayed );
+			final RundeckProjectHistory previousProjectHistory = previousProjectHistories.get( rundeckProject );
+			if( null != previousProjectHistory ) {
+				previousProjectHistory.setExecutionLabel( executionLabel );
+				rundeckProjectHistories.add( previousProjectHistory );
+			}
+			else {
+				rundeckProjectHistories.add( new RundeckProjectHistory( rundeckProject, rundeckUrl, executionLabel ) );
+			}
+		}
+	}
+
+	/**
+	 * Apply a reloaded configuration to this monitor kept because its connection has not changed, no call is done
+	 *
+	 * @param rundeckServerConfigurationArg reloaded configuration of the server with the same connection
+	 * @param serverNameDisplayed indicate if the server name is added to the job name, when several servers are monitored
+	 * @param minimumRetryDelay retry delay after the first failure in milliseconds
+	 */
+	public void reconfigure( final RundeckServerConfiguration rundeckServerConfigurationArg, final boolean serverNameDisplayed, final long minimumRetryDelay ) {
+
+		rundeckServerConfiguration = rundeckServerConfigurationArg;
+		rundeckCircuitBreaker.setMinimumRetryDelay( minimumRetryDelay );
+
+		final boolean projectNameDisplayed = rundeckProjectHistories.size() > 1;
+		for( final RundeckProjectHistory rundeckProjectHistory : rundeckProjectHistories ) {
+			rundeckProjectHistory.setExecutionLabel( getExecutionLabel( rundeckProjectHistory.getProject(), projectNameDisplayed, serverNameDisplayed ) );
+		}
+	}
+
+	/**
+	 * Get the label added to the job names of a project
+	 *
+	 * @param rundeckProject name of the project
+	 * @param projectNameDisplayed true if several projects are monitored on this server
+	 * @param serverNameDisplayed true if several servers are monitored
+	 * @return label or null if no label is needed
+	 */
+	private String getExecutionLabel( final String rundeckProject, final boolean projectNameDisplayed, final boolean serverNameDisplayed ) {
+
+		if( serverNameDisplayed && projectNameDisplayed ) {
+			return rundeckServerConfiguration.getName() + '/' + rundeckProject;
+		}
+		else if( serverNameDisplayed ) {
+			return rundeckServerConfiguration.getName();
+		}
+		else if( projectNameDisplayed ) {
+			return rundeckProject;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Start the connection calls without waiting: authentication test followed by the projects list, and concurrently the time difference with the server
+	 *
+	 * @param connectionTimeout maximum duration of the connection in milliseconds
+	 */
+	public void startConnection( final long connectionTimeout ) {
+
+		connectionDeadline = System.currentTimeMillis() + connectionTimeout;
+
+		existingProjectsFuture = submitRundeckCall( new Callable<Set<String>>() {
+			@Override
+			@SuppressWarnings("synthetic-access")
+			public Set<String> call() {
+
+				//Test authentication credentials
+				rundeckClient.testAuth();
+
+				final Set<String> existingProjects = new HashSet<>();
+				for( final RundeckProject rundeckProject: rundeckClient.getProjects() ) {
+					existingProjects.add( rundeckProject.getName() );
+				}
+
+				return existingProjects;
+			}
+		} );
+
+		//Time difference between rundeck server and the computer where rundeck monitor is running
+		connectionDateDeltaFuture = submitRundeckCall( dateDeltaCall() );
+	}
+
+	/**
+	 * Wait the end of the connection calls and check the configured projects
+	 *
+	 * @throws UnknownProjectException if a configured project doesn't exist
+	 * @throws RundeckApiException in case of connection error or if the connection is too long
+	 */
+	public void finishConnection() throws UnknownProjectException {
+
+		try {
+			//The login has no timeout, the connection calls are bounded by the connection deadline
+			final Set<String> existingProjects = waitRundeckCall( existingProjectsFuture, connectionDeadline );
+
+			//Check if the configured projects exist
+			for( final RundeckProjectHistory rundeckProjectHistory : rundeckProjectHistories ) {
+
+				if( ! existingProjects.contains( rundeckProjectHistory.getProject() ) ) {
+					throw new UnknownProjectException( rundeckProjectHistory.getProject() );
+				}
+			}
+
+			waitRundeckCall( connectionDateDeltaFuture, connectionDeadline );
+		}
+		finally {
+			existingProjectsFuture.cancel( true );
+			connectionDateDeltaFuture.cancel( true );
+		}
+	}
+
+	/**
+	 * Get the current time of the rundeck server and add it as a precise sample of the clock offset
+	 *
+	 * @return estimated time difference with the server in milliseconds
+	 * @throws RundeckApiException in case of connection error
+	 */
+	private long sampleServerTime() {
+
+		final long requestTime = System.currentTimeMillis();
+		final long serverTime;
+		if( null == rundeckExecutionsClient ) {
+			serverTime = rundeckClient.getSystemInfo().getDate().getTime();
+		}
+		else {
+			try {
+				serverTime = rundeckExecutionsClient.getServerTime();
+			}
+			catch( final IOException e ) {
+				throw new RundeckApiException( e.getMessage(), e );
+			}
+		}
+
+		clockOffsetEstimator.addSample( requestTime, System.currentTimeMillis(), serverTime, 0L );
+		return clockOffsetEstimator.getOffset();
+	}
+
+	/**
+	 * Get a call returning the time difference with the server, a cheap call also used to probe a disconnected server
+	 *
+	 * @return rundeck API call
+	 */
+	private Callable<Long> dateDeltaCall() {
+
+		return new Callable<Long>() {
+			@Override
+			@SuppressWarnings("synthetic-access")
+			public Long call() {
+				return Long.valueOf( sampleServerTime() );
+			}
+		};
+	}
+
+	/**
+	 * Start the rundeck API calls of an update, failed and running executions of all projects are independent and are get concurrently
+	 *
+	 * @param failedJobNumber maximum number of failed executions to get
+	 * @param init boolean to indicate if it's the first update
+	 */
+	public void startUpdate( final int failedJobNumber, final boolean init ) {
+
+		lastFailedJobsFutures.clear();
+		currentExecutionsFutures.clear();
+		dateDeltaFuture = null;
+		lastFailedJobsResults.clear();
+		currentExecutionsResults.clear();
+		updateFailure = null;
+
+		//Remove the cancelled calls of the previous update
+		rundeckCallsExecutor.purge();
+
+		//Server disconnected: no call until the next retry
+		updateState = rundeckCircuitBreaker.beforeCalls( System.currentTimeMillis() );
+		if( RundeckCircuitBreaker.State.OPEN == updateState ) {
+			return;
+		}
+
+		//Calls of a previous update are still blocked: don't add more calls to this server
+		if( runningCalls.get() > 0 ) {
+			return;
+		}
+
+		//Probe the server with a cheap call before resuming the full update
+		if( RundeckCircuitBreaker.State.HALF_OPEN == updateState ) {
+			dateDeltaFuture = submitRundeckCall( dateDeltaCall() );
+			return;
+		}
+
+		startExecutionsCalls( failedJobNumber, init );
+	}
+
+	/**
+	 * Start the failed and running executions calls of all projects
+	 *
+	 * @param failedJobNumber maximum number of failed executions to get
+	 * @param init boolean to indicate if it's the first update
+	 */
+	private void startExecutionsCalls( final int failedJobNumber, final boolean init ) {
+
+		for( final RundeckProjectHistory rundeckProjectHistory : rundeckProjectHistories ) {
+
+			lastFailedJobsFutures.add( submitRundeckCall( rundeckProjectHistory.failedExecutionsCall( rundeckClient, rundeckExecutionsClient, failedJobNumber, init ) ) );
+			currentExecutionsFutures.add( submitRundeckCall( rundeckProjectHistory.runningExecutionsCall( rundeckClient, rundeckExecutionsClient ) ) );
+		}
+	}
+
+	/**
+	 * Submit a rundeck API call counted as running until it returns,
+	 * the executor threads can still be active after the results of their calls are received
+	 *
+	 * @param rundeckCall rundeck API call
+	 * @return pending rundeck API call
+	 */
+	private <T> Future<T> submitRundeckCall( final Callable<T> rundeckCall ) {
+
+		return rundeckCallsExecutor.submit( new Callable<T>() {
+			@Override
+			@SuppressWarnings("synthetic-access")
+			public T call() throws Exception {
+
+				runningCalls.incrementAndGet();
+				try {
+					return rundeckCall.call();
+				}
+				finally {
+					runningCalls.decrementAndGet();
+				}
+			}
+		} );
+	}
+
+	/**
+	 * Wait the probe call of a disconnected server, without any lock because no project history is used
+	 *
+	 * @param deadline time limit of the whole update
+	 */
+	public void waitProbe( final long deadline ) {
+
+		if( null == dateDeltaFuture ) {
+			return;
+		}
+
+		try {
+			waitRundeckCall( dateDeltaFuture, deadline );
+		}
+		catch( final RuntimeException e ) {
+			updateFailure = e;
+		}
+		finally {
+			dateDeltaFuture.cancel( true );
+		}
+	}
+
+	/**
+	 * Start the executions calls of a server back after its probe call
+	 *
+	 * @param failedJobNumber maximum number of failed executions to get
+	 * @param init boolean to indicate if it's the first update
+	 */
+	public void resumeUpdate( final int failedJobNumber, final boolean init ) {
+
+		if( null != dateDeltaFuture && null == updateFailure ) {
+			startExecutionsCalls( failedJobNumber, init );
+		}
+	}
+
+	/**
+	 * Wait the end of the rundeck API calls of the update and keep their results, without any lock because no project history is used
+	 *
+	 * @param deadline time limit of the whole update
+	 */
+	public void waitUpdate( final long deadline ) {
+
+		if( RundeckCircuitBreaker.State.OPEN == updateState || null != updateFailure ) {
+			return;
+		}
+
+		try {
+			if( lastFailedJobsFutures.isEmpty() && ! rundeckProjectHistories.isEmpty() ) {
+				throw new RundeckApiException( "Rundeck server is still not responding" ); //$NON-NLS-1$
+			}
+
+			for( final Future<List<RundeckExecution>> lastFailedJobsFuture : lastFailedJobsFutures ) {
+				lastFailedJobsResults.add( waitRundeckCall( lastFailedJobsFuture, deadline ) );
+			}
+			for( final Future<List<RundeckExecution>> currentExecutionsFuture : currentExecutionsFutures ) {
+				currentExecutionsResults.add( waitRundeckCall( currentExecutionsFuture, deadline ) );
+			}
+		}
+		catch( final RuntimeException e ) {
+			updateFailure = e;
+		}
+		finally {
+			//Nothing to do if calls are done, otherwise abort them
+			cancelRundeckCalls( lastFailedJobsFutures );
+			cancelRundeckCalls( currentExecutionsFutures );
+		}
+	}
+
+	/**
+	 * Apply the results of the rundeck API calls of the update to the projects history
+	 *
+	 * @param failedJobNumber maximum number of failed executions to keep
+	 * @param lateThreshold late execution threshold in seconds
+	 * @param init boolean to indicate if it's the first update
+	 * @return true if a new failed execution is found
+	 * @throws RundeckApiException if a call failed or is too long or if the server is disconnected, the previous executions are kept
+	 */
+	public boolean finishUpdate( final int failedJobNumber, final int lateThreshold, final boolean init ) {
+
+		if( RundeckCircuitBreaker.State.OPEN == updateState ) {
+			throw new RundeckApiException( "Rundeck server is disconnected until the next retry" ); //$NON-NLS-1$
+		}
+
+		if( null != updateFailure ) {
+
+			//Some executions may have been missed, reload all of them after the reconnection without the unchanged responses check
+			for( final RundeckProjectHistory rundeckProjectHistory : rundeckProjectHistories ) {
+				rundeckProjectHistory.reloadExecutions();
+			}
+
+			rundeckCircuitBreaker.recordFailure( System.currentTimeMillis() );
+			throw updateFailure;
+		}
+
+		rundeckCircuitBreaker.recordSuccess();
+
+		boolean newFailedJobFound = false;
+
+		for( int i = 0 ; i < rundeckProjectHistories.size() ; i++ ) {
+
+			final RundeckProjectHistory rundeckProjectHistory = rundeckProjectHistories.get( i );
+
+			rundeckProjectHistory.setRunningExecutions( currentExecutionsResults.get( i ) );
+
+			//Get new failed jobs
+			if( rundeckProjectHistory.updateFailedExecutions( lastFailedJobsResults.get( i ), failedJobNumber, init ) ) {
+				newFailedJobFound = true;
+			}
+		}
+
+		//Scan runnings jobs to detect if they are late
+		checkLateExecutions( lateThreshold );
+
+		return newFailedJobFound;
+	}
+
+	/**
+	 * Scan the lasts running executions of all projects to detect if they are late, without calling rundeck
+	 *
+	 * @param lateThreshold late execution threshold in seconds
+	 */
+	public void checkLateExecutions( final int lateThreshold ) {
+
+		final long currentTime = System.currentTimeMillis();
+
+		lateExecutionFound = false;
+		runningExecutionFound = false;
+		nextLateExecutionTime = Long.MAX_VALUE;
+
+		for( final RundeckProjectHistory rundeckProjectHistory : rundeckProjectHistories ) {
+
+			if( rundeckProjectHistory.updateLateExecutions( currentTime, clockOffsetEstimator.getOffset(), lateThreshold ) ) {
+				lateExecutionFound = true;
+			}
+			if( rundeckProjectHistory.getRunningExecutionNumber() > 0 ) {
+				runningExecutionFound = true;
+			}
+			nextLateExecutionTime = Math.min( nextLateExecutionTime, rundeckProjectHistory.getNextLateExecutionTime() );
+		}
+	}
+
+	/**
+	 * Schedule a deadline for each running execution not late yet and cancel the deadlines of finished or already late executions
+	 *
+	 * @param lateExecutionTimer timer used to schedule the deadlines
+	 * @param lateExecutionListener task executed when a running execution becomes late
+	 */
+	public void scheduleLateExecutionDeadlines( final ScheduledExecutorService lateExecutionTimer, final Runnable lateExecutionListener ) {
+
+		final Map<Long, Long> lateExecutionTimes = new HashMap<>();
+		for( final RundeckProjectHistory rundeckProjectHistory : rundeckProjectHistories ) {
+			lateExecutionTimes.putAll( rundeckProjectHistory.getLateExecutionTimes() );
+		}
+
+		final Iterator<Entry<Long, LateExecutionDeadline>> iterator = lateExecutionDeadlines.entrySet().iterator();
+		while( iterator.hasNext() ) {
+
+			final Entry<Long, LateExecutionDeadline> lateExecutionDeadline = iterator.next();
+			if( ! lateExecutionTimes.containsKey( lateExecutionDeadline.getKey() ) ) {
+
+				lateExecutionDeadline.getValue().future.cancel( false );
+				iterator.remove();
+			}
+		}
+
+		final long currentTime = System.currentTimeMillis();
+		for( final Entry<Long, Long> lateExecutionTime : lateExecutionTimes.entrySet() ) {
+
+			final long time = lateExecutionTime.getValue().longValue();
+			final LateExecutionDeadline lateExecutionDeadline = lateExecutionDeadlines.get( lateExecutionTime.getKey() );
+
+			//A deadline reached too early or moved by a new clock offset is scheduled again
+			if( null == lateExecutionDeadline || lateExecutionDeadline.future.isDone() || lateExecutionDeadline.time != time ) {
+
+				if( null != lateExecutionDeadline ) {
+					lateExecutionDeadline.future.cancel( false );
+				}
+				lateExecutionDeadlines.put( lateExecutionTime.getKey(), new LateExecutionDeadline( time, lateExecutionTimer.schedule( lateExecutionListener, time - currentTime, TimeUnit.MILLISECONDS ) ) );
+			}
+		}
+	}
+
+	/**
+	 * Add the lasts known late and failed executions of all projects of this server
+	 *
+	 * @param lateExecutions list where late executions are added
+	 * @param failedExecutions list where failed executions are added
+	 */
+	public void addLastExecutions( final List<JobExecutionInfo> lateExecutions, final List<JobExecutionInfo> failedExecutions ) {
+
+		for( final RundeckProjectHistory rundeckProjectHistory : rundeckProjectHistories ) {
+
+			lateExecutions.addAll( rundeckProjectHistory.getLastLateExecutions() );
+			failedExecutions.addAll( rundeckProjectHistory.getLastFailedExecutions() );
+		}
+	}
+
+	/**
+	 * Move the new late and failed executions not alerted yet of all projects of this server to a list
+	 *
+	 * @param alertedExecutions list where the new executions are added
+	 */
+	public void drainNewExecutions( final List<JobExecutionInfo> alertedExecutions ) {
+
+		for( final RundeckProjectHistory rundeckProjectHistory : rundeckProjectHistories ) {
+			rundeckProjectHistory.drainNewExecutions( alertedExecutions );
+		}
+	}
+
+	/**
+	 * Write the time difference and the state of all projects of this server in the snapshot
+	 *
+	 * @param dataOutputStream snapshot stream
+	 * @throws IOException in case of writing error
+	 */
+	public void writeSnapshot( final DataOutputStream dataOutputStream ) throws IOException {
+
+		RundeckMonitorSnapshot.writeString( dataOutputStream, rundeckServerConfiguration.getRundeckUrl() );
+		dataOutputStream.writeLong( clockOffsetEstimator.getOffset() );
+
+		dataOutputStream.writeInt( rundeckProjectHistories.size() );
+		for( final RundeckProjectHistory rundeckProjectHistory : rundeckProjectHistories ) {
+
+			RundeckMonitorSnapshot.writeString( dataOutputStream, rundeckProjectHistory.getProject() );
+			rundeckProjectHistory.writeSnapshot( dataOutputStream );
+		}
+	}
+
+	/**
+	 * Read the snapshot of a server and restore it in its monitor if the server and its projects are still monitored
+	 *
+	 * @param dataInputStream snapshot stream
+	 * @param rundeckServerMonitors monitors of the servers by URL
+	 * @throws IOException in case of reading error
+	 */
+	public static void readSnapshot( final DataInputStream dataInputStream, final Map<String, RundeckServerMonitor> rundeckServerMonitors ) throws IOException {
+
+		final String rundeckUrl = RundeckMonitorSnapshot.readString( dataInputStream );
+		final long dateDelta = dataInputStream.readLong();
+
+		final RundeckServerMonitor rundeckServerMonitor = rundeckServerMonitors.get( rundeckUrl );
+		final Map<String, RundeckProjectHistory> projectHistories = new HashMap<>();
+		if( null != rundeckServerMonitor ) {
+
+			//Offset used until the first response of the server, the connection may already have sampled it
+			rundeckServerMonitor.clockOffsetEstimator.restore( dateDelta );
+			for( final RundeckProjectHistory rundeckProjectHistory : rundeckServerMonitor.rundeckProjectHistories ) {
+				projectHistories.put( rundeckProjectHistory.getProject(), rundeckProjectHistory );
+			}
+		}
+
+		final int projectNumber = dataInputStream.readInt();
+		for( int i = 0 ; i < projectNumber ; i++ ) {
+
+			final String project = RundeckMonitorSnapshot.readString( dataInputStream );
+			RundeckProjectHistory rundeckProjectHistory = projectHistories.get( project );
+
+			//Skip a project not monitored anymore
+			if( null == rundeckProjectHistory ) {
+				rundeckProjectHistory = new RundeckProjectHistory( project, rundeckUrl, null );
+			}
+
+			rundeckProjectHistory.readSnapshot( dataInputStream );
+		}
+	}
+
+	/**
+	 * Stop all the pending rundeck API calls and late deadlines of this server
+	 */
+	public void dispose() {
+
+		rundeckCallsExecutor.shutdownNow();
+
+		for( final LateExecutionDeadline lateExecutionDeadline : lateExecutionDeadlines.values() ) {
+			lateExecutionDeadline.future.cancel( false );
+		}
+		lateExecutionDeadlines.clear();
+	}
+
+	/**
+	 * Wait the result of a rundeck API call until the update deadline
+	 *
+	 * @param future rundeck API call
+	 * @param deadline time limit of the whole update
+	 * @return rundeck API call result
+	 * @throws RundeckApiException if the call failed or is too long
+	 */
+	private static <T> T waitRundeckCall( final Future<T> future, final long deadline ) {
+
+		try {
+			return future.get( Math.max( 0, deadline - System.currentTimeMillis() ), TimeUnit.MILLISECONDS );
+		}
+		catch( final ExecutionException e ) {
+
+			if( RuntimeException.class.isInstance( e.getCause() ) ) {
+				throw (RuntimeException) e.getCause();
+			}
+
+			throw new RundeckApiException( e.getCause().getMessage(), e.getCause() );
+		}
+		catch( final TimeoutException e ) {
+
+			throw new RundeckApiException( "Rundeck API call timeout", e ); //$NON-NLS-1$
+		}
+		catch( final InterruptedException e ) {
+
+			Thread.currentThread().interrupt();
+			throw new RundeckApiException( "Rundeck API call interrupted", e ); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Cancel all not finished rundeck API calls
+	 *
+	 * @param futures rundeck API calls
+	 */
+	private static void cancelRundeckCalls( final List<? extends Future<?>> futures ) {
+
+		for( final Future<?> future : futures ) {
+			future.cancel( true );
+		}
+	}
+
+	public RundeckServerConfiguration getRundeckServerConfiguration() {
+		return rundeckServerConfiguration;
+	}
+
+	/**
+	 * Get the history of the project of a notified execution if it belongs to this server
+	 *
+	 * @param rundeckExecution notified execution
+	 * @param checkUrl true to also check that the execution URL is on this server
+	 * @return history of the execution project or null if the execution is not monitored by this server
+	 */
+	public RundeckProjectHistory getProjectHistory( final RundeckExecution rundeckExecution, final boolean checkUrl ) {
+
+		final String executionUrl = rundeckExecution.getUrl();
+		if( checkUrl && ( null == executionUrl || ! executionUrl.startsWith( rundeckServerConfiguration.getRundeckUrl().replaceFirst( "/*$", "/" ) ) ) ) { //$NON-NLS-1$ //$NON-NLS-2$
+			return null;
+		}
+
+		for( final RundeckProjectHistory rundeckProjectHistory : rundeckProjectHistories ) {
+			if( rundeckProjectHistory.getProject().equals( rundeckExecution.getProject() ) ) {
+				return rundeckProjectHistory;
+			}
+		}
+
+		return null;
+	}
+
+	public RundeckCircuitBreaker getRundeckCircuitBreaker() {
+		return rundeckCircuitBreaker;
+	}
+
+	public ClockOffsetEstimator getClockOffsetEstimator() {
+		return clockOffsetEstimator;
+	}
+
+	public boolean isLateExecutionFound() {
+		return lateExecutionFound;
+	}
+
+	public boolean isRunningExecutionFound() {
+		return runningExecutionFound;
+	}
+
+	public long getNextLateExecutionTime() {
+		return nextLateExecutionTime;
+	}
+}
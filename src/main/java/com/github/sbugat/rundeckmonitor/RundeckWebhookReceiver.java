@@ -0,0 +1,209 @@
+package com.github.sbugat.rundeckmonitor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.rundeck.api.domain.RundeckExecution;
+
+import com.github.sbugat.rundeckmonitor.tools.NamedThreadFactory;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Embedded HTTP listener receiving the rundeck job notifications webhooks (onstart, onsuccess, onfailure)
+ *
+ * The XML notification is parsed like an executions list and the notified executions are given to the listener,
+ * a request is rejected if a token is configured and the token parameter of the webhook URL is different.
+ * The receiver listens only on the loopback interface unless an address is configured
+ *
+ * @author Sylvain Bugat
+ *
+ */
+public class RundeckWebhookReceiver {
+
+	/**Maximum size of a notification, far more than a notification with a long description*/
+	private static final int MAXIMUM_NOTIFICATION_SIZE = 1_048_576;
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private static final String POST_METHOD = "POST"; //$NON-NLS-1$
+	private static final String TOKEN_PARAMETER = "token="; //$NON-NLS-1$
+	private static final String URL_ENCODING = "UTF-8"; //$NON-NLS-1$
+
+	/**Listener of the notified executions*/
+	public interface NotificationListener {
+
+		/**
+		 * Called for each received notification
+		 *
+		 * @param rundeckExecutions notified executions with their status, project and URL
+		 */
+		void executionsNotified( List<RundeckExecution> rundeckExecutions );
+	}
+
+	/**Embedded HTTP server*/
+	private final HttpServer httpServer;
+
+	/**Thread handling the notifications, the HTTP dispatcher thread is not blocked during a rundeck update*/
+	private final ExecutorService notificationExecutor = Executors.newSingleThreadExecutor( new NamedThreadFactory( "rundeck-monitor-webhook" ) ); //$NON-NLS-1$
+
+	/**Port of the listener, chosen by the system if the configured port is 0*/
+	private final int port;
+
+	/**Expected token parameter, null or empty to accept any notification*/
+	private final String token;
+
+	private final NotificationListener notificationListener;
+
+	/**
+	 * Start listening the notifications
+	 *
+	 * @param address address to listen, null or empty to listen only on the loopback interface
+	 * @param portArg port to listen, 0 for any free port
+	 * @param tokenArg expected token parameter, can be null
+	 * @param notificationListenerArg listener of the notified executions
+	 * @throws IOException if the port cannot be listened
+	 */
+	public RundeckWebhookReceiver( final String address, final int portArg, final String tokenArg, final NotificationListener notificationListenerArg ) throws IOException {
+
+		token = tokenArg;
+		notificationListener = notificationListenerArg;
+
+		final InetSocketAddress inetSocketAddress;
+		if( null == address || address.isEmpty() ) {
+			inetSocketAddress = new InetSocketAddress( InetAddress.getLoopbackAddress(), portArg );
+		}
+		else {
+			inetSocketAddress = new InetSocketAddress( address, portArg );
+		}
+
+		httpServer = HttpServer.create( inetSocketAddress, 0 );
+		port = httpServer.getAddress().getPort();
+		httpServer.setExecutor( notificationExecutor );
+		httpServer.createContext( "/", new HttpHandler() { //$NON-NLS-1$
+			@Override
+			@SuppressWarnings("synthetic-access")
+			public void handle( final HttpExchange httpExchange ) throws IOException {
+				handleNotification( httpExchange );
+			}
+		} );
+		httpServer.start();
+	}
+
+	/**
+	 * Stop listening the notifications
+	 */
+	public void stop() {
+
+		httpServer.stop( 0 );
+		notificationExecutor.shutdownNow();
+	}
+
+	public int getPort() {
+		return port;
+	}
+
+	/**
+	 * Check, parse and transmit a notification
+	 *
+	 * @param httpExchange notification request
+	 * @throws IOException in case of connection error
+	 */
+	private void handleNotification( final HttpExchange httpExchange ) throws IOException {
+
+		try {
+			if( ! POST_METHOD.equals( httpExchange.getRequestMethod() ) ) {
+				httpExchange.sendResponseHeaders( HttpURLConnection.HTTP_BAD_METHOD, -1 );
+				return;
+			}
+
+			if( null != token && ! token.isEmpty() && ! token.equals( getToken( httpExchange.getRequestURI().getRawQuery() ) ) ) {
+				httpExchange.sendResponseHeaders( HttpURLConnection.HTTP_FORBIDDEN, -1 );
+				return;
+			}
+
+			final byte[] body = readBody( httpExchange.getRequestBody() );
+			if( null == body ) {
+				httpExchange.sendResponseHeaders( HttpURLConnection.HTTP_ENTITY_TOO_LARGE, -1 );
+				return;
+			}
+
+			//The project of each execution is given by the notification
+			final List<RundeckExecution> rundeckExecutions;
+			try {
+				rundeckExecutions = RundeckExecutionsClient.parseExecutions( body, null );
+			}
+			catch( final IOException e ) {
+				httpExchange.sendResponseHeaders( HttpURLConnection.HTTP_BAD_REQUEST, -1 );
+				return;
+			}
+
+			notificationListener.executionsNotified( rundeckExecutions );
+			httpExchange.sendResponseHeaders( HttpURLConnection.HTTP_NO_CONTENT, -1 );
+		}
+		finally {
+			httpExchange.close();
+		}
+	}
+
+	/**
+	 * Get the token parameter of a query
+	 *
+	 * @param rawQuery raw query of the request URI, can be null
+	 * @return decoded token or null if there is no token parameter
+	 * @throws UnsupportedEncodingException never, UTF-8 is always supported
+	 */
+	private static String getToken( final String rawQuery ) throws UnsupportedEncodingException {
+
+		if( null == rawQuery ) {
+			return null;
+		}
+
+		for( final String parameter : rawQuery.split( "&" ) ) { //$NON-NLS-1$
+			if( parameter.startsWith( TOKEN_PARAMETER ) ) {
+				return URLDecoder.decode( parameter.substring( TOKEN_PARAMETER.length() ), URL_ENCODING );
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Read a notification body
+	 *
+	 * @param inputStream request body stream
+	 * @return read bytes or null if the notification is too large
+	 * @throws IOException in case of reading error
+	 */
+	private static byte[] readBody( final InputStream inputStream ) throws IOException {
+
+		final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+
+		try( final InputStream autoClosedInputStream = inputStream ) {
+
+			final byte[] buffer = new byte[ BUFFER_SIZE ];
+			int readBytes = autoClosedInputStream.read( buffer );
+			while( readBytes >= 0 ) {
+
+				if( byteArrayOutputStream.size() + readBytes > MAXIMUM_NOTIFICATION_SIZE ) {
+					return null;
+				}
+
+				byteArrayOutputStream.write( buffer, 0, readBytes );
+				readBytes = autoClosedInputStream.read( buffer );
+			}
+		}
+
+		return byteArrayOutputStream.toByteArray();
+	}
+}
@@ -0,0 +1,144 @@
+package com.github.sbugat.rundeckmonitor;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.net.URL;
+
+import javax.imageio.ImageIO;
+import javax.swing.Icon;
+import javax.swing.ImageIcon;
+
+/**
+ * Images of the tray icon and of the menu, shared by all tray icons
+ *
+ * Each image is decoded once and scaled once to the tray icon size, the tray icon displays it without any rescaling
+ *
+ * @author Sylvain Bugat
+ *
+ */
+public enum TrayImage {
+
+	/** OK image*/
+	OK( "OK.png" ), //$NON-NLS-1$
+	/** WARNING image when a job seems to be blocked*/
+	LATE( "LATE.png" ), //$NON-NLS-1$
+	/** KO image when a job has failed*/
+	KO( "KO.png" ), //$NON-NLS-1$
+	/** KO image when a job has failed and a job seems to be blocked*/
+	KO_LATE( "KO_LATE.png" ), //$NON-NLS-1$
+	/** Disconnected from rundeck image */
+	DISCONNECTED( "DISCONNECTED.png" ), //$NON-NLS-1$
+	/** Menu icon of a new late job*/
+	LATE_SMALL( "LATE_SMALL.png" ), //$NON-NLS-1$
+	/** Menu icon of a new failed job*/
+	KO_SMALL( "KO_SMALL.png" ); //$NON-NLS-1$
+
+	private final String resourceName;
+
+	/**Decoded image, null until the first use*/
+	private BufferedImage image;
+
+	/**Image scaled to the last requested size*/
+	private Image scaledImage;
+	private Dimension scaledSize;
+
+	/**Menu icon of the image*/
+	private Icon icon;
+
+	private TrayImage( final String resourceNameArg ) {
+		resourceName = resourceNameArg;
+	}
+
+	/**
+	 * Get the decoded image with its original size
+	 *
+	 * @return decoded image
+	 */
+	public synchronized BufferedImage getImage() {
+
+		if( null == image ) {
+
+			final URL resource = TrayImage.class.getClassLoader().getResource( resourceName );
+			if( null == resource ) {
+				throw new IllegalStateException( "Missing image: " + resourceName ); //$NON-NLS-1$
+			}
+
+			try {
+				image = ImageIO.read( resource );
+			}
+			catch( final IOException e ) {
+				throw new IllegalStateException( "Invalid image: " + resourceName, e ); //$NON-NLS-1$
+			}
+		}
+
+		return image;
+	}
+
+	/**
+	 * Get the image scaled to a size, the scaled image is kept until another size is requested
+	 *
+	 * @param size size of the tray icons
+	 * @return scaled image
+	 */
+	public synchronized Image getScaledImage( final Dimension size ) {
+
+		if( ! size.equals( scaledSize ) ) {
+
+			scaledImage = scale( getImage(), size.width, size.height );
+			scaledSize = new Dimension( size );
+		}
+
+		return scaledImage;
+	}
+
+	/**
+	 * Get the image as a menu icon with its original size
+	 *
+	 * @return menu icon
+	 */
+	public synchronized Icon getIcon() {
+
+		if( null == icon ) {
+			icon = new ImageIcon( getImage() );
+		}
+
+		return icon;
+	}
+
+	/**
+	 * Scale an image, the size is halved first while it is larger than twice the target to keep a smooth result
+	 *
+	 * @param sourceImage image to scale
+	 * @param width target width
+	 * @param height target height
+	 * @return scaled image or the source image if it has already the target size
+	 */
+	private static BufferedImage scale( final BufferedImage sourceImage, final int width, final int height ) {
+
+		BufferedImage currentImage = sourceImage;
+		while( currentImage.getWidth() != width || currentImage.getHeight() != height ) {
+
+			final int nextWidth = Math.max( width, currentImage.getWidth() / 2 );
+			final int nextHeight = Math.max( height, currentImage.getHeight() / 2 );
+
+			final BufferedImage nextImage = new BufferedImage( nextWidth, nextHeight, BufferedImage.TYPE_INT_ARGB );
+			final Graphics2D graphics = nextImage.createGraphics();
+			try {
+				graphics.setRenderingHint( RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC );
+				graphics.setRenderingHint( RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY );
+				graphics.drawImage( currentImage, 0, 0, nextWidth, nextHeight, null );
+			}
+			finally {
+				graphics.dispose();
+			}
+
+			currentImage = nextImage;
+		}
+
+		return currentImage;
+	}
+}
@@ -2,13 +2,14 @@ package com.github.sbugat.rundeckmonitor;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.URL;
+import java.net.HttpURLConnection;
 import java.nio.file.DirectoryStream;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collections;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
@@ -20,6 +21,7 @@ import org.eclipse.egit.github.core.client.GitHubClient;
 import org.eclipse.egit.github.core.service.RepositoryService;
 
 import com.github.sbugat.rundeckmonitor.tools.EnvironmentTools;
+import com.github.sbugat.rundeckmonitor.tools.HttpTransport;
 
 /**
  * Simple generic version checker on GitHub, inpect target jar and local jar build date to determinated if an update is available
@@ -52,6 +54,9 @@ public class VersionChecker implements Runnable{
 
 	private final String jarWithDependenciesSuffix;
 
+	/**Transport shared with the rundeck calls*/
+	private final HttpTransport httpTransport;
+
 	/**Indicate if the download is completed*/
 	private boolean downloadDone;
 
@@ -67,14 +72,16 @@ public class VersionChecker implements Runnable{
 	 * @param gitHubRepositoryArg
 	 * @param mavenArtifactIdArg
 	 * @param jarWithDependenciesSuffixArg
+	 * @param httpTransportArg
 	 */
-	public VersionChecker( final String gitHubUserArg, final String gitHubRepositoryArg, final String mavenArtifactIdArg, final String jarWithDependenciesSuffixArg ) {
+	public VersionChecker( final String gitHubUserArg, final String gitHubRepositoryArg, final String mavenArtifactIdArg, final String jarWithDependenciesSuffixArg, final HttpTransport httpTransportArg ) {
 
 		gitHubUser = gitHubUserArg;
 		gitHubRepository = gitHubRepositoryArg;
 
 		mavenArtifactId = mavenArtifactIdArg;
 		jarWithDependenciesSuffix = jarWithDependenciesSuffixArg;
+		httpTransport = httpTransportArg;
 	}
 
 	/**
@@ -91,7 +98,14 @@ public class VersionChecker implements Runnable{
 
 		try {
 
-			final GitHubClient gitHubClient = new GitHubClient();
+			final GitHubClient gitHubClient = new GitHubClient() {
+
+				@Override
+				@SuppressWarnings("synthetic-access")
+				protected HttpURLConnection configureRequest( final HttpURLConnection request ) {
+					return httpTransport.configure( super.configureRequest( request ) );
+				}
+			};
 
 			final RepositoryService rs = new RepositoryService( gitHubClient );
 			final Repository repository = rs.getRepository( gitHubUser, gitHubRepository );
@@ -133,7 +147,15 @@ public class VersionChecker implements Runnable{
 		else {
 			jarSuffix = ""; //$NON-NLS-1$
 		}
-		try( final InputStream remoteJarInputStream = new URL( release.getZipballUrl() ).openStream() ) {
+		final HttpURLConnection connection = httpTransport.open( release.getZipballUrl(), Collections.<String, String>emptyMap() );
+		final int responseCode = httpTransport.connect( connection );
+		if( HttpURLConnection.HTTP_OK != responseCode ) {
+
+			HttpTransport.discardErrorBody( connection );
+			throw new IOException( "HTTP error " + responseCode + " on " + release.getZipballUrl() ); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		try( final InputStream remoteJarInputStream = httpTransport.getInputStream( connection ) ) {
 
 			final ZipInputStream zis = new ZipInputStream( remoteJarInputStream );
 
@@ -0,0 +1,27 @@
+package com.github.sbugat.rundeckmonitor.configuration;
+
+/**
+ * Changes between 2 configurations, a reload only re-applies the changed parts of the configuration
+ *
+ * @author Sylvain Bugat
+ *
+ */
+public enum ConfigurationChange {
+
+	/**Rundeck servers, credentials, projects or API version: the changed servers are reconnected*/
+	SERVERS,
+	/**Connection and read timeouts*/
+	TIMEOUTS,
+	/**Refresh delays and late threshold, used by the next update*/
+	REFRESH,
+	/**Notifications receiver address, port or token: the receiver is restarted*/
+	WEBHOOK,
+	/**Number of displayed failed jobs: the menu items are rebuilt*/
+	FAILED_JOB_NUMBER,
+	/**Date format of the menu items: the menu items are relabeled*/
+	DATE_FORMAT,
+	/**Name of the monitor and of the main server*/
+	MONITOR_NAME,
+	/**Properties only read when they are used: job tab redirection, interface type and version checker*/
+	OTHER
+}
@@ -9,15 +9,25 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
 import java.util.Properties;
+import java.util.Set;
 
+import com.github.sbugat.rundeckmonitor.tools.HttpTransport;
 import com.github.sbugat.rundeckmonitor.wizard.InterfaceType;
 import com.github.sbugat.rundeckmonitor.wizard.JobTabRedirection;
 
 /**
  * Configurationloading  class of the Rundeck Monitor
  *
+ * A configuration is edited and loaded, then frozen before being used by the monitor:
+ * a frozen configuration is an immutable snapshot replaced as a whole when the configuration is reloaded
+ *
  * @author Sylvain Bugat
  *
  */
@@ -31,10 +41,25 @@ public class RundeckMonitorConfiguration {
 	public static final String RUNDECK_MONITOR_PROPERTY_LOGIN = "rundeck.monitor.login"; //$NON-NLS-1$
 	public static final String RUNDECK_MONITOR_PROPERTY_PASSWORD = "rundeck.monitor.password"; //$NON-NLS-1$
 	public static final String RUNDECK_MONITOR_PROPERTY_PROJECT = "rundeck.monitor.project"; //$NON-NLS-1$
+	/**Separator of the projects or servers names when several projects or servers are monitored*/
+	private static final String RUNDECK_MONITOR_PROPERTY_LIST_SEPARATOR = ","; //$NON-NLS-1$
 	private static final String RUNDECK_MONITOR_PROPERTY_NAME = "rundeck.monitor.name"; //$NON-NLS-1$
 	public static final String RUNDECK_MONITOR_PROPERTY_NAME_DEFAULT_VALUE = "RundeckMonitor"; //$NON-NLS-1$
 	private static final String RUNDECK_MONITOR_PROPERTY_REFRESH_DELAY = "rundeck.monitor.refresh.delay"; //$NON-NLS-1$
 	private static final int RUNDECK_MONITOR_PROPERTY_REFRESH_DELAY_DEFAULT_VALUE = 60;
+	private static final String RUNDECK_MONITOR_PROPERTY_MAXIMUM_REFRESH_DELAY = "rundeck.monitor.refresh.delay.max"; //$NON-NLS-1$
+	/**By default the maximum refresh delay is the refresh delay*/
+	private static final int RUNDECK_MONITOR_PROPERTY_MAXIMUM_REFRESH_DELAY_DEFAULT_VALUE = 0;
+	private static final String RUNDECK_MONITOR_PROPERTY_CONNECT_TIMEOUT = "rundeck.monitor.connect.timeout"; //$NON-NLS-1$
+	private static final String RUNDECK_MONITOR_PROPERTY_READ_TIMEOUT = "rundeck.monitor.read.timeout"; //$NON-NLS-1$
+	private static final String RUNDECK_MONITOR_PROPERTY_WEBHOOK_PORT = "rundeck.monitor.webhook.port"; //$NON-NLS-1$
+	/**By default the webhook receiver is disabled*/
+	private static final int RUNDECK_MONITOR_PROPERTY_WEBHOOK_PORT_DEFAULT_VALUE = 0;
+	private static final String RUNDECK_MONITOR_PROPERTY_WEBHOOK_TOKEN = "rundeck.monitor.webhook.token"; //$NON-NLS-1$
+	private static final String RUNDECK_MONITOR_PROPERTY_WEBHOOK_ADDRESS = "rundeck.monitor.webhook.address"; //$NON-NLS-1$
+	private static final String RUNDECK_MONITOR_PROPERTY_WEBHOOK_REFRESH_DELAY = "rundeck.monitor.webhook.refresh.delay"; //$NON-NLS-1$
+	private static final int RUNDECK_MONITOR_PROPERTY_WEBHOOK_REFRESH_DELAY_DEFAULT_VALUE = 600;
+	private static final int MAXIMUM_PORT = 65_535;
 	private static final String RUNDECK_MONITOR_PROPERTY_EXECUTION_LATE_THRESHOLD = "rundeck.monitor.execution.late.threshold"; //$NON-NLS-1$
 	private static final int RUNDECK_MONITOR_PROPERTY_EXECUTION_LATE_THRESHOLD_DEFAULT_VALUE = 1800;
 	private static final String RUNDECK_MONITOR_PROPERTY_FAILED_JOB_NUMBER = "rundeck.monitor.failed.job.number"; //$NON-NLS-1$
@@ -50,6 +75,16 @@ public class RundeckMonitorConfiguration {
 	private static final String RUNDECK_MONITOR_PROPERTY_INTERFACE_TYPE = "rundeck.monitor.interface.type"; //$NON-NLS-1$
 	private static final String RUNDECK_MONITOR_PROPERTY_INTERFACE_TYPE_DEFAULT_VALUE = InterfaceType.SWING.name();
 
+	/**Additional rundeck servers names and their properties*/
+	private static final String RUNDECK_MONITOR_PROPERTY_SERVERS = "rundeck.monitor.servers"; //$NON-NLS-1$
+	private static final String RUNDECK_MONITOR_PROPERTY_SERVER_PREFIX = "rundeck.monitor.server."; //$NON-NLS-1$
+	private static final String RUNDECK_MONITOR_PROPERTY_SERVER_URL = "url"; //$NON-NLS-1$
+	private static final String RUNDECK_MONITOR_PROPERTY_SERVER_API_KEY = "api.key"; //$NON-NLS-1$
+	private static final String RUNDECK_MONITOR_PROPERTY_SERVER_LOGIN = "login"; //$NON-NLS-1$
+	private static final String RUNDECK_MONITOR_PROPERTY_SERVER_PASSWORD = "password"; //$NON-NLS-1$
+	private static final String RUNDECK_MONITOR_PROPERTY_SERVER_PROJECT = "project"; //$NON-NLS-1$
+	private static final String RUNDECK_MONITOR_PROPERTY_SERVER_API_VERSION = "api.version"; //$NON-NLS-1$
+
 	private String rundeckUrl;
 
 	private String rundeckAPIKey;
@@ -58,7 +93,7 @@ public class RundeckMonitorConfiguration {
 
 	private String rundeckPassword;
 
-	/**Name of the rundeck project to access*/
+	/**Name of the rundeck project(s) to access, separated by a comma*/
 	private String rundeckProject;
 
 	private String rundeckMonitorName;
@@ -66,6 +101,22 @@ public class RundeckMonitorConfiguration {
 	/**Delay between 2 refresh of rundeck's data*/
 	private int refreshDelay;
 
+	/**Maximum delay between 2 refresh of rundeck's data when no execution is running*/
+	private int maximumRefreshDelay;
+
+	/**Timeouts of the HTTP connections*/
+	private int connectTimeout;
+	private int readTimeout;
+
+	/**Port of the rundeck notifications receiver, 0 if disabled*/
+	private int webhookPort;
+	/**Token expected in the notifications URL, can be empty only if the receiver listens on the loopback interface*/
+	private String webhookToken = ""; //$NON-NLS-1$
+	/**Address listened by the notifications receiver, empty to listen only on the loopback interface*/
+	private String webhookAddress = ""; //$NON-NLS-1$
+	/**Delay between 2 reconciliation refresh when the notifications receiver is enabled*/
+	private int webhookRefreshDelay;
+
 	/**Threshold for detecting long execution*/
 	private int lateThreshold;
 
@@ -81,13 +132,18 @@ public class RundeckMonitorConfiguration {
 
 	private String interfaceType;
 
+	/**Additional monitored rundeck servers*/
+	private List<RundeckServerConfiguration> additionalRundeckServers = new ArrayList<>();
+
+	/**Indicate if the configuration cannot be changed anymore*/
+	private boolean frozen;
 
 	public RundeckMonitorConfiguration() {
 		//Nothing to initialize
 	}
 
 	/**
-	 * Copy constructor
+	 * Copy constructor, the copy is not frozen
 	 * @param rundeckMonitorConfiguration
 	 */
 	public RundeckMonitorConfiguration( final RundeckMonitorConfiguration rundeckMonitorConfiguration ) {
@@ -100,12 +156,21 @@ public class RundeckMonitorConfiguration {
 		rundeckProject = rundeckMonitorConfiguration.rundeckProject;
 		rundeckMonitorName = rundeckMonitorConfiguration.rundeckMonitorName;
 		refreshDelay = rundeckMonitorConfiguration.refreshDelay;
+		maximumRefreshDelay = rundeckMonitorConfiguration.maximumRefreshDelay;
+		connectTimeout = rundeckMonitorConfiguration.connectTimeout;
+		readTimeout = rundeckMonitorConfiguration.readTimeout;
+		webhookPort = rundeckMonitorConfiguration.webhookPort;
+		webhookToken = rundeckMonitorConfiguration.webhookToken;
+		webhookAddress = rundeckMonitorConfiguration.webhookAddress;
+		webhookRefreshDelay = rundeckMonitorConfiguration.webhookRefreshDelay;
 		lateThreshold = rundeckMonitorConfiguration.lateThreshold;
 		failedJobNumber = rundeckMonitorConfiguration.failedJobNumber;
 		dateFormat = rundeckMonitorConfiguration.dateFormat;
 		rundeckAPIversion = rundeckMonitorConfiguration.rundeckAPIversion;
 		jobTabRedirection = rundeckMonitorConfiguration.jobTabRedirection;
 		versionCheckerDisabled = rundeckMonitorConfiguration.versionCheckerDisabled;
+		interfaceType = rundeckMonitorConfiguration.interfaceType;
+		additionalRundeckServers = new ArrayList<>( rundeckMonitorConfiguration.additionalRundeckServers );
 	}
 
 	/**
@@ -115,6 +180,8 @@ public class RundeckMonitorConfiguration {
 	 */
 	public void loadConfigurationPropertieFile() throws IOException {
 
+		checkNotFrozen();
+
 		//Configuration loading
 		final Path propertyFile = Paths.get( RUNDECK_MONITOR_PROPERTIES_FILE );
 		if( ! Files.exists( propertyFile ) ){
@@ -138,6 +205,13 @@ public class RundeckMonitorConfiguration {
 
 		rundeckMonitorName = properties.getProperty( RUNDECK_MONITOR_PROPERTY_NAME, RUNDECK_MONITOR_PROPERTY_NAME_DEFAULT_VALUE );
 		refreshDelay = getIntegerProperty( properties, RUNDECK_MONITOR_PROPERTY_REFRESH_DELAY, RUNDECK_MONITOR_PROPERTY_REFRESH_DELAY_DEFAULT_VALUE );
+		maximumRefreshDelay = getIntegerProperty( properties, RUNDECK_MONITOR_PROPERTY_MAXIMUM_REFRESH_DELAY, RUNDECK_MONITOR_PROPERTY_MAXIMUM_REFRESH_DELAY_DEFAULT_VALUE );
+		connectTimeout = getIntegerProperty( properties, RUNDECK_MONITOR_PROPERTY_CONNECT_TIMEOUT, HttpTransport.DEFAULT_CONNECT_TIMEOUT );
+		readTimeout = getIntegerProperty( properties, RUNDECK_MONITOR_PROPERTY_READ_TIMEOUT, HttpTransport.DEFAULT_READ_TIMEOUT );
+		webhookPort = getIntegerProperty( properties, RUNDECK_MONITOR_PROPERTY_WEBHOOK_PORT, RUNDECK_MONITOR_PROPERTY_WEBHOOK_PORT_DEFAULT_VALUE );
+		webhookToken = properties.getProperty( RUNDECK_MONITOR_PROPERTY_WEBHOOK_TOKEN, "" ); //$NON-NLS-1$
+		webhookAddress = properties.getProperty( RUNDECK_MONITOR_PROPERTY_WEBHOOK_ADDRESS, "" ).trim(); //$NON-NLS-1$
+		webhookRefreshDelay = getIntegerProperty( properties, RUNDECK_MONITOR_PROPERTY_WEBHOOK_REFRESH_DELAY, RUNDECK_MONITOR_PROPERTY_WEBHOOK_REFRESH_DELAY_DEFAULT_VALUE );
 		lateThreshold = getIntegerProperty( properties, RUNDECK_MONITOR_PROPERTY_EXECUTION_LATE_THRESHOLD, RUNDECK_MONITOR_PROPERTY_EXECUTION_LATE_THRESHOLD_DEFAULT_VALUE );
 		failedJobNumber = getIntegerProperty( properties, RUNDECK_MONITOR_PROPERTY_FAILED_JOB_NUMBER, RUNDECK_MONITOR_PROPERTY_FAILED_JOB_NUMBER_DEFAULT_VALUE );
 		dateFormat = properties.getProperty( RUNDECK_MONITOR_PROPERTY_DATE_FORMAT, RUNDECK_MONITOR_PROPERTY_DATE_FORMAT_DEFAULT_VALUE );
@@ -145,6 +219,31 @@ public class RundeckMonitorConfiguration {
 		jobTabRedirection = properties.getProperty( RUNDECK_MONITOR_PROPERTY_FAILED_JOB_REDIRECTION, RUNDECK_MONITOR_PROPERTY_FAILED_JOB_REDIRECTION_DEFAULT_VALUE );
 		versionCheckerDisabled = getBooleanProperty( properties, RUNDECK_MONITOR_PROPERTY_DISABLE_VERSION_CHECKER, RUNDECK_MONITOR_PROPERTY_DISABLE_VERSION_CHECKER_DEFAULT_VALUE );
 		interfaceType = properties.getProperty( RUNDECK_MONITOR_PROPERTY_INTERFACE_TYPE, RUNDECK_MONITOR_PROPERTY_INTERFACE_TYPE_DEFAULT_VALUE );
+
+		//Additional rundeck servers use the same API version by default
+		additionalRundeckServers = new ArrayList<>();
+		for( final String serverName : splitPropertyValues( properties.getProperty( RUNDECK_MONITOR_PROPERTY_SERVERS ) ) ) {
+
+			additionalRundeckServers.add( new RundeckServerConfiguration( serverName,
+					properties.getProperty( getServerPropertyName( serverName, RUNDECK_MONITOR_PROPERTY_SERVER_URL ) ),
+					properties.getProperty( getServerPropertyName( serverName, RUNDECK_MONITOR_PROPERTY_SERVER_API_KEY ) ),
+					properties.getProperty( getServerPropertyName( serverName, RUNDECK_MONITOR_PROPERTY_SERVER_LOGIN ) ),
+					properties.getProperty( getServerPropertyName( serverName, RUNDECK_MONITOR_PROPERTY_SERVER_PASSWORD ) ),
+					properties.getProperty( getServerPropertyName( serverName, RUNDECK_MONITOR_PROPERTY_SERVER_PROJECT ) ),
+					getIntegerProperty( properties, getServerPropertyName( serverName, RUNDECK_MONITOR_PROPERTY_SERVER_API_VERSION ), rundeckAPIversion ) ) );
+		}
+	}
+
+	/**
+	 * Get the name of an additional server property
+	 *
+	 * @param serverName name of the additional server
+	 * @param property property suffix
+	 * @return full name of the property
+	 */
+	private static String getServerPropertyName( final String serverName, final String property ) {
+
+		return RUNDECK_MONITOR_PROPERTY_SERVER_PREFIX + serverName + '.' + property;
 	}
 
 	/**
@@ -155,10 +254,25 @@ public class RundeckMonitorConfiguration {
 	 */
 	public void verifyConfiguration() throws MissingPropertyException, InvalidPropertyException  {
 
+		checkNotFrozen();
+
 		//Configuration checking
 
 		checkMandatoryStringProperty( rundeckUrl, RUNDECK_MONITOR_PROPERTY_URL );
 		checkMandatoryStringProperty( rundeckProject, RUNDECK_MONITOR_PROPERTY_PROJECT );
+		if( getRundeckProjects().isEmpty() ) {
+			throw new InvalidPropertyException( RUNDECK_MONITOR_PROPERTY_PROJECT, rundeckProject );
+		}
+
+		for( final RundeckServerConfiguration rundeckServer : additionalRundeckServers ) {
+
+			final String projectPropertyName = getServerPropertyName( rundeckServer.getName(), RUNDECK_MONITOR_PROPERTY_SERVER_PROJECT );
+			checkMandatoryStringProperty( rundeckServer.getRundeckUrl(), getServerPropertyName( rundeckServer.getName(), RUNDECK_MONITOR_PROPERTY_SERVER_URL ) );
+			checkMandatoryStringProperty( rundeckServer.getRundeckProject(), projectPropertyName );
+			if( rundeckServer.getRundeckProjects().isEmpty() ) {
+				throw new InvalidPropertyException( projectPropertyName, rundeckServer.getRundeckProject() );
+			}
+		}
 
 		boolean missingAPIKey = false;
 		try {
@@ -173,6 +287,23 @@ public class RundeckMonitorConfiguration {
 			checkMandatoryStringProperty( rundeckPassword, RUNDECK_MONITOR_PROPERTY_PASSWORD );
 		}
 
+		//Negative timeouts are not allowed, 0 is an infinite timeout
+		if( connectTimeout < 0 ) {
+			throw new InvalidPropertyException( RUNDECK_MONITOR_PROPERTY_CONNECT_TIMEOUT, String.valueOf( connectTimeout ) );
+		}
+		if( readTimeout < 0 ) {
+			throw new InvalidPropertyException( RUNDECK_MONITOR_PROPERTY_READ_TIMEOUT, String.valueOf( readTimeout ) );
+		}
+
+		if( webhookPort < 0 || webhookPort > MAXIMUM_PORT ) {
+			throw new InvalidPropertyException( RUNDECK_MONITOR_PROPERTY_WEBHOOK_PORT, String.valueOf( webhookPort ) );
+		}
+
+		//A receiver reachable from other hosts must check the token of the notifications
+		if( webhookPort > 0 && ! webhookAddress.isEmpty() ) {
+			checkMandatoryStringProperty( webhookToken, RUNDECK_MONITOR_PROPERTY_WEBHOOK_TOKEN );
+		}
+
 		//Test the configured date format
 		try {
 			new SimpleDateFormat( dateFormat );
@@ -201,6 +332,55 @@ public class RundeckMonitorConfiguration {
 		}
 	}
 
+	/**
+	 * Split a property containing a list of values separated by a comma
+	 *
+	 * @param propertyValue value of the property, can be null
+	 * @return trimmed and not empty values without duplicates
+	 */
+	static List<String> splitPropertyValues( final String propertyValue ) {
+
+		final Set<String> values = new LinkedHashSet<>();
+		if( null != propertyValue ) {
+			for( final String value : propertyValue.split( RUNDECK_MONITOR_PROPERTY_LIST_SEPARATOR ) ) {
+
+				final String trimmedValue = value.trim();
+				if( ! trimmedValue.isEmpty() ) {
+					values.add( trimmedValue );
+				}
+			}
+		}
+
+		return new ArrayList<>( values );
+	}
+
+	/**
+	 * Join a list of values to a property value separated by a comma
+	 *
+	 * @param values values to join
+	 * @return property value
+	 */
+	private static String joinPropertyValues( final List<String> values ) {
+
+		final StringBuilder propertyValueBuilder = new StringBuilder();
+		for( final String value : values ) {
+
+			if( propertyValueBuilder.length() > 0 ) {
+				propertyValueBuilder.append( RUNDECK_MONITOR_PROPERTY_LIST_SEPARATOR );
+			}
+			propertyValueBuilder.append( value );
+		}
+
+		return propertyValueBuilder.toString();
+	}
+
+	private static void putIfNotNull( final Properties properties, final String propertyName, final String propertyValue ) {
+
+		if( null != propertyValue ) {
+			properties.put( propertyName, propertyValue );
+		}
+	}
+
 	private static int getIntegerProperty( final Properties properties, final String propertyName, final int defaultValue ) {
 
 		final String propertyValue = properties.getProperty( propertyName, String.valueOf( defaultValue ) );
@@ -234,6 +414,13 @@ public class RundeckMonitorConfiguration {
 		properties.put( RUNDECK_MONITOR_PROPERTY_PROJECT, rundeckProject );
 		properties.put( RUNDECK_MONITOR_PROPERTY_NAME, rundeckMonitorName);
 		properties.put( RUNDECK_MONITOR_PROPERTY_REFRESH_DELAY, String.valueOf( refreshDelay ) );
+		properties.put( RUNDECK_MONITOR_PROPERTY_MAXIMUM_REFRESH_DELAY, String.valueOf( maximumRefreshDelay ) );
+		properties.put( RUNDECK_MONITOR_PROPERTY_CONNECT_TIMEOUT, String.valueOf( connectTimeout ) );
+		properties.put( RUNDECK_MONITOR_PROPERTY_READ_TIMEOUT, String.valueOf( readTimeout ) );
+		properties.put( RUNDECK_MONITOR_PROPERTY_WEBHOOK_PORT, String.valueOf( webhookPort ) );
+		properties.put( RUNDECK_MONITOR_PROPERTY_WEBHOOK_TOKEN, webhookToken );
+		properties.put( RUNDECK_MONITOR_PROPERTY_WEBHOOK_ADDRESS, webhookAddress );
+		properties.put( RUNDECK_MONITOR_PROPERTY_WEBHOOK_REFRESH_DELAY, String.valueOf( webhookRefreshDelay ) );
 		properties.put( RUNDECK_MONITOR_PROPERTY_EXECUTION_LATE_THRESHOLD, String.valueOf( lateThreshold ) );
 		properties.put( RUNDECK_MONITOR_PROPERTY_FAILED_JOB_NUMBER, String.valueOf( failedJobNumber ) );
 		properties.put( RUNDECK_MONITOR_PROPERTY_DATE_FORMAT, dateFormat );
@@ -242,6 +429,24 @@ public class RundeckMonitorConfiguration {
 		properties.put( RUNDECK_MONITOR_PROPERTY_DISABLE_VERSION_CHECKER, String.valueOf( versionCheckerDisabled ) );
 		properties.put( RUNDECK_MONITOR_PROPERTY_INTERFACE_TYPE, interfaceType );
 
+		//Additional rundeck servers are not edited by the wizard, keep them
+		if( ! additionalRundeckServers.isEmpty() ) {
+
+			final List<String> serverNames = new ArrayList<>();
+			for( final RundeckServerConfiguration rundeckServer : additionalRundeckServers ) {
+
+				final String serverName = rundeckServer.getName();
+				serverNames.add( serverName );
+				putIfNotNull( properties, getServerPropertyName( serverName, RUNDECK_MONITOR_PROPERTY_SERVER_URL ), rundeckServer.getRundeckUrl() );
+				putIfNotNull( properties, getServerPropertyName( serverName, RUNDECK_MONITOR_PROPERTY_SERVER_API_KEY ), rundeckServer.getRundeckAPIKey() );
+				putIfNotNull( properties, getServerPropertyName( serverName, RUNDECK_MONITOR_PROPERTY_SERVER_LOGIN ), rundeckServer.getRundeckLogin() );
+				putIfNotNull( properties, getServerPropertyName( serverName, RUNDECK_MONITOR_PROPERTY_SERVER_PASSWORD ), rundeckServer.getRundeckPassword() );
+				putIfNotNull( properties, getServerPropertyName( serverName, RUNDECK_MONITOR_PROPERTY_SERVER_PROJECT ), rundeckServer.getRundeckProject() );
+				properties.put( getServerPropertyName( serverName, RUNDECK_MONITOR_PROPERTY_SERVER_API_VERSION ), String.valueOf( rundeckServer.getRundeckAPIversion() ) );
+			}
+			properties.put( RUNDECK_MONITOR_PROPERTY_SERVERS, joinPropertyValues( serverNames ) );
+		}
+
 		//Comment header
 		final StringBuilder commentStringBuilder = new StringBuilder();
 		commentStringBuilder.append( "Generated by RundeckMonitor wizard at: " ); //$NON-NLS-1$
@@ -264,32 +469,93 @@ public class RundeckMonitorConfiguration {
 
 	public void disableVersionChecker() throws IOException {
 
+		checkNotFrozen();
 		versionCheckerDisabled = true;
 	}
 
-	public static boolean propertiesFileExists() {
+	/**
+	 * Freeze the configuration, it must be loaded and verified before
+	 *
+	 * @return this configuration
+	 */
+	public RundeckMonitorConfiguration freeze() {
 
-		final Path propertyFile = Paths.get( RUNDECK_MONITOR_PROPERTIES_FILE );
-		return Files.exists( propertyFile );
+		frozen = true;
+		return this;
 	}
 
-	public static boolean propertiesFileUpdated( final Date date ) {
+	public boolean isFrozen() {
+		return frozen;
+	}
 
-		final Path propertyFile = Paths.get( RUNDECK_MONITOR_PROPERTIES_FILE );
-		if( Files.exists( propertyFile ) ) {
+	/**
+	 * Get the changes of this configuration from a previous one
+	 *
+	 * @param previousConfiguration configuration replaced by this one
+	 * @return changed parts of the configuration, empty if nothing has changed
+	 */
+	public Set<ConfigurationChange> getChanges( final RundeckMonitorConfiguration previousConfiguration ) {
 
-			Date fileTime;
-			try {
-				fileTime = new Date( Files.getLastModifiedTime( propertyFile ).toMillis() );
-			}
-			catch( final IOException e ) {
-				return false;
+		final Set<ConfigurationChange> changes = EnumSet.noneOf( ConfigurationChange.class );
+
+		//The main server is named with the monitor name
+		final List<RundeckServerConfiguration> rundeckServers = getRundeckServers();
+		final List<RundeckServerConfiguration> previousRundeckServers = previousConfiguration.getRundeckServers();
+		if( rundeckServers.size() != previousRundeckServers.size() ) {
+			changes.add( ConfigurationChange.SERVERS );
+		}
+		else {
+			for( int i = 0 ; i < rundeckServers.size() ; i++ ) {
+
+				final RundeckServerConfiguration rundeckServer = rundeckServers.get( i );
+				final RundeckServerConfiguration previousRundeckServer = previousRundeckServers.get( i );
+				if( ! rundeckServer.isSameConnection( previousRundeckServer ) || ( i > 0 && ! rundeckServer.getName().equals( previousRundeckServer.getName() ) ) ) {
+					changes.add( ConfigurationChange.SERVERS );
+				}
 			}
+		}
 
-			return fileTime.after( date );
+		if( connectTimeout != previousConfiguration.connectTimeout || readTimeout != previousConfiguration.readTimeout ) {
+			changes.add( ConfigurationChange.TIMEOUTS );
+		}
+		if( refreshDelay != previousConfiguration.refreshDelay || maximumRefreshDelay != previousConfiguration.maximumRefreshDelay || webhookRefreshDelay != previousConfiguration.webhookRefreshDelay || lateThreshold != previousConfiguration.lateThreshold ) {
+			changes.add( ConfigurationChange.REFRESH );
+		}
+		if( webhookPort != previousConfiguration.webhookPort || ! Objects.equals( webhookToken, previousConfiguration.webhookToken ) || ! Objects.equals( webhookAddress, previousConfiguration.webhookAddress ) ) {
+			changes.add( ConfigurationChange.WEBHOOK );
+		}
+		if( failedJobNumber != previousConfiguration.failedJobNumber ) {
+			changes.add( ConfigurationChange.FAILED_JOB_NUMBER );
 		}
+		if( ! Objects.equals( dateFormat, previousConfiguration.dateFormat ) ) {
+			changes.add( ConfigurationChange.DATE_FORMAT );
+		}
+		if( ! Objects.equals( rundeckMonitorName, previousConfiguration.rundeckMonitorName ) ) {
+			changes.add( ConfigurationChange.MONITOR_NAME );
+		}
+		if( ! Objects.equals( jobTabRedirection, previousConfiguration.jobTabRedirection ) || ! Objects.equals( interfaceType, previousConfiguration.interfaceType ) || versionCheckerDisabled != previousConfiguration.versionCheckerDisabled ) {
+			changes.add( ConfigurationChange.OTHER );
+		}
+
+		return changes;
+	}
+
+	/**
+	 * Check that the configuration can be changed
+	 *
+	 * @throws IllegalStateException if the configuration is frozen
+	 */
+	private void checkNotFrozen() {
 
-		return false;
+		if( frozen ) {
+			throw new IllegalStateException( "Frozen configuration, edit a copy" ); //$NON-NLS-1$
+		}
+	}
+
+	public static boolean propertiesFileExists() {
+
+		final Path propertyFile = Paths.get( RUNDECK_MONITOR_PROPERTIES_FILE );
+		return Files.exists( propertyFile );
 	}
 
 	public String getRundeckUrl() {
@@ -312,6 +578,29 @@ public class RundeckMonitorConfiguration {
 		return rundeckProject;
 	}
 
+	/**
+	 * Get the list of the monitored projects
+	 *
+	 * @return names of the projects without duplicates
+	 */
+	public List<String> getRundeckProjects() {
+		return splitPropertyValues( rundeckProject );
+	}
+
+	/**
+	 * Get all the monitored rundeck servers, the first one is the main server
+	 *
+	 * @return configuration of each rundeck server
+	 */
+	public List<RundeckServerConfiguration> getRundeckServers() {
+
+		final List<RundeckServerConfiguration> rundeckServers = new ArrayList<>();
+		rundeckServers.add( new RundeckServerConfiguration( rundeckMonitorName, rundeckUrl, rundeckAPIKey, rundeckLogin, rundeckPassword, rundeckProject, rundeckAPIversion ) );
+		rundeckServers.addAll( additionalRundeckServers );
+
+		return rundeckServers;
+	}
+
 	public String getRundeckMonitorName() {
 		return rundeckMonitorName;
 	}
@@ -320,6 +609,44 @@ public class RundeckMonitorConfiguration {
 		return refreshDelay;
 	}
 
+	/**
+	 * Get the maximum refresh delay, never lower than the refresh delay
+	 *
+	 * @return maximum refresh delay in seconds
+	 */
+	public int getMaximumRefreshDelay() {
+		return Math.max( refreshDelay, maximumRefreshDelay );
+	}
+
+	public int getConnectTimeout() {
+		return connectTimeout;
+	}
+
+	public int getReadTimeout() {
+		return readTimeout;
+	}
+
+	public int getWebhookPort() {
+		return webhookPort;
+	}
+
+	public String getWebhookToken() {
+		return webhookToken;
+	}
+
+	public String getWebhookAddress() {
+		return webhookAddress;
+	}
+
+	/**
+	 * Get the reconciliation refresh delay used when the notifications receiver is enabled, never lower than the refresh delay
+	 *
+	 * @return reconciliation refresh delay in seconds
+	 */
+	public int getWebhookRefreshDelay() {
+		return Math.max( refreshDelay, webhookRefreshDelay );
+	}
+
 	public int getLateThreshold() {
 		return lateThreshold;
 	}
@@ -345,54 +672,107 @@ public class RundeckMonitorConfiguration {
 	}
 
 	public void setRundeckUrl( final String rundeckUrl ) {
+		checkNotFrozen();
 		this.rundeckUrl = rundeckUrl;
 	}
 
 	public void setRundeckAPIKey( final String rundeckPIKey ) {
+		checkNotFrozen();
 		this.rundeckAPIKey = rundeckPIKey;
 	}
 
 	public void setRundeckLogin( final String rundeckLogin ) {
+		checkNotFrozen();
 		this.rundeckLogin = rundeckLogin;
 	}
 
 	public void setRundeckPassword( final String rundeckPassword ) {
+		checkNotFrozen();
 		this.rundeckPassword = rundeckPassword;
 	}
 
 	public void setRundeckProject( final String rundeckProject ) {
+		checkNotFrozen();
 		this.rundeckProject = rundeckProject;
 	}
 
+	public void setRundeckProjects( final List<String> rundeckProjects ) {
+		checkNotFrozen();
+		this.rundeckProject = joinPropertyValues( rundeckProjects );
+	}
+
 	public void setRundeckMonitorName( final String rundeckMonitorName ) {
+		checkNotFrozen();
 		this.rundeckMonitorName = rundeckMonitorName;
 	}
 
 	public void setRefreshDelay( final int refreshDelay ) {
+		checkNotFrozen();
 		this.refreshDelay = refreshDelay;
 	}
 
+	public void setMaximumRefreshDelay( final int maximumRefreshDelay ) {
+		checkNotFrozen();
+		this.maximumRefreshDelay = maximumRefreshDelay;
+	}
+
+	public void setConnectTimeout( final int connectTimeout ) {
+		checkNotFrozen();
+		this.connectTimeout = connectTimeout;
+	}
+
+	public void setReadTimeout( final int readTimeout ) {
+		checkNotFrozen();
+		this.readTimeout = readTimeout;
+	}
+
+	public void setWebhookPort( final int webhookPort ) {
+		checkNotFrozen();
+		this.webhookPort = webhookPort;
+	}
+
+	public void setWebhookToken( final String webhookToken ) {
+		checkNotFrozen();
+		this.webhookToken = webhookToken;
+	}
+
+	public void setWebhookAddress( final String webhookAddress ) {
+		checkNotFrozen();
+		this.webhookAddress = webhookAddress;
+	}
+
+	public void setWebhookRefreshDelay( final int webhookRefreshDelay ) {
+		checkNotFrozen();
+		this.webhookRefreshDelay = webhookRefreshDelay;
+	}
+
 	public void setLateThreshold( final int lateThreshold ) {
+		checkNotFrozen();
 		this.lateThreshold = lateThreshold;
 	}
 
 	public void setFailedJobNumber( final int failedJobNumber ) {
+		checkNotFrozen();
 		this.failedJobNumber = failedJobNumber;
 	}
 
 	public void setDateFormat( final String dateFormat ) {
+		checkNotFrozen();
 		this.dateFormat = dateFormat;
 	}
 
 	public void setRundeckAPIversion( final int rundeckAPIversion ) {
+		checkNotFrozen();
 		this.rundeckAPIversion = rundeckAPIversion;
 	}
 
 	public void setJobTabRedirection( final String jobTabRedirection ) {
+		checkNotFrozen();
 		this.jobTabRedirection = jobTabRedirection;
 	}
 
 	public void setInterfaceType( final String interfaceType ) {
+		checkNotFrozen();
 		this.interfaceType = interfaceType;
 	}
 
@@ -0,0 +1,131 @@
+package com.github.sbugat.rundeckmonitor.configuration;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+import com.github.sbugat.rundeckmonitor.tools.NamedThreadFactory;
+
+/**
+ * Watcher of the configuration file: the listener is called when the file is created or modified
+ *
+ * The events of the configuration directory are received from the file system without polling the file,
+ * an editor writing the file several times triggers only one call when the events stop during the debounce delay.
+ * The listener is called by the watcher thread, the next changes are received after its end
+ *
+ * @author Sylvain Bugat
+ *
+ */
+public class RundeckMonitorConfigurationWatcher {
+
+	/**Delay in milliseconds without new event before calling the listener*/
+	private static final long DEBOUNCE_DELAY = 500L;
+
+	/**Configuration file name in the watched directory*/
+	private final Path propertyFileName;
+
+	private final WatchService watchService;
+
+	private final Runnable configurationListener;
+
+	/**
+	 * Start watching the configuration file
+	 *
+	 * @param configurationListenerArg listener called after each change of the configuration file
+	 * @throws IOException if the configuration directory cannot be watched
+	 */
+	public RundeckMonitorConfigurationWatcher( final Runnable configurationListenerArg ) throws IOException {
+
+		configurationListener = configurationListenerArg;
+
+		final Path propertyFile = Paths.get( RundeckMonitorConfiguration.RUNDECK_MONITOR_PROPERTIES_FILE ).toAbsolutePath();
+		propertyFileName = propertyFile.getFileName();
+
+		watchService = FileSystems.getDefault().newWatchService();
+		propertyFile.getParent().register( watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY );
+
+		new NamedThreadFactory( "rundeck-monitor-configuration-watcher" ).newThread( new Runnable() { //$NON-NLS-1$
+			@Override
+			@SuppressWarnings("synthetic-access")
+			public void run() {
+				watch();
+			}
+		} ).start();
+	}
+
+	/**
+	 * Stop watching the configuration file
+	 */
+	public void close() {
+
+		try {
+			watchService.close();
+		}
+		catch( final IOException e ) {
+
+			//The watcher thread ends anyway
+		}
+	}
+
+	/**
+	 * Wait for the configuration file changes until the watcher is closed
+	 */
+	private void watch() {
+
+		try {
+			while( ! Thread.currentThread().isInterrupted() ) {
+
+				//Wait for a change and then until the changes stop
+				WatchKey watchKey = watchService.take();
+				boolean configurationChanged = false;
+				while( null != watchKey ) {
+
+					configurationChanged |= isConfigurationEvent( watchKey );
+					watchKey = watchService.poll( DEBOUNCE_DELAY, TimeUnit.MILLISECONDS );
+				}
+
+				if( configurationChanged ) {
+
+					try {
+						configurationListener.run();
+					}
+					catch( final RuntimeException e ) {
+
+						//Keep watching the next changes
+					}
+				}
+			}
+		}
+		catch( final ClosedWatchServiceException | InterruptedException e ) {
+
+			//Watcher closed
+		}
+	}
+
+	/**
+	 * Check if the events of a key concern the configuration file and reset the key
+	 *
+	 * @param watchKey signaled key of the configuration directory
+	 * @return true if the configuration file has changed or if events have been lost
+	 */
+	private boolean isConfigurationEvent( final WatchKey watchKey ) {
+
+		boolean configurationEvent = false;
+		for( final WatchEvent<?> watchEvent : watchKey.pollEvents() ) {
+
+			if( StandardWatchEventKinds.OVERFLOW == watchEvent.kind() || propertyFileName.equals( watchEvent.context() ) ) {
+				configurationEvent = true;
+			}
+		}
+
+		watchKey.reset();
+		return configurationEvent;
+	}
+}
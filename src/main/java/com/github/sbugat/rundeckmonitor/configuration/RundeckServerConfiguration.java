@@ -0,0 +1,90 @@
+package com.github.sbugat.rundeckmonitor.configuration;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Configuration of a monitored rundeck server
+ *
+ * @author Sylvain Bugat
+ *
+ */
+public class RundeckServerConfiguration {
+
+	/**Name of the server displayed when several servers are monitored*/
+	private final String name;
+
+	private final String rundeckUrl;
+
+	private final String rundeckAPIKey;
+
+	private final String rundeckLogin;
+
+	private final String rundeckPassword;
+
+	/**Name of the rundeck project(s) to access, separated by a comma*/
+	private final String rundeckProject;
+
+	private final int rundeckAPIversion;
+
+	public RundeckServerConfiguration( final String nameArg, final String rundeckUrlArg, final String rundeckAPIKeyArg, final String rundeckLoginArg, final String rundeckPasswordArg, final String rundeckProjectArg, final int rundeckAPIversionArg ) {
+
+		name = nameArg;
+		rundeckUrl = rundeckUrlArg;
+		rundeckAPIKey = rundeckAPIKeyArg;
+		rundeckLogin = rundeckLoginArg;
+		rundeckPassword = rundeckPasswordArg;
+		rundeckProject = rundeckProjectArg;
+		rundeckAPIversion = rundeckAPIversionArg;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getRundeckUrl() {
+		return rundeckUrl;
+	}
+
+	public String getRundeckAPIKey() {
+		return rundeckAPIKey;
+	}
+
+	public String getRundeckLogin() {
+		return rundeckLogin;
+	}
+
+	public String getRundeckPassword() {
+		return rundeckPassword;
+	}
+
+	public String getRundeckProject() {
+		return rundeckProject;
+	}
+
+	/**
+	 * Get the list of the monitored projects of this server
+	 *
+	 * @return names of the projects without duplicates
+	 */
+	public List<String> getRundeckProjects() {
+		return RundeckMonitorConfiguration.splitPropertyValues( rundeckProject );
+	}
+
+	public int getRundeckAPIversion() {
+		return rundeckAPIversion;
+	}
+
+	/**
+	 * Check if another configuration connects to the same server with the same credentials and projects, the name is not compared
+	 *
+	 * @param rundeckServerConfiguration other server configuration
+	 * @return true if the server doesn't need to be reconnected
+	 */
+	public boolean isSameConnection( final RundeckServerConfiguration rundeckServerConfiguration ) {
+
+		return Objects.equals( rundeckUrl, rundeckServerConfiguration.rundeckUrl ) && Objects.equals( rundeckAPIKey, rundeckServerConfiguration.rundeckAPIKey )
+			&& Objects.equals( rundeckLogin, rundeckServerConfiguration.rundeckLogin ) && Objects.equals( rundeckPassword, rundeckServerConfiguration.rundeckPassword )
+			&& Objects.equals( rundeckProject, rundeckServerConfiguration.rundeckProject ) && rundeckAPIversion == rundeckServerConfiguration.rundeckAPIversion;
+	}
+}
@@ -0,0 +1,179 @@
+package com.github.sbugat.rundeckmonitor.tools;
+
+import java.util.Arrays;
+
+/**
+ * Set of primitive long values with a bounded capacity: when the set is full, the oldest added value is evicted
+ *
+ * Values are stored without boxing in an open addressing hash table and in a ring buffer keeping the insertion order,
+ * the set is synchronized because it is updated on the event dispatch thread and saved by the update tasks
+ *
+ * @author Sylvain Bugat
+ *
+ */
+public class BoundedLongSet {
+
+	/**Hash table of the values, a slot is used if the corresponding usedSlots entry is true*/
+	private final long[] slots;
+	private final boolean[] usedSlots;
+
+	/**Mask of the hash table size (power of 2)*/
+	private final int mask;
+
+	/**Values in insertion order, the oldest value is at the head index*/
+	private final long[] insertionOrder;
+	private int head;
+
+	private int size;
+
+	/**
+	 * Initialize an empty set
+	 *
+	 * @param capacity maximum number of values kept
+	 */
+	public BoundedLongSet( final int capacity ) {
+
+		if( capacity <= 0 ) {
+			throw new IllegalArgumentException( "Invalid capacity: " + capacity ); //$NON-NLS-1$
+		}
+
+		//Keep the hash table at most half full
+		final int tableSize = Integer.highestOneBit( capacity * 2 - 1 ) << 1;
+		slots = new long[ tableSize ];
+		usedSlots = new boolean[ tableSize ];
+		mask = tableSize - 1;
+
+		insertionOrder = new long[ capacity ];
+	}
+
+	/**
+	 * Add a value, the oldest value is evicted if the set is full
+	 *
+	 * @param value value to add
+	 * @return true if the value was not already in the set
+	 */
+	public synchronized boolean add( final long value ) {
+
+		int slot = hash( value );
+		while( usedSlots[ slot ] ) {
+
+			if( slots[ slot ] == value ) {
+				return false;
+			}
+			slot = ( slot + 1 ) & mask;
+		}
+
+		//Evict the oldest value
+		if( size == insertionOrder.length ) {
+
+			removeFromTable( insertionOrder[ head ] );
+			head = ( head + 1 ) % insertionOrder.length;
+			size--;
+
+			//The eviction can have moved the free slot
+			slot = hash( value );
+			while( usedSlots[ slot ] ) {
+				slot = ( slot + 1 ) & mask;
+			}
+		}
+
+		slots[ slot ] = value;
+		usedSlots[ slot ] = true;
+
+		insertionOrder[ ( head + size ) % insertionOrder.length ] = value;
+		size++;
+
+		return true;
+	}
+
+	/**
+	 * Check if a value is in the set
+	 *
+	 * @param value value to check
+	 * @return true if the value is in the set
+	 */
+	public synchronized boolean contains( final long value ) {
+
+		int slot = hash( value );
+		while( usedSlots[ slot ] ) {
+
+			if( slots[ slot ] == value ) {
+				return true;
+			}
+			slot = ( slot + 1 ) & mask;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Remove all values
+	 */
+	public synchronized void clear() {
+
+		Arrays.fill( usedSlots, false );
+		head = 0;
+		size = 0;
+	}
+
+	public synchronized int size() {
+		return size;
+	}
+
+	/**
+	 * Get all values
+	 *
+	 * @return values from the oldest to the most recent
+	 */
+	public synchronized long[] toArray() {
+
+		final long[] values = new long[ size ];
+		for( int i = 0 ; i < size ; i++ ) {
+			values[ i ] = insertionOrder[ ( head + i ) % insertionOrder.length ];
+		}
+
+		return values;
+	}
+
+	/**
+	 * Remove a value from the hash table, the following values of the same cluster are shifted back to keep them reachable
+	 *
+	 * @param value value to remove
+	 */
+	private void removeFromTable( final long value ) {
+
+		int slot = hash( value );
+		while( slots[ slot ] != value ) {
+			slot = ( slot + 1 ) & mask;
+		}
+
+		int freeSlot = slot;
+		slot = ( slot + 1 ) & mask;
+		while( usedSlots[ slot ] ) {
+
+			//Move the value if its ideal slot is not between the free slot and its current slot
+			final int idealSlot = hash( slots[ slot ] );
+			if( ( ( slot - idealSlot ) & mask ) >= ( ( slot - freeSlot ) & mask ) ) {
+
+				slots[ freeSlot ] = slots[ slot ];
+				freeSlot = slot;
+			}
+			slot = ( slot + 1 ) & mask;
+		}
+
+		usedSlots[ freeSlot ] = false;
+	}
+
+	/**
+	 * Get the ideal slot of a value, package visible for the tests
+	 *
+	 * @param value value to hash
+	 * @return slot index
+	 */
+	int hash( final long value ) {
+
+		//Mix the bits because execution identifiers are sequential
+		final long mixed = value * 0x9E3779B97F4A7C15L;
+		return (int) ( mixed ^ ( mixed >>> 32 ) ) & mask;
+	}
+}
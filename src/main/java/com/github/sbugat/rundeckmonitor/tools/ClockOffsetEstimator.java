@@ -0,0 +1,103 @@
+package com.github.sbugat.rundeckmonitor.tools;
+
+/**
+ * Continuous estimation of the clock offset between a server and the local computer
+ *
+ * Each response gives a sample: the server time is assumed to be taken in the middle of the round trip,
+ * samples are smoothed with an exponentially weighted moving average where slow round trips weigh less.
+ * A sample far from the estimation (computer sleep, NTP correction) replaces it instead of being smoothed
+ *
+ * @author Sylvain Bugat
+ *
+ */
+public class ClockOffsetEstimator {
+
+	/**Weight of a new sample with a usual round trip time*/
+	private static final double SMOOTHING_FACTOR = 0.2;
+
+	/**Minimum difference in milliseconds with the estimation to consider a sample as a clock step*/
+	private static final long STEP_THRESHOLD = 10_000L;
+
+	/**Indicate if at least one sample has been received*/
+	private boolean initialized;
+
+	/**Estimated server time minus local time in milliseconds*/
+	private double offset;
+
+	/**Smoothed round trip time in milliseconds*/
+	private double roundTripTime;
+
+	/**
+	 * Add a sample of the server time
+	 *
+	 * @param requestTime local time when the request was sent
+	 * @param responseTime local time when the response was received
+	 * @param serverTime server time of the response
+	 * @param serverTimeResolution resolution of the server time in milliseconds, the server time being truncated
+	 */
+	public synchronized void addSample( final long requestTime, final long responseTime, final long serverTime, final long serverTimeResolution ) {
+
+		final long sampleRoundTripTime = Math.max( 0L, responseTime - requestTime );
+		final double sample = serverTime + serverTimeResolution / 2.0 - ( requestTime + sampleRoundTripTime / 2.0 );
+
+		if( ! initialized || Math.abs( sample - offset ) > STEP_THRESHOLD + sampleRoundTripTime ) {
+
+			offset = sample;
+			roundTripTime = sampleRoundTripTime;
+			initialized = true;
+			return;
+		}
+
+		//No round trip time known after a restored offset
+		if( roundTripTime <= 0 ) {
+			roundTripTime = sampleRoundTripTime;
+		}
+
+		//The error of a sample is bounded by half of its round trip time
+		double weight = SMOOTHING_FACTOR;
+		if( sampleRoundTripTime > roundTripTime ) {
+			weight = SMOOTHING_FACTOR * Math.max( 1.0, roundTripTime ) / sampleRoundTripTime;
+		}
+
+		offset += weight * ( sample - offset );
+		roundTripTime += SMOOTHING_FACTOR * ( sampleRoundTripTime - roundTripTime );
+	}
+
+	/**
+	 * Restore a previously saved offset, ignored if a sample has already been added
+	 *
+	 * @param offsetArg server time minus local time in milliseconds
+	 */
+	public synchronized void restore( final long offsetArg ) {
+
+		if( initialized ) {
+			return;
+		}
+
+		offset = offsetArg;
+		roundTripTime = 0;
+		initialized = true;
+	}
+
+	public synchronized boolean isInitialized() {
+		return initialized;
+	}
+
+	/**
+	 * Get the estimated offset
+	 *
+	 * @return server time minus local time in milliseconds
+	 */
+	public synchronized long getOffset() {
+		return Math.round( offset );
+	}
+
+	/**
+	 * Get the smoothed round trip time of the samples
+	 *
+	 * @return round trip time in milliseconds
+	 */
+	public synchronized long getRoundTripTime() {
+		return Math.round( roundTripTime );
+	}
+}
@@ -0,0 +1,191 @@
+package com.github.sbugat.rundeckmonitor.tools;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * HTTP GET cache detecting unchanged responses: ETag and Last-Modified validators are sent when the server provides them,
+ * otherwise the response body is compared with a hash of the previous one
+ *
+ * Only the validators and the hash of the lasts responses are kept, not the responses
+ *
+ * @author Sylvain Bugat
+ *
+ */
+public class ConditionalRequestCache {
+
+	/**Maximum number of cached URL*/
+	private static final int MAXIMUM_ENTRIES = 64;
+
+	private static final String HASH_ALGORITHM = "SHA-1"; //$NON-NLS-1$
+
+	private static final String ETAG_HEADER = "ETag"; //$NON-NLS-1$
+	private static final String LAST_MODIFIED_HEADER = "Last-Modified"; //$NON-NLS-1$
+	private static final String IF_NONE_MATCH_HEADER = "If-None-Match"; //$NON-NLS-1$
+	private static final String IF_MODIFIED_SINCE_HEADER = "If-Modified-Since"; //$NON-NLS-1$
+
+	/**URL and request headers of a cached response: the same URL requested with other credentials is another response*/
+	private static final class CacheKey {
+
+		private final String url;
+		private final Map<String, String> requestHeaders;
+
+		CacheKey( final String urlArg, final Map<String, String> requestHeadersArg ) {
+			url = urlArg;
+			requestHeaders = requestHeadersArg;
+		}
+
+		@Override
+		public boolean equals( final Object object ) {
+
+			if( ! CacheKey.class.isInstance( object ) ) {
+				return false;
+			}
+
+			final CacheKey cacheKey = (CacheKey) object;
+			return url.equals( cacheKey.url ) && requestHeaders.equals( cacheKey.requestHeaders );
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * url.hashCode() + requestHeaders.hashCode();
+		}
+	}
+
+	/**Validators of a cached response*/
+	private static final class CacheEntry {
+
+		private final String eTag;
+		private final String lastModified;
+		private final byte[] bodyHash;
+
+		CacheEntry( final String eTagArg, final String lastModifiedArg, final byte[] bodyHashArg ) {
+			eTag = eTagArg;
+			lastModified = lastModifiedArg;
+			bodyHash = bodyHashArg;
+		}
+	}
+
+	/**Cached validators by URL and request headers, the least recently used one is removed first*/
+	private final Map<CacheKey, CacheEntry> cacheEntries = new LinkedHashMap<CacheKey, CacheEntry>( MAXIMUM_ENTRIES, 0.75f, true ) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry( final Entry<CacheKey, CacheEntry> eldest ) {
+			return size() > MAXIMUM_ENTRIES;
+		}
+	};
+
+	/**Transport of the requests*/
+	private final HttpTransport httpTransport;
+
+	/**Number of unchanged and changed responses*/
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * Initialize the cache
+	 *
+	 * @param httpTransportArg transport of the requests
+	 */
+	public ConditionalRequestCache( final HttpTransport httpTransportArg ) {
+
+		httpTransport = httpTransportArg;
+	}
+
+	/**
+	 * Execute a GET request
+	 *
+	 * @param url URL to get
+	 * @param requestHeaders additional request headers with the authentication, part of the cache key
+	 * @param conditional false to always get the response body
+	 * @param clockOffsetEstimator estimator sampled with the response date, can be null
+	 * @return response body, or null if the response is unchanged since the previous request of this URL with the same headers
+	 * @throws IOException in case of connection error or error status
+	 */
+	public byte[] get( final String url, final Map<String, String> requestHeaders, final boolean conditional, final ClockOffsetEstimator clockOffsetEstimator ) throws IOException {
+
+		final CacheKey cacheKey = new CacheKey( url, requestHeaders );
+		final CacheEntry cacheEntry;
+		synchronized( cacheEntries ) {
+			cacheEntry = cacheEntries.get( cacheKey );
+		}
+
+		final HttpURLConnection connection = httpTransport.open( url, requestHeaders );
+
+		if( conditional && null != cacheEntry ) {
+
+			if( null != cacheEntry.eTag ) {
+				connection.setRequestProperty( IF_NONE_MATCH_HEADER, cacheEntry.eTag );
+			}
+			if( null != cacheEntry.lastModified ) {
+				connection.setRequestProperty( IF_MODIFIED_SINCE_HEADER, cacheEntry.lastModified );
+			}
+		}
+
+		final int responseCode = httpTransport.connect( connection, clockOffsetEstimator );
+		if( HttpURLConnection.HTTP_NOT_MODIFIED == responseCode && conditional && null != cacheEntry ) {
+
+			hits.incrementAndGet();
+			return null;
+		}
+
+		if( responseCode < HttpURLConnection.HTTP_OK || responseCode >= HttpURLConnection.HTTP_MULT_CHOICE ) {
+
+			//Consume the error body to keep the connection reusable
+			HttpTransport.discardErrorBody( connection );
+			throw new IOException( "HTTP error " + responseCode + " on " + url ); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		final byte[] body = httpTransport.readBody( connection );
+		final byte[] bodyHash = hash( body );
+
+		synchronized( cacheEntries ) {
+			cacheEntries.put( cacheKey, new CacheEntry( connection.getHeaderField( ETAG_HEADER ), connection.getHeaderField( LAST_MODIFIED_HEADER ), bodyHash ) );
+		}
+
+		//Same response than the previous one without validators
+		if( conditional && null != cacheEntry && Arrays.equals( cacheEntry.bodyHash, bodyHash ) ) {
+
+			hits.incrementAndGet();
+			return null;
+		}
+
+		misses.incrementAndGet();
+		return body;
+	}
+
+	public long getHits() {
+		return hits.get();
+	}
+
+	public long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * Hash a response body
+	 *
+	 * @param body response body
+	 * @return hash of the body
+	 */
+	private static byte[] hash( final byte[] body ) {
+
+		try {
+			return MessageDigest.getInstance( HASH_ALGORITHM ).digest( body );
+		}
+		catch( final NoSuchAlgorithmException e ) {
+
+			//SHA-1 is available on all Java platforms
+			throw new IllegalStateException( e );
+		}
+	}
+}
@@ -0,0 +1,330 @@
+package com.github.sbugat.rundeckmonitor.tools;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * HTTP transport shared by the rundeck calls and the version checker
+ *
+ * Connections are kept alive and reused by the JDK connection cache as long as the responses are fully read and closed,
+ * responses are compressed with gzip or deflate when the server supports it
+ *
+ * @author Sylvain Bugat
+ *
+ */
+public class HttpTransport {
+
+	/**Maximum number of idle connections kept alive per server*/
+	private static final String MAXIMUM_CONNECTIONS_PROPERTY = "http.maxConnections"; //$NON-NLS-1$
+	private static final String MAXIMUM_CONNECTIONS = "10"; //$NON-NLS-1$
+
+	/**Default timeouts in seconds*/
+	public static final int DEFAULT_CONNECT_TIMEOUT = 30;
+	public static final int DEFAULT_READ_TIMEOUT = 60;
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private static final String ACCEPT_ENCODING_HEADER = "Accept-Encoding"; //$NON-NLS-1$
+	private static final String SUPPORTED_ENCODINGS = "gzip, deflate"; //$NON-NLS-1$
+	private static final String GZIP_ENCODING = "gzip"; //$NON-NLS-1$
+	private static final String DEFLATE_ENCODING = "deflate"; //$NON-NLS-1$
+
+	/**The Date header is truncated to the second*/
+	private static final String DATE_HEADER = "Date"; //$NON-NLS-1$
+	private static final long DATE_HEADER_RESOLUTION = 1000L;
+
+	static {
+		//Read once by the JDK connection cache, must be set before the first connection
+		if( null == System.getProperty( MAXIMUM_CONNECTIONS_PROPERTY ) ) {
+			System.setProperty( MAXIMUM_CONNECTIONS_PROPERTY, MAXIMUM_CONNECTIONS );
+		}
+	}
+
+	/**Timeouts in milliseconds, updated when the configuration is reloaded*/
+	private volatile int connectTimeout = DEFAULT_CONNECT_TIMEOUT * 1000;
+	private volatile int readTimeout = DEFAULT_READ_TIMEOUT * 1000;
+
+	/**Number of requests and their cumulated duration in milliseconds*/
+	private final AtomicLong requests = new AtomicLong();
+	private final AtomicLong requestsDuration = new AtomicLong();
+
+	/**Number of bytes received on the wire and after decompression*/
+	private final AtomicLong receivedBytes = new AtomicLong();
+	private final AtomicLong decodedBytes = new AtomicLong();
+
+	/**
+	 * Change the timeouts of the next requests
+	 *
+	 * @param connectTimeoutSeconds connection timeout in seconds
+	 * @param readTimeoutSeconds read timeout in seconds
+	 */
+	public void setTimeouts( final int connectTimeoutSeconds, final int readTimeoutSeconds ) {
+
+		connectTimeout = connectTimeoutSeconds * 1000;
+		readTimeout = readTimeoutSeconds * 1000;
+	}
+
+	/**
+	 * Apply the timeouts to a connection opened by another client
+	 *
+	 * @param connection connection to configure
+	 * @return configured connection
+	 */
+	public HttpURLConnection configure( final HttpURLConnection connection ) {
+
+		connection.setConnectTimeout( connectTimeout );
+		connection.setReadTimeout( readTimeout );
+		return connection;
+	}
+
+	/**
+	 * Open a GET connection accepting compressed responses
+	 *
+	 * @param url URL to get
+	 * @param requestHeaders additional request headers
+	 * @return opened connection, not yet connected
+	 * @throws IOException in case of invalid URL
+	 */
+	public HttpURLConnection open( final String url, final Map<String, String> requestHeaders ) throws IOException {
+
+		final HttpURLConnection connection = configure( (HttpURLConnection) new URL( url ).openConnection() );
+		connection.setRequestProperty( ACCEPT_ENCODING_HEADER, SUPPORTED_ENCODINGS );
+		for( final Entry<String, String> requestHeader : requestHeaders.entrySet() ) {
+			connection.setRequestProperty( requestHeader.getKey(), requestHeader.getValue() );
+		}
+
+		return connection;
+	}
+
+	/**
+	 * Send the request of a connection and wait for the response status
+	 *
+	 * @param connection opened connection
+	 * @return HTTP status of the response
+	 * @throws IOException in case of connection error
+	 */
+	public int connect( final HttpURLConnection connection ) throws IOException {
+
+		return connect( connection, null );
+	}
+
+	/**
+	 * Send the request of a connection, wait for the response status and sample the server clock with the Date header
+	 *
+	 * @param connection opened connection
+	 * @param clockOffsetEstimator estimator of the server clock offset, can be null
+	 * @return HTTP status of the response
+	 * @throws IOException in case of connection error
+	 */
+	public int connect( final HttpURLConnection connection, final ClockOffsetEstimator clockOffsetEstimator ) throws IOException {
+
+		final long startTime = System.currentTimeMillis();
+		final int responseCode;
+		try {
+			responseCode = connection.getResponseCode();
+		}
+		finally {
+			requests.incrementAndGet();
+			requestsDuration.addAndGet( System.currentTimeMillis() - startTime );
+		}
+
+		final long endTime = System.currentTimeMillis();
+		if( null != clockOffsetEstimator ) {
+
+			final long serverTime = connection.getHeaderFieldDate( DATE_HEADER, 0L );
+			if( serverTime > 0L ) {
+				clockOffsetEstimator.addSample( startTime, endTime, serverTime, DATE_HEADER_RESOLUTION );
+			}
+		}
+
+		return responseCode;
+	}
+
+	/**
+	 * Get the decoded response stream of a connection, the stream must be fully read and closed to reuse the connection
+	 *
+	 * @param connection opened connection
+	 * @return decoded response stream
+	 * @throws IOException in case of connection error
+	 */
+	public InputStream getInputStream( final HttpURLConnection connection ) throws IOException {
+
+		final InputStream wireInputStream = new CountingInputStream( connection.getInputStream(), receivedBytes );
+
+		final String contentEncoding = connection.getContentEncoding();
+		final InputStream decodedInputStream;
+		if( GZIP_ENCODING.equalsIgnoreCase( contentEncoding ) ) {
+			decodedInputStream = new GZIPInputStream( wireInputStream, BUFFER_SIZE );
+		}
+		else if( DEFLATE_ENCODING.equalsIgnoreCase( contentEncoding ) ) {
+			//Most servers send raw deflate data instead of the zlib format
+			decodedInputStream = new InflaterInputStream( wireInputStream, new Inflater( ! hasZlibHeader( wireInputStream ) ), BUFFER_SIZE );
+		}
+		else {
+			decodedInputStream = wireInputStream;
+		}
+
+		return new CountingInputStream( decodedInputStream, decodedBytes );
+	}
+
+	/**
+	 * Read the whole decoded response of a connection and close it
+	 *
+	 * @param connection opened connection
+	 * @return decoded response body
+	 * @throws IOException in case of connection error
+	 */
+	public byte[] readBody( final HttpURLConnection connection ) throws IOException {
+
+		return readAndClose( getInputStream( connection ) );
+	}
+
+	/**
+	 * Read and close the error response of a connection to keep it reusable
+	 *
+	 * @param connection opened connection with an error status
+	 * @throws IOException in case of connection error
+	 */
+	public static void discardErrorBody( final HttpURLConnection connection ) throws IOException {
+
+		final InputStream errorStream = connection.getErrorStream();
+		if( null != errorStream ) {
+			readAndClose( errorStream );
+		}
+	}
+
+	public long getRequests() {
+		return requests.get();
+	}
+
+	public long getRequestsDuration() {
+		return requestsDuration.get();
+	}
+
+	public long getReceivedBytes() {
+		return receivedBytes.get();
+	}
+
+	public long getDecodedBytes() {
+		return decodedBytes.get();
+	}
+
+	/**
+	 * Check if a deflate stream starts with a zlib header without consuming it
+	 *
+	 * @param inputStream stream supporting mark
+	 * @return true if the stream has a zlib header
+	 * @throws IOException in case of reading error
+	 */
+	private static boolean hasZlibHeader( final InputStream inputStream ) throws IOException {
+
+		inputStream.mark( 2 );
+		final int firstByte = inputStream.read();
+		final int secondByte = inputStream.read();
+		inputStream.reset();
+
+		//Compression method 8 and header checksum multiple of 31
+		return firstByte >= 0 && secondByte >= 0 && 8 == ( firstByte & 0x0F ) && 0 == ( ( firstByte << 8 ) | secondByte ) % 31;
+	}
+
+	/**
+	 * Read a stream until its end and close it
+	 *
+	 * @param inputStream stream to read
+	 * @return read bytes
+	 * @throws IOException in case of reading error
+	 */
+	private static byte[] readAndClose( final InputStream inputStream ) throws IOException {
+
+		final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+
+		try( final InputStream autoClosedInputStream = inputStream ) {
+
+			final byte[] buffer = new byte[ BUFFER_SIZE ];
+			int readBytes = autoClosedInputStream.read( buffer );
+			while( readBytes >= 0 ) {
+
+				byteArrayOutputStream.write( buffer, 0, readBytes );
+				readBytes = autoClosedInputStream.read( buffer );
+			}
+		}
+
+		return byteArrayOutputStream.toByteArray();
+	}
+
+	/**
+	 * Buffered stream counting the read bytes
+	 */
+	private static final class CountingInputStream extends FilterInputStream {
+
+		private final AtomicLong counter;
+
+		private long markedCount;
+		private long count;
+
+		CountingInputStream( final InputStream inputStream, final AtomicLong counterArg ) {
+			super( new BufferedInputStream( inputStream, BUFFER_SIZE ) );
+			counter = counterArg;
+		}
+
+		@Override
+		public int read() throws IOException {
+
+			final int readByte = super.read();
+			if( readByte >= 0 ) {
+				count( 1 );
+			}
+			return readByte;
+		}
+
+		@Override
+		public int read( final byte[] buffer, final int offset, final int length ) throws IOException {
+
+			final int readBytes = super.read( buffer, offset, length );
+			if( readBytes > 0 ) {
+				count( readBytes );
+			}
+			return readBytes;
+		}
+
+		@Override
+		public long skip( final long length ) throws IOException {
+
+			final long skippedBytes = super.skip( length );
+			count( skippedBytes );
+			return skippedBytes;
+		}
+
+		@Override
+		public synchronized void mark( final int readLimit ) {
+
+			super.mark( readLimit );
+			markedCount = count;
+		}
+
+		@Override
+		public synchronized void reset() throws IOException {
+
+			super.reset();
+			counter.addAndGet( markedCount - count );
+			count = markedCount;
+		}
+
+		private void count( final long readBytes ) {
+
+			count += readBytes;
+			counter.addAndGet( readBytes );
+		}
+	}
+}
@@ -0,0 +1,39 @@
+package com.github.sbugat.rundeckmonitor.tools;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread factory creating named threads, daemon by default because background threads must not prevent the monitor to exit
+ *
+ * @author Sylvain Bugat
+ *
+ */
+public class NamedThreadFactory implements ThreadFactory {
+
+	/**Prefix of the created threads name*/
+	private final String threadNamePrefix;
+
+	/**Indicate if the created threads are daemon threads*/
+	private final boolean daemon;
+
+	/**Number of created threads*/
+	private final AtomicInteger threadNumber = new AtomicInteger();
+
+	public NamedThreadFactory( final String threadNamePrefixArg ) {
+		this( threadNamePrefixArg, true );
+	}
+
+	public NamedThreadFactory( final String threadNamePrefixArg, final boolean daemonArg ) {
+		threadNamePrefix = threadNamePrefixArg;
+		daemon = daemonArg;
+	}
+
+	@Override
+	public Thread newThread( final Runnable runnable ) {
+
+		final Thread thread = new Thread( runnable, threadNamePrefix + '-' + threadNumber.incrementAndGet() );
+		thread.setDaemon( daemon );
+		return thread;
+	}
+}
@@ -0,0 +1,81 @@
+package com.github.sbugat.rundeckmonitor.tools;
+
+/**
+ * Token bucket rate limiter: a burst of actions is allowed up to the capacity, then one action per refill interval
+ *
+ * @author Sylvain Bugat
+ *
+ */
+public class TokenBucket {
+
+	/**Maximum number of tokens*/
+	private final int capacity;
+
+	/**Delay in milliseconds to add one token*/
+	private final long refillInterval;
+
+	/**Available tokens, a partial token is refilled progressively*/
+	private double tokens;
+
+	/**Time of the last refill in nanoseconds*/
+	private long lastRefillTime;
+
+	/**
+	 * Initialize a full bucket
+	 *
+	 * @param capacityArg maximum number of tokens
+	 * @param refillIntervalArg delay in milliseconds to add one token
+	 */
+	public TokenBucket( final int capacityArg, final long refillIntervalArg ) {
+
+		if( capacityArg <= 0 || refillIntervalArg <= 0 ) {
+			throw new IllegalArgumentException( "Invalid token bucket: " + capacityArg + '/' + refillIntervalArg ); //$NON-NLS-1$
+		}
+
+		capacity = capacityArg;
+		refillInterval = refillIntervalArg;
+		tokens = capacityArg;
+		lastRefillTime = System.nanoTime();
+	}
+
+	/**
+	 * Take a token if one is available
+	 *
+	 * @return true if a token has been taken
+	 */
+	public synchronized boolean tryAcquire() {
+
+		refill();
+		if( tokens < 1 ) {
+			return false;
+		}
+
+		tokens--;
+		return true;
+	}
+
+	/**
+	 * Get the delay before a token is available
+	 *
+	 * @return delay in milliseconds, 0 if a token is available
+	 */
+	public synchronized long getWaitTime() {
+
+		refill();
+		if( tokens >= 1 ) {
+			return 0L;
+		}
+
+		return (long) Math.ceil( ( 1 - tokens ) * refillInterval );
+	}
+
+	/**
+	 * Add the tokens refilled since the last refill
+	 */
+	private void refill() {
+
+		final long now = System.nanoTime();
+		tokens = Math.min( capacity, tokens + ( now - lastRefillTime ) / 1_000_000.0 / refillInterval );
+		lastRefillTime = now;
+	}
+}
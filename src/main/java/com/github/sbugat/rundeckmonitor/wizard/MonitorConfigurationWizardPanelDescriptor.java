@@ -11,8 +11,6 @@ import javax.swing.JComboBox;
 import javax.swing.JLabel;
 import javax.swing.JTextField;
 
-import org.rundeck.api.RundeckClient;
-import org.rundeck.api.RundeckClientBuilder;
 
 import com.github.sbugat.rundeckmonitor.configuration.RundeckMonitorConfiguration;
 import com.github.sbugat.rundeckmonitor.tools.EnvironmentTools;
@@ -24,18 +22,28 @@ public class MonitorConfigurationWizardPanelDescriptor extends WizardPanelDescri
 
 	final JTextField rundeckMonitorName = new JTextField( 20 );
 	final JComboBox<RefreshDelay> rundeckMonitorRefreshDelay = new JComboBox<>();
+	final JComboBox<RefreshDelay> rundeckMonitorMaximumRefreshDelay = new JComboBox<>();
 	final JComboBox<LateExecutionThreshold> rundeckMonitorLateExecutionThreshold = new JComboBox<>();
 	final JComboBox<FailedJobsNumber> rundeckMonitorFailedJobNumber = new JComboBox<>();
 	final JComboBox<DateFormat> rundeckMonitorDateFormat = new JComboBox<>();
 	final JComboBox<JobTabRedirection> rundeckMonitorJobTabRedirection = new JComboBox<>();
 	final JComboBox<InterfaceType> rundeckMonitorInterfaceType = new JComboBox<>();
 
-	public MonitorConfigurationWizardPanelDescriptor( final ConfigurationWizardStep panelIdentifierArg, final ConfigurationWizardStep backArg, final ConfigurationWizardStep nextArg, final RundeckMonitorConfiguration rundeckMonitorConfigurationArg ) {
+	/**Rundeck client shared by the wizard steps*/
+	private final RundeckWizardClient rundeckWizardClient;
+
+	/**Version of the rundeck server, loaded before displaying the panel*/
+	private String rundeckVersion;
+
+	public MonitorConfigurationWizardPanelDescriptor( final ConfigurationWizardStep panelIdentifierArg, final ConfigurationWizardStep backArg, final ConfigurationWizardStep nextArg, final RundeckMonitorConfiguration rundeckMonitorConfigurationArg, final RundeckWizardClient rundeckWizardClientArg ) {
 		super( panelIdentifierArg, backArg, nextArg, rundeckMonitorConfigurationArg );
 
+		rundeckWizardClient = rundeckWizardClientArg;
+
 		container.setLayout( layout );
 		final JLabel rundeckMonitorNameLabel = new JLabel( "Tray-icon monitor name:" ); //$NON-NLS-1$
 		final JLabel rundeckMonitorRefreshDelayLabel = new JLabel( "Failed/late jobs refresh delay:" ); //$NON-NLS-1$
+		final JLabel rundeckMonitorMaximumRefreshDelayLabel = new JLabel( "Maximum refresh delay when idle:" ); //$NON-NLS-1$
 		final JLabel rundeckMonitorLateExecutionThresholdLabel = new JLabel( "Late execution detection threshold:" ); //$NON-NLS-1$
 		final JLabel rundeckMonitorFailedJobNumberLabel = new JLabel( "Number of failed/late jobs to display:" ); //$NON-NLS-1$
 		final JLabel rundeckMonitorDateFormatLabel = new JLabel( "Failed/late jobs displayed date format:" ); //$NON-NLS-1$
@@ -66,6 +74,22 @@ public class MonitorConfigurationWizardPanelDescriptor extends WizardPanelDescri
 			rundeckMonitorRefreshDelay.setSelectedItem( RefreshDelay.REFRESH_DELAY_1M );
 		}
 
+		RefreshDelay oldConfiguredMaximumRefreshDelay = null;
+		for( final RefreshDelay refreshDelay : RefreshDelay.values() ) {
+
+			rundeckMonitorMaximumRefreshDelay.addItem( refreshDelay );
+			if( refreshDelay.getDelay() == rundeckMonitorConfiguration.getMaximumRefreshDelay() ) {
+				oldConfiguredMaximumRefreshDelay = refreshDelay;
+			}
+		}
+
+		if( null != oldConfiguredMaximumRefreshDelay ) {
+			rundeckMonitorMaximumRefreshDelay.setSelectedItem( oldConfiguredMaximumRefreshDelay );
+		}
+		else {
+			rundeckMonitorMaximumRefreshDelay.setSelectedItem( rundeckMonitorRefreshDelay.getSelectedItem() );
+		}
+
 		LateExecutionThreshold oldLateExecutionThreshold = null;
 		for( final LateExecutionThreshold lateExecutionThreshold : LateExecutionThreshold.values() ) {
 
@@ -182,30 +206,36 @@ public class MonitorConfigurationWizardPanelDescriptor extends WizardPanelDescri
 
 		gridBagConstraits.gridx=0;
 		gridBagConstraits.gridy=2;
+		container.add( rundeckMonitorMaximumRefreshDelayLabel, gridBagConstraits );
+		gridBagConstraits.gridx=1;
+		container.add( rundeckMonitorMaximumRefreshDelay, gridBagConstraits );
+
+		gridBagConstraits.gridx=0;
+		gridBagConstraits.gridy=3;
 		container.add( rundeckMonitorLateExecutionThresholdLabel, gridBagConstraits );
 		gridBagConstraits.gridx=1;
 		container.add( rundeckMonitorLateExecutionThreshold, gridBagConstraits );
 
 		gridBagConstraits.gridx=0;
-		gridBagConstraits.gridy=3;
+		gridBagConstraits.gridy=4;
 		container.add( rundeckMonitorFailedJobNumberLabel, gridBagConstraits );
 		gridBagConstraits.gridx=1;
 		container.add( rundeckMonitorFailedJobNumber, gridBagConstraits );
 
 		gridBagConstraits.gridx=0;
-		gridBagConstraits.gridy=4;
+		gridBagConstraits.gridy=5;
 		container.add( rundeckMonitorDateFormatLabel, gridBagConstraits );
 		gridBagConstraits.gridx=1;
 		container.add( rundeckMonitorDateFormat, gridBagConstraits );
 
 		gridBagConstraits.gridx=0;
-		gridBagConstraits.gridy=5;
+		gridBagConstraits.gridy=6;
 		container.add( rundeckMonitorJobTabRedirectionLabel, gridBagConstraits );
 		gridBagConstraits.gridx=1;
 		container.add( rundeckMonitorJobTabRedirection, gridBagConstraits );
 
 		gridBagConstraits.gridx=0;
-		gridBagConstraits.gridy=6;
+		gridBagConstraits.gridy=7;
 		container.add( rundeckMonitorInterfaceTypeLabel, gridBagConstraits );
 		gridBagConstraits.gridx=1;
 		container.add( rundeckMonitorInterfaceType, gridBagConstraits );
@@ -217,25 +247,13 @@ public class MonitorConfigurationWizardPanelDescriptor extends WizardPanelDescri
 		return container;
 	}
 
-	public void aboutToDisplayPanel() {
+	public void loadPanel() {
 
-		final RundeckClientBuilder rundeckClientBuilder;
-		final String rundeckUrl = rundeckMonitorConfiguration.getRundeckUrl();
-		if( ! rundeckMonitorConfiguration.getRundeckAPIKey().isEmpty() ) {
-			rundeckClientBuilder = RundeckClient.builder().url( rundeckUrl ).token( rundeckMonitorConfiguration.getRundeckAPIKey() );
-		}
-		else {
-			rundeckClientBuilder = RundeckClient.builder().url( rundeckUrl ).login( rundeckMonitorConfiguration.getRundeckLogin(), rundeckMonitorConfiguration.getRundeckPassword() );
-		}
-
-		//Initialize the rundeck client with the minimal rundeck version (1)
-		final RundeckClient rundeckClient = rundeckClientBuilder.version(1).build();
-
-		//Test authentication credentials
-		rundeckClient.ping();
-		rundeckClient.testAuth();
+		rundeckWizardClient.authenticate();
+		rundeckVersion = rundeckWizardClient.getSystemInfo().getVersion();
+	}
 
-		final String rundeckVersion = rundeckClient.getSystemInfo().getVersion();
+	public void aboutToDisplayPanel() {
 
 		JobTabRedirection oldJobTabRedirection = null;
 		rundeckMonitorJobTabRedirection.removeAllItems();
@@ -262,6 +280,7 @@ public class MonitorConfigurationWizardPanelDescriptor extends WizardPanelDescri
 
 		rundeckMonitorConfiguration.setRundeckMonitorName( rundeckMonitorName.getText() );
 		rundeckMonitorConfiguration.setRefreshDelay( rundeckMonitorRefreshDelay.getItemAt( rundeckMonitorRefreshDelay.getSelectedIndex() ).getDelay() );
+		rundeckMonitorConfiguration.setMaximumRefreshDelay( rundeckMonitorMaximumRefreshDelay.getItemAt( rundeckMonitorMaximumRefreshDelay.getSelectedIndex() ).getDelay() );
 		rundeckMonitorConfiguration.setLateThreshold( rundeckMonitorLateExecutionThreshold.getItemAt( rundeckMonitorLateExecutionThreshold.getSelectedIndex() ).getThreshold() );
 		rundeckMonitorConfiguration.setFailedJobNumber( rundeckMonitorFailedJobNumber.getItemAt( rundeckMonitorFailedJobNumber.getSelectedIndex() ).getFailedJobsNumber() );
 		rundeckMonitorConfiguration.setDateFormat( rundeckMonitorDateFormat.getItemAt( rundeckMonitorDateFormat.getSelectedIndex() ).getDateFormat() );
@@ -5,31 +5,50 @@ import java.awt.Container;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.Insets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
+import javax.swing.DefaultListModel;
 import javax.swing.JComboBox;
 import javax.swing.JLabel;
+import javax.swing.JList;
 import javax.swing.JOptionPane;
+import javax.swing.JScrollPane;
+import javax.swing.ListSelectionModel;
 
-import org.rundeck.api.RundeckClient;
-import org.rundeck.api.RundeckClientBuilder;
 import org.rundeck.api.domain.RundeckProject;
 
 import com.github.sbugat.rundeckmonitor.configuration.RundeckMonitorConfiguration;
 
 public class ProjectConfigurationWizardPanelDescriptor extends WizardPanelDescriptor {
 
+	/**Number of visible projects in the projects list*/
+	private static final int VISIBLE_PROJECTS = 5;
+
 	final Container container = new Container();
 	final GridBagLayout layout = new GridBagLayout();
 
-	final JComboBox<String> rundeckProjectNameTextField = new JComboBox<>();
+	final DefaultListModel<String> rundeckProjectNames = new DefaultListModel<>();
+	final JList<String> rundeckProjectNameList = new JList<>( rundeckProjectNames );
 
 	final JComboBox<RundeckAPIVersion> rundeckRundeckAPIVersionTextField = new JComboBox<>();
 
-	public ProjectConfigurationWizardPanelDescriptor( final ConfigurationWizardStep panelIdentifierArg, final ConfigurationWizardStep backArg, final ConfigurationWizardStep nextArg, final RundeckMonitorConfiguration rundeckMonitorConfigurationArg ) {
+	/**Rundeck client shared by the wizard steps*/
+	private final RundeckWizardClient rundeckWizardClient;
+
+	/**Projects and version of the rundeck server, loaded before displaying the panel*/
+	private List<RundeckProject> rundeckProjects;
+	private String rundeckVersion;
+
+	public ProjectConfigurationWizardPanelDescriptor( final ConfigurationWizardStep panelIdentifierArg, final ConfigurationWizardStep backArg, final ConfigurationWizardStep nextArg, final RundeckMonitorConfiguration rundeckMonitorConfigurationArg, final RundeckWizardClient rundeckWizardClientArg ) {
 		super( panelIdentifierArg, backArg, nextArg, rundeckMonitorConfigurationArg );
 
+		rundeckWizardClient = rundeckWizardClientArg;
+
 		container.setLayout( layout );
-		final JLabel rundeckProjectlabel = new JLabel( "Rundeck project:" ); //$NON-NLS-1$
+		final JLabel rundeckProjectlabel = new JLabel( "Rundeck project(s):" ); //$NON-NLS-1$
 		final JLabel rundeckApiVersionlabel = new JLabel( "Rundeck API version:" ); //$NON-NLS-1$
 
 		final GridBagConstraints gridBagConstraits = new GridBagConstraints();
@@ -41,7 +60,9 @@ public class ProjectConfigurationWizardPanelDescriptor extends WizardPanelDescri
 		gridBagConstraits.gridy=0;
 		container.add( rundeckProjectlabel, gridBagConstraits );
 		gridBagConstraits.gridx=1;
-		container.add( rundeckProjectNameTextField, gridBagConstraits );
+		rundeckProjectNameList.setSelectionMode( ListSelectionModel.MULTIPLE_INTERVAL_SELECTION );
+		rundeckProjectNameList.setVisibleRowCount( VISIBLE_PROJECTS );
+		container.add( new JScrollPane( rundeckProjectNameList ), gridBagConstraits );
 
 		gridBagConstraits.gridx=0;
 		gridBagConstraits.gridy=1;
@@ -56,43 +77,41 @@ public class ProjectConfigurationWizardPanelDescriptor extends WizardPanelDescri
 		return container;
 	}
 
-	public void aboutToDisplayPanel() {
-
-		final RundeckClientBuilder rundeckClientBuilder;
-		final String rundeckUrl = rundeckMonitorConfiguration.getRundeckUrl();
-		if( ! rundeckMonitorConfiguration.getRundeckAPIKey().isEmpty() ) {
-			rundeckClientBuilder = RundeckClient.builder().url( rundeckUrl ).token( rundeckMonitorConfiguration.getRundeckAPIKey() );
-		}
-		else {
-			rundeckClientBuilder = RundeckClient.builder().url( rundeckUrl ).login( rundeckMonitorConfiguration.getRundeckLogin(), rundeckMonitorConfiguration.getRundeckPassword() );
-		}
+	public void loadPanel() {
 
-		//Initialize the rundeck client with the minimal rundeck version (1)
-		final RundeckClient rundeckClient = rundeckClientBuilder.version(1).build();
+		rundeckWizardClient.authenticate();
+		rundeckProjects = rundeckWizardClient.getProjects();
+		rundeckVersion = rundeckWizardClient.getSystemInfo().getVersion();
+	}
 
-		//Test authentication credentials
-		rundeckClient.ping();
-		rundeckClient.testAuth();
+	public void aboutToDisplayPanel() {
 
-		rundeckProjectNameTextField.removeAllItems();
-		//Check if the configured project exists
-		boolean existingOldConfiguredProject = false;
-		for( final RundeckProject rundeckProject: rundeckClient.getProjects() ) {
+		rundeckProjectNames.clear();
+		//Select the configured projects if they still exist
+		final List<String> configuredProjects = rundeckMonitorConfiguration.getRundeckProjects();
+		final List<Integer> selectedIndices = new ArrayList<>();
+		for( final RundeckProject rundeckProject: rundeckProjects ) {
 
 			final String currentProjectName = rundeckProject.getName();
-			rundeckProjectNameTextField.addItem( currentProjectName );
+			rundeckProjectNames.addElement( currentProjectName );
 
-			if( ! currentProjectName.isEmpty() && currentProjectName.equals( rundeckMonitorConfiguration.getRundeckProject() ) ) {
+			if( ! currentProjectName.isEmpty() && configuredProjects.contains( currentProjectName ) ) {
 
-				existingOldConfiguredProject = true;
+				selectedIndices.add( Integer.valueOf( rundeckProjectNames.size() - 1 ) );
 			}
 		}
 
-		if( existingOldConfiguredProject ) {
-			rundeckProjectNameTextField.setSelectedItem( rundeckMonitorConfiguration.getRundeckProject() );
-		}
+		if( ! selectedIndices.isEmpty() ) {
 
-		final String rundeckVersion = rundeckClient.getSystemInfo().getVersion();
+			final int[] indices = new int[ selectedIndices.size() ];
+			for( int i = 0 ; i < indices.length ; i++ ) {
+				indices[ i ] = selectedIndices.get( i ).intValue();
+			}
+			rundeckProjectNameList.setSelectedIndices( indices );
+		}
+		else if( ! rundeckProjectNames.isEmpty() ) {
+			rundeckProjectNameList.setSelectedIndex( 0 );
+		}
 
 		rundeckRundeckAPIVersionTextField.removeAllItems();
 		RundeckAPIVersion oldApiVersion = null;
@@ -121,42 +140,33 @@ public class ProjectConfigurationWizardPanelDescriptor extends WizardPanelDescri
 
 	public boolean validate() {
 
-		final RundeckClientBuilder rundeckClientBuilder;
-		final String rundeckUrl = rundeckMonitorConfiguration.getRundeckUrl();
-		if( ! rundeckMonitorConfiguration.getRundeckAPIKey().isEmpty() ) {
-			rundeckClientBuilder = RundeckClient.builder().url( rundeckUrl ).token( rundeckMonitorConfiguration.getRundeckAPIKey() );
-		}
-		else {
-			rundeckClientBuilder = RundeckClient.builder().url( rundeckUrl ).login( rundeckMonitorConfiguration.getRundeckLogin(), rundeckMonitorConfiguration.getRundeckPassword() );
+		final List<String> selectedProjects = rundeckProjectNameList.getSelectedValuesList();
+		if( selectedProjects.isEmpty() ) {
+			JOptionPane.showMessageDialog( null, "No rundeck project selected," + System.lineSeparator() + "select at least one project.", "RundeckMonitor wizard error", JOptionPane.ERROR_MESSAGE ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			return false;
 		}
 
-		final RundeckAPIVersion apiVersion = rundeckRundeckAPIVersionTextField.getItemAt( rundeckRundeckAPIVersionTextField.getSelectedIndex() );
-
-		//Initialize the rundeck client
-		final RundeckClient rundeckClient = rundeckClientBuilder.version( apiVersion.getVersion() ).build();
+		rundeckMonitorConfiguration.setRundeckProjects( selectedProjects );
+		rundeckMonitorConfiguration.setRundeckAPIversion( rundeckRundeckAPIVersionTextField.getItemAt( rundeckRundeckAPIVersionTextField.getSelectedIndex() ).getVersion().getVersionNumber() );
 
-		//Test authentication credentials
-		rundeckClient.ping();
-		rundeckClient.testAuth();
+		return true;
+	}
 
-		//Check if the configured project exists
-		boolean existingProject = false;
-		for( final RundeckProject rundeckProject: rundeckClient.getProjects() ) {
+	public String verify() {
 
-			if( rundeckProjectNameTextField.getSelectedItem().equals( rundeckProject.getName() ) ) {
-				existingProject = true;
-				break;
-			}
+		//Check if the selected projects still exist
+		final Set<String> existingProjects = new HashSet<>();
+		for( final RundeckProject rundeckProject: rundeckWizardClient.getProjects() ) {
+			existingProjects.add( rundeckProject.getName() );
 		}
 
-		if( ! existingProject ) {
-			JOptionPane.showMessageDialog( null, "Unknown rundeck project," + System.lineSeparator() + "check and change this poject name:" + System.lineSeparator() + '"' + rundeckProjectNameTextField.getSelectedItem() + "\".", "RundeckMonitor wizard error", JOptionPane.ERROR_MESSAGE ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
-			return false;
-		}
+		for( final String selectedProject : rundeckMonitorConfiguration.getRundeckProjects() ) {
 
-		rundeckMonitorConfiguration.setRundeckProject( rundeckProjectNameTextField.getItemAt( rundeckProjectNameTextField.getSelectedIndex() ) );
-		rundeckMonitorConfiguration.setRundeckAPIversion( rundeckRundeckAPIVersionTextField.getItemAt( rundeckRundeckAPIVersionTextField.getSelectedIndex() ).getVersion().getVersionNumber() );
+			if( ! existingProjects.contains( selectedProject ) ) {
+				return "Unknown rundeck project," + System.lineSeparator() + "check and change this poject name:" + System.lineSeparator() + '"' + selectedProject + "\"."; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			}
+		}
 
-		return true;
+		return null;
 	}
 }
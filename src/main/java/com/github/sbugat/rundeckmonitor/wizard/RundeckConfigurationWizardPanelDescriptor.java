@@ -16,8 +16,6 @@ import javax.swing.JTextField;
 
 import org.rundeck.api.RundeckApiException;
 import org.rundeck.api.RundeckApiException.RundeckApiLoginException;
-import org.rundeck.api.RundeckClient;
-import org.rundeck.api.RundeckClientBuilder;
 import org.rundeck.api.RundeckApiException.RundeckApiTokenException;
 
 import com.github.sbugat.rundeckmonitor.configuration.RundeckMonitorConfiguration;
@@ -32,9 +30,20 @@ public class RundeckConfigurationWizardPanelDescriptor extends WizardPanelDescri
 	final JTextField rundeckLoginTextField = new JTextField( 30 );
 	final JTextField rundeckPasswordTextField = new JPasswordField( 30 );
 
-	public RundeckConfigurationWizardPanelDescriptor( final ConfigurationWizardStep panelIdentifierArg, final ConfigurationWizardStep backArg, final ConfigurationWizardStep nextArg, final RundeckMonitorConfiguration rundeckMonitorConfigurationArg ) {
+	/**Rundeck client shared by the wizard steps*/
+	private final RundeckWizardClient rundeckWizardClient;
+
+	/**Validated URL and credentials, written to the configuration only when they are verified*/
+	private String rundeckUrl;
+	private String rundeckAPIKey;
+	private String rundeckLogin;
+	private String rundeckPassword;
+
+	public RundeckConfigurationWizardPanelDescriptor( final ConfigurationWizardStep panelIdentifierArg, final ConfigurationWizardStep backArg, final ConfigurationWizardStep nextArg, final RundeckMonitorConfiguration rundeckMonitorConfigurationArg, final RundeckWizardClient rundeckWizardClientArg ) {
 		super( panelIdentifierArg, backArg, nextArg, rundeckMonitorConfigurationArg );
 
+		rundeckWizardClient = rundeckWizardClientArg;
+
 		rundeckUrlTextField.setText( rundeckMonitorConfiguration.getRundeckUrl() );
 		rundeckAPITokenTextField.setText( rundeckMonitorConfiguration.getRundeckAPIKey() );
 		rundeckLoginTextField.setText( rundeckMonitorConfiguration.getRundeckLogin() );
@@ -115,66 +124,57 @@ public class RundeckConfigurationWizardPanelDescriptor extends WizardPanelDescri
 			return false;
 		}
 
-		final RundeckClientBuilder rundeckClientBuilder;
-		final String rundeckUrl = rundeckUrlTextField.getText();
-		if( ! rundeckAPITokenTextField.getText().isEmpty() ) {
-			rundeckClientBuilder = RundeckClient.builder().url( rundeckUrl ).token( rundeckAPITokenTextField.getText() );
-		}
-		else {
-			rundeckClientBuilder = RundeckClient.builder().url( rundeckUrl ).login( rundeckLoginTextField.getText(), rundeckPasswordTextField.getText() );
-		}
+		rundeckUrl = rundeckUrlTextField.getText().replaceFirst( "/+$", "" ); //$NON-NLS-1$ //$NON-NLS-2$
+		rundeckAPIKey = rundeckAPITokenTextField.getText();
+		rundeckLogin = rundeckLoginTextField.getText();
+		rundeckPassword = rundeckPasswordTextField.getText();
 
-		//Initialize the rundeck client with minimal rundeck version (1)
-		final RundeckClient rundeckClient = rundeckClientBuilder.version( 1 ).build();
+		//The connection is checked by verify before changing the configuration
+		rundeckWizardClient.setServer( rundeckUrl, rundeckAPIKey, rundeckLogin, rundeckPassword );
 
-		//Test connection
-		try {
-			rundeckClient.ping();
-		}
-		catch( final RundeckApiException e ) {
-
-			JOptionPane.showMessageDialog( null, "Unable to connect to the project URL," + System.lineSeparator() + "check and change this parameter.", "Configuration error", JOptionPane.ERROR_MESSAGE ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-			return false;
-		}
-		catch( final Exception e ) {
+		return true;
+	}
 
-			JOptionPane.showMessageDialog( null, "Invalid project URL," + System.lineSeparator() + "check and change this parameter.", "Configuration error", JOptionPane.ERROR_MESSAGE ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-			return false;
-		}
+	public String verify() {
 
-		//Test authentication credentials
+		//Test connection and authentication credentials
 		try {
-			rundeckClient.testAuth();
+			rundeckWizardClient.authenticate();
 		}
 		catch( final RundeckApiTokenException e ) {
 
-			JOptionPane.showMessageDialog( null, "Invalid authentication token," + System.lineSeparator() + "check and change this parameter.", "Configuration error", JOptionPane.ERROR_MESSAGE ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-			return false;
+			return "Invalid authentication token," + System.lineSeparator() + "check and change this parameter."; //$NON-NLS-1$ //$NON-NLS-2$
 		}
 		catch( final RundeckApiLoginException e ) {
 
-			JOptionPane.showMessageDialog( null, "Invalid login/password," + System.lineSeparator() + "check and change these parameters.", "Configuration error", JOptionPane.ERROR_MESSAGE ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-			return false;
+			return "Invalid login/password," + System.lineSeparator() + "check and change these parameters."; //$NON-NLS-1$ //$NON-NLS-2$
 		}
+		catch( final RundeckApiException e ) {
 
-		//Test existing projects
+			return "Unable to connect to the project URL," + System.lineSeparator() + "check and change this parameter."; //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		catch( final Exception e ) {
+
+			return "Invalid project URL," + System.lineSeparator() + "check and change this parameter."; //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		//Test existing projects, kept for the project step
 		try {
-			if( rundeckClient.getProjects().isEmpty() ) {
-				JOptionPane.showMessageDialog( null, "Configured rundeck has no project," + System.lineSeparator() + "check and change this rundeck instance.", "Configuration error", JOptionPane.ERROR_MESSAGE ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-				return false;
+			if( rundeckWizardClient.getProjects().isEmpty() ) {
+				return "Configured rundeck has no project," + System.lineSeparator() + "check and change this rundeck instance."; //$NON-NLS-1$ //$NON-NLS-2$
 			}
 		}
 		catch( final RundeckApiException e ) {
 
-			JOptionPane.showMessageDialog( null, "Configured rundeck has no project," + System.lineSeparator() + "check and change this rundeck instance.", "Configuration error", JOptionPane.ERROR_MESSAGE ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-			return false;
+			return "Configured rundeck has no project," + System.lineSeparator() + "check and change this rundeck instance."; //$NON-NLS-1$ //$NON-NLS-2$
 		}
 
-		rundeckMonitorConfiguration.setRundeckUrl( rundeckUrlTextField.getText().replaceFirst( "/+$", "" ) ); //$NON-NLS-1$ //$NON-NLS-2$
-		rundeckMonitorConfiguration.setRundeckAPIKey( rundeckAPITokenTextField.getText() );
-		rundeckMonitorConfiguration.setRundeckLogin( rundeckLoginTextField.getText() );
-		rundeckMonitorConfiguration.setRundeckPassword( rundeckPasswordTextField.getText() );
+		//Write the verified URL and credentials
+		rundeckMonitorConfiguration.setRundeckUrl( rundeckUrl );
+		rundeckMonitorConfiguration.setRundeckAPIKey( rundeckAPIKey );
+		rundeckMonitorConfiguration.setRundeckLogin( rundeckLogin );
+		rundeckMonitorConfiguration.setRundeckPassword( rundeckPassword );
 
-		return true;
+		return null;
 	}
 }
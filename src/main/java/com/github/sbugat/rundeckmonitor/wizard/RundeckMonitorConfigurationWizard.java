@@ -2,18 +2,23 @@ package com.github.sbugat.rundeckmonitor.wizard;
 
 import java.awt.BorderLayout;
 import java.awt.CardLayout;
+import java.awt.Cursor;
 import java.awt.Insets;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 
 import javax.swing.Box;
 import javax.swing.BoxLayout;
 import javax.swing.JButton;
 import javax.swing.JFrame;
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JProgressBar;
 import javax.swing.JSeparator;
+import javax.swing.SwingWorker;
 import javax.swing.border.EmptyBorder;
 
 import com.github.sbugat.rundeckmonitor.configuration.RundeckMonitorConfiguration;
@@ -21,6 +26,8 @@ import com.github.sbugat.rundeckmonitor.configuration.RundeckMonitorConfiguratio
 /**
  * Class of the configuration Wizard
  *
+ * The rundeck calls of the steps are done off the event dispatch thread with a progress indicator, the wizard stays responsive
+ *
  * @author Sylvain Bugat
  *
  */
@@ -45,6 +52,8 @@ public class RundeckMonitorConfigurationWizard {
 	private JButton backButton;
 	/**Next step button of the wizard*/
 	private JButton nextButton;
+	/**Progress indicator displayed during the rundeck calls*/
+	private JProgressBar progressBar;
 
 	public RundeckMonitorConfigurationWizard( final RundeckMonitorConfiguration rundeckMonitorConfiguration, final boolean exitOnClose ) {
 
@@ -61,15 +70,18 @@ public class RundeckMonitorConfigurationWizard {
 		//Initialize displayed components
 		initComponents( exitOnClose );
 
-		//Initialize steps and set the first step
-		WizardPanelDescriptor wpd1 = new RundeckConfigurationWizardPanelDescriptor( ConfigurationWizardStep.RUNDECK_STEP, null, ConfigurationWizardStep.PROJECT_STEP, rundeckMonitorConfiguration );
-		WizardPanelDescriptor wpd2 = new ProjectConfigurationWizardPanelDescriptor( ConfigurationWizardStep.PROJECT_STEP, ConfigurationWizardStep.RUNDECK_STEP, ConfigurationWizardStep.MONITOR_STEP, rundeckMonitorConfiguration );
-		WizardPanelDescriptor wpd3 = new MonitorConfigurationWizardPanelDescriptor( ConfigurationWizardStep.MONITOR_STEP, ConfigurationWizardStep.PROJECT_STEP, null, rundeckMonitorConfiguration );
+		//Initialize steps sharing the same rundeck client and set the first step
+		final RundeckWizardClient rundeckWizardClient = new RundeckWizardClient();
+		WizardPanelDescriptor wpd1 = new RundeckConfigurationWizardPanelDescriptor( ConfigurationWizardStep.RUNDECK_STEP, null, ConfigurationWizardStep.PROJECT_STEP, rundeckMonitorConfiguration, rundeckWizardClient );
+		WizardPanelDescriptor wpd2 = new ProjectConfigurationWizardPanelDescriptor( ConfigurationWizardStep.PROJECT_STEP, ConfigurationWizardStep.RUNDECK_STEP, ConfigurationWizardStep.MONITOR_STEP, rundeckMonitorConfiguration, rundeckWizardClient );
+		WizardPanelDescriptor wpd3 = new MonitorConfigurationWizardPanelDescriptor( ConfigurationWizardStep.MONITOR_STEP, ConfigurationWizardStep.PROJECT_STEP, null, rundeckMonitorConfiguration, rundeckWizardClient );
 
 		registerWizardPanel( wpd1 );
 		registerWizardPanel( wpd2 );
 		registerWizardPanel( wpd3 );
-		setCurrentPanel( ConfigurationWizardStep.RUNDECK_STEP, false );
+
+		//The first step has nothing to load
+		displayPanel( ConfigurationWizardStep.RUNDECK_STEP );
 
 		//Resize the frame
 		wizardFrame.pack();
@@ -94,6 +106,9 @@ public class RundeckMonitorConfigurationWizard {
 		backButton = new JButton( BACK_BUTTON_LABEL );
 		nextButton = new JButton( NEXT_BUTTON_LABEL );
 		final JButton cancelButton = new JButton( CANCEL_BUTTON_LABEL );
+		progressBar = new JProgressBar();
+		progressBar.setIndeterminate( true );
+		progressBar.setVisible( false );
 
 		final ActionListener backListener = new ActionListener() {
 			@SuppressWarnings("synthetic-access")
@@ -143,6 +158,11 @@ public class RundeckMonitorConfigurationWizard {
 		buttonPanel.setLayout( new BorderLayout() );
 		buttonPanel.add( new JSeparator(), BorderLayout.NORTH );
 
+		final Box progressBox = new Box( BoxLayout.X_AXIS );
+		progressBox.setBorder( new EmptyBorder( new Insets( 10, 10, 10, 10 ) ) );
+		progressBox.add( progressBar );
+		buttonPanel.add( progressBox, BorderLayout.CENTER );
+
 		buttonBox.setBorder( new EmptyBorder( new Insets( 5, 10, 5, 10 ) ) );
 		buttonBox.add( backButton );
 		buttonBox.add( Box.createHorizontalStrut( 10 ) );
@@ -166,6 +186,74 @@ public class RundeckMonitorConfigurationWizard {
 			return;
 		}
 
+		final WizardPanelDescriptor verifiedPanel;
+		if( next && currentStep != null ) {
+			verifiedPanel = map.get( currentStep );
+		}
+		else {
+			verifiedPanel = null;
+		}
+		final WizardPanelDescriptor displayedPanel = map.get( id );
+
+		//Check the current step and load the next one on rundeck without blocking the wizard
+		setBusy( true );
+		new SwingWorker<String, Void>() {
+
+			@Override
+			protected String doInBackground() {
+
+				if( null != verifiedPanel ) {
+
+					final String errorMessage = verifiedPanel.verify();
+					if( null != errorMessage ) {
+						return errorMessage;
+					}
+				}
+
+				displayedPanel.loadPanel();
+				return null;
+			}
+
+			@Override
+			@SuppressWarnings("synthetic-access")
+			protected void done() {
+
+				setBusy( false );
+
+				//Wizard closed during the rundeck calls
+				if( ! wizardFrame.isDisplayable() ) {
+					return;
+				}
+
+				final String errorMessage;
+				try {
+					errorMessage = get();
+				}
+				catch( final InterruptedException | ExecutionException e ) {
+
+					final Throwable cause = null == e.getCause() ? e : e.getCause();
+					JOptionPane.showMessageDialog( wizardFrame, "Unable to get the rundeck configuration:" + System.lineSeparator() + cause.getMessage(), "Configuration error", JOptionPane.ERROR_MESSAGE ); //$NON-NLS-1$ //$NON-NLS-2$
+					return;
+				}
+
+				if( null != errorMessage ) {
+
+					JOptionPane.showMessageDialog( wizardFrame, errorMessage, "Configuration error", JOptionPane.ERROR_MESSAGE ); //$NON-NLS-1$
+					return;
+				}
+
+				displayPanel( id );
+			}
+		}.execute();
+	}
+
+	/**
+	 * Display a loaded panel
+	 *
+	 * @param id step of the panel
+	 */
+	private void displayPanel( final ConfigurationWizardStep id ) {
+
 		currentStep = id;
 
 		map.get( id ).aboutToDisplayPanel();
@@ -181,4 +269,23 @@ public class RundeckMonitorConfigurationWizard {
 
 		cardLayout.show( cardPanel, id.toString() );
 	}
+
+	/**
+	 * Display the progress indicator and disable the navigation during the rundeck calls
+	 *
+	 * @param busy true during the rundeck calls
+	 */
+	private void setBusy( final boolean busy ) {
+
+		progressBar.setVisible( busy );
+		backButton.setEnabled( ! busy );
+		nextButton.setEnabled( ! busy );
+
+		if( busy ) {
+			wizardFrame.setCursor( Cursor.getPredefinedCursor( Cursor.WAIT_CURSOR ) );
+		}
+		else {
+			wizardFrame.setCursor( Cursor.getDefaultCursor() );
+		}
+	}
 }
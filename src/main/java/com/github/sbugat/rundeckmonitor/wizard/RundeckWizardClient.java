@@ -0,0 +1,127 @@
+package com.github.sbugat.rundeckmonitor.wizard;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import org.rundeck.api.RundeckClient;
+import org.rundeck.api.RundeckClientBuilder;
+import org.rundeck.api.domain.RundeckProject;
+import org.rundeck.api.domain.RundeckSystemInfo;
+
+/**
+ * Rundeck client shared by all the wizard steps
+ *
+ * The client is rebuilt only when the URL or the credentials change, the projects and the system informations
+ * are kept a short time to not call rundeck again on each step. The calls must not be done on the event dispatch thread
+ *
+ * @author Sylvain Bugat
+ *
+ */
+public class RundeckWizardClient {
+
+	/**Duration in milliseconds of the cached projects and system informations*/
+	private static final long CACHE_DURATION = 30_000L;
+
+	/**URL and credentials of the current client*/
+	private String rundeckUrl;
+	private String rundeckAPIKey;
+	private String rundeckLogin;
+	private String rundeckPassword;
+
+	/**Rundeck client with the minimal rundeck version (1), null until the first connection*/
+	private RundeckClient rundeckClient;
+
+	/**Indicate if the current client has been authenticated*/
+	private boolean authenticated;
+
+	private List<RundeckProject> projects;
+	private long projectsTime;
+
+	private RundeckSystemInfo systemInfo;
+	private long systemInfoTime;
+
+	/**
+	 * Use a rundeck server, the current client and its cache are kept if the URL and the credentials have not changed
+	 *
+	 * @param rundeckUrlArg URL of the rundeck server
+	 * @param rundeckAPIKeyArg API token, empty to use the login/password
+	 * @param rundeckLoginArg login used without API token
+	 * @param rundeckPasswordArg password used without API token
+	 */
+	public synchronized void setServer( final String rundeckUrlArg, final String rundeckAPIKeyArg, final String rundeckLoginArg, final String rundeckPasswordArg ) {
+
+		if( null != rundeckClient && Objects.equals( rundeckUrl, rundeckUrlArg ) && Objects.equals( rundeckAPIKey, rundeckAPIKeyArg )
+			&& Objects.equals( rundeckLogin, rundeckLoginArg ) && Objects.equals( rundeckPassword, rundeckPasswordArg ) ) {
+			return;
+		}
+
+		rundeckUrl = rundeckUrlArg;
+		rundeckAPIKey = rundeckAPIKeyArg;
+		rundeckLogin = rundeckLoginArg;
+		rundeckPassword = rundeckPasswordArg;
+
+		final RundeckClientBuilder rundeckClientBuilder;
+		if( ! rundeckAPIKey.isEmpty() ) {
+			rundeckClientBuilder = RundeckClient.builder().url( rundeckUrl ).token( rundeckAPIKey );
+		}
+		else {
+			rundeckClientBuilder = RundeckClient.builder().url( rundeckUrl ).login( rundeckLogin, rundeckPassword );
+		}
+
+		//Initialize the rundeck client with the minimal rundeck version (1)
+		rundeckClient = rundeckClientBuilder.version( 1 ).build();
+		authenticated = false;
+		projects = null;
+		systemInfo = null;
+	}
+
+	/**
+	 * Test the connection and the authentication credentials, only once for the current client
+	 */
+	public synchronized void authenticate() {
+
+		if( authenticated ) {
+			return;
+		}
+
+		rundeckClient.ping();
+		rundeckClient.testAuth();
+		authenticated = true;
+	}
+
+	/**
+	 * Get the projects of the rundeck server
+	 *
+	 * @return projects of the server, from the cache if they have been got recently
+	 */
+	public synchronized List<RundeckProject> getProjects() {
+
+		final long currentTime = System.currentTimeMillis();
+		if( null == projects || currentTime - projectsTime > CACHE_DURATION ) {
+
+			projects = Collections.unmodifiableList( new ArrayList<>( rundeckClient.getProjects() ) );
+			projectsTime = currentTime;
+		}
+
+		return projects;
+	}
+
+	/**
+	 * Get the system informations of the rundeck server
+	 *
+	 * @return system informations, from the cache if they have been got recently
+	 */
+	public synchronized RundeckSystemInfo getSystemInfo() {
+
+		final long currentTime = System.currentTimeMillis();
+		if( null == systemInfo || currentTime - systemInfoTime > CACHE_DURATION ) {
+
+			systemInfo = rundeckClient.getSystemInfo();
+			systemInfoTime = currentTime;
+		}
+
+		return systemInfo;
+	}
+}
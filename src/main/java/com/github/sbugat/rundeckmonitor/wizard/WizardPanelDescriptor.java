@@ -50,7 +50,14 @@ public abstract class WizardPanelDescriptor {
 	}
 
 	/**
-	 * Method called before diplaying a panel for dynamic content update
+	 * Method called off the event dispatch thread before displaying a panel to get its dynamic content from rundeck
+	 */
+	public void loadPanel() {
+		//Default: nothing to load
+	}
+
+	/**
+	 * Method called before diplaying a panel for dynamic content update, after loadPanel
 	 */
 	public void aboutToDisplayPanel() {
 		//Default: nothing to do
@@ -65,4 +72,14 @@ public abstract class WizardPanelDescriptor {
 		//Default: return OK
 		return true;
 	}
+
+	/**
+	 * Method called off the event dispatch thread after a successful validate to check the wizard step on rundeck
+	 *
+	 * @return error message to display or null if the step is valid
+	 */
+	public String verify() {
+		//Default: return OK
+		return null;
+	}
 }
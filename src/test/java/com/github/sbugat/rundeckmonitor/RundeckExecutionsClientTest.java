@@ -0,0 +1,358 @@
+package com.github.sbugat.rundeckmonitor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.rundeck.api.domain.RundeckExecution;
+import org.rundeck.api.domain.RundeckExecution.ExecutionStatus;
+
+import com.github.sbugat.rundeckmonitor.tools.ClockOffsetEstimator;
+import com.github.sbugat.rundeckmonitor.tools.ConditionalRequestCache;
+import com.github.sbugat.rundeckmonitor.tools.HttpTransport;
+import com.google.gson.stream.MalformedJsonException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests of the executions client parsers with sample rundeck responses
+ *
+ * @author Sylvain Bugat
+ *
+ */
+public class RundeckExecutionsClientTest {
+
+	private static final String PROJECT = "myproject"; //$NON-NLS-1$
+
+	/**Failed executions of a job and of an ad-hoc command, the job and the execution have both a description*/
+	private static final String EXECUTIONS_RESPONSE = "<executions count='2'>" //$NON-NLS-1$
+		+ "<execution id='42' href='http://rundeck:4440/project/myproject/execution/follow/42' status='failed' project='myproject'>" //$NON-NLS-1$
+		+ "<user>admin</user>" //$NON-NLS-1$
+		+ "<date-started unixtime='1431536339809'>2015-05-13T16:58:59Z</date-started>" //$NON-NLS-1$
+		+ "<date-ended unixtime='1431536346423'>2015-05-13T16:59:06Z</date-ended>" //$NON-NLS-1$
+		+ "<job id='7b3fff59-7a2d-4a31-a5c2-e9f5e6d3a1c8' averageDuration='6614'>" //$NON-NLS-1$
+		+ "<name>backup</name><group>daily</group><project>myproject</project><description>Nightly backup</description>" //$NON-NLS-1$
+		+ "</job>" //$NON-NLS-1$
+		+ "<description>backup.sh</description>" //$NON-NLS-1$
+		+ "<argstring/>" //$NON-NLS-1$
+		+ "</execution>" //$NON-NLS-1$
+		+ "<execution id='43' href='http://rundeck:4440/project/myproject/execution/follow/43' status='failed-with-retry' project='myproject'>" //$NON-NLS-1$
+		+ "<date-started unixtime='1431536400000'>2015-05-13T17:00:00Z</date-started>" //$NON-NLS-1$
+		+ "<date-ended unixtime='1431536401000'>2015-05-13T17:00:01Z</date-ended>" //$NON-NLS-1$
+		+ "<description>uptime</description>" //$NON-NLS-1$
+		+ "</execution>" //$NON-NLS-1$
+		+ "</executions>"; //$NON-NLS-1$
+
+	/**Running execution of an old API version wrapped in a result element, without end date and with an unknown status*/
+	private static final String RUNNING_EXECUTIONS_RESPONSE = "<result success='true' apiversion='10'>" //$NON-NLS-1$
+		+ "<executions count='1'>" //$NON-NLS-1$
+		+ "<execution id='44' href='http://rundeck:4440/execution/follow/44' status='scheduled'>" //$NON-NLS-1$
+		+ "<date-started unixtime=''/>" //$NON-NLS-1$
+		+ "<job id='1'><name>long job</name></job>" //$NON-NLS-1$
+		+ "</execution>" //$NON-NLS-1$
+		+ "</executions>" //$NON-NLS-1$
+		+ "</result>"; //$NON-NLS-1$
+
+	/**JSON responses of the same executions*/
+	private static final String JSON_EXECUTIONS_RESPONSE = "{\"paging\":{\"count\":2,\"total\":2,\"offset\":0,\"max\":20},\"executions\":[" //$NON-NLS-1$
+		+ "{\"id\":42,\"href\":\"http://rundeck:4440/project/myproject/execution/follow/42\",\"status\":\"failed\",\"project\":\"myproject\",\"user\":\"admin\"," //$NON-NLS-1$
+		+ "\"date-started\":{\"unixtime\":1431536339809,\"date\":\"2015-05-13T16:58:59Z\"},\"date-ended\":{\"unixtime\":1431536346423,\"date\":\"2015-05-13T16:59:06Z\"}," //$NON-NLS-1$
+		+ "\"job\":{\"id\":\"7b3fff59-7a2d-4a31-a5c2-e9f5e6d3a1c8\",\"averageDuration\":6614,\"name\":\"backup\",\"group\":\"daily\",\"project\":\"myproject\",\"description\":\"Nightly backup\"}," //$NON-NLS-1$
+		+ "\"description\":\"backup.sh\",\"argstring\":null}," //$NON-NLS-1$
+		+ "{\"id\":43,\"href\":\"http://rundeck:4440/project/myproject/execution/follow/43\",\"status\":\"failed-with-retry\",\"project\":\"myproject\"," //$NON-NLS-1$
+		+ "\"date-started\":{\"unixtime\":1431536400000,\"date\":\"2015-05-13T17:00:00Z\"},\"date-ended\":{\"unixtime\":1431536401000,\"date\":\"2015-05-13T17:00:01Z\"}," //$NON-NLS-1$
+		+ "\"description\":\"uptime\"}" //$NON-NLS-1$
+		+ "]}"; //$NON-NLS-1$
+
+	private static final String JSON_RUNNING_EXECUTIONS_RESPONSE = "{\"paging\":{\"count\":1},\"executions\":[" //$NON-NLS-1$
+		+ "{\"id\":44,\"href\":\"http://rundeck:4440/execution/follow/44\",\"status\":\"scheduled\",\"date-started\":null,\"job\":{\"id\":\"1\",\"name\":\"long job\"}}" //$NON-NLS-1$
+		+ "]}"; //$NON-NLS-1$
+
+	private static final String ERROR_RESPONSE = "<result error='true' apiversion='10'><error><message>Unauthorized</message></error></result>"; //$NON-NLS-1$
+
+	private static final String JSON_ERROR_RESPONSE = "{\"error\":true,\"apiversion\":12,\"errorCode\":\"api.error.item.unauthorized\",\"message\":\"Unauthorized\"}"; //$NON-NLS-1$
+
+	private static final String SYSTEM_INFO_RESPONSE = "<result success='true' apiversion='10'><success><message>System Stats for Rundeck 2.4.2</message></success>" //$NON-NLS-1$
+		+ "<system><timestamp epoch='1431536339809' unit='ms'><datetime>2015-05-13T16:58:59Z</datetime></timestamp></system></result>"; //$NON-NLS-1$
+
+	private static final String JSON_SYSTEM_INFO_RESPONSE = "{\"system\":{\"timestamp\":{\"epoch\":1431536339809,\"unit\":\"ms\",\"datetime\":\"2015-05-13T16:58:59Z\"}," //$NON-NLS-1$
+		+ "\"rundeck\":{\"version\":\"2.4.2\",\"apiversion\":12}}}"; //$NON-NLS-1$
+
+	/**Truncated JSON response returned by the stub server instead of the JSON executions*/
+	private static final String MALFORMED_JSON_RESPONSE = "{\"executions\":[{\"id\":"; //$NON-NLS-1$
+
+	@Test
+	public void testExecutions() throws IOException {
+
+		final List<RundeckExecution> rundeckExecutions = RundeckExecutionsClient.parseExecutions( bytes( EXECUTIONS_RESPONSE ), PROJECT );
+
+		assertEquals( 2, rundeckExecutions.size() );
+
+		final RundeckExecution jobExecution = rundeckExecutions.get( 0 );
+		assertEquals( Long.valueOf( 42L ), jobExecution.getId() );
+		assertEquals( ExecutionStatus.FAILED, jobExecution.getStatus() );
+		assertEquals( PROJECT, jobExecution.getProject() );
+		assertEquals( "http://rundeck:4440/project/myproject/execution/follow/42", jobExecution.getUrl() ); //$NON-NLS-1$
+		assertEquals( 1431536339809L, jobExecution.getStartedAt().getTime() );
+		assertEquals( 1431536346423L, jobExecution.getEndedAt().getTime() );
+		assertEquals( "backup", jobExecution.getJob().getName() ); //$NON-NLS-1$
+		//The job description is not the execution one
+		assertEquals( "backup.sh", jobExecution.getDescription() ); //$NON-NLS-1$
+
+		final RundeckExecution adhocExecution = rundeckExecutions.get( 1 );
+		assertEquals( Long.valueOf( 43L ), adhocExecution.getId() );
+		assertEquals( ExecutionStatus.FAILED_WITH_RETRY, adhocExecution.getStatus() );
+		assertNull( adhocExecution.getJob() );
+		assertEquals( "uptime", adhocExecution.getDescription() ); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testMissingDates() throws IOException {
+
+		final List<RundeckExecution> rundeckExecutions = RundeckExecutionsClient.parseExecutions( bytes( RUNNING_EXECUTIONS_RESPONSE ), PROJECT );
+
+		assertEquals( 1, rundeckExecutions.size() );
+
+		final RundeckExecution rundeckExecution = rundeckExecutions.get( 0 );
+		assertEquals( Long.valueOf( 44L ), rundeckExecution.getId() );
+		assertNull( rundeckExecution.getStatus() );
+		assertNull( rundeckExecution.getStartedAt() );
+		assertNull( rundeckExecution.getEndedAt() );
+		assertNull( rundeckExecution.getDescription() );
+		assertEquals( "long job", rundeckExecution.getJob().getName() ); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testNotificationProject() throws IOException {
+
+		//A notification gives the project of each execution
+		final List<RundeckExecution> rundeckExecutions = RundeckExecutionsClient.parseExecutions( bytes( EXECUTIONS_RESPONSE.replace( "project='myproject'", "project='other'" ) ), null ); //$NON-NLS-1$ //$NON-NLS-2$
+
+		assertEquals( "other", rundeckExecutions.get( 0 ).getProject() ); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testEmptyExecutions() throws IOException {
+
+		assertTrue( RundeckExecutionsClient.parseExecutions( bytes( "<executions count='0'/>" ), PROJECT ).isEmpty() ); //$NON-NLS-1$
+		assertTrue( RundeckExecutionsClient.parseExecutions( bytes( "<result success='true'><executions count='0'></executions></result>" ), PROJECT ).isEmpty() ); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testErrorResponse() {
+
+		try {
+			RundeckExecutionsClient.parseExecutions( bytes( ERROR_RESPONSE ), PROJECT );
+			fail( "Error response parsed" ); //$NON-NLS-1$
+		}
+		catch( final IOException e ) {
+			assertEquals( "Rundeck error response: Unauthorized", e.getMessage() ); //$NON-NLS-1$
+		}
+	}
+
+	@Test( expected = IOException.class )
+	public void testInvalidResponse() throws IOException {
+
+		RundeckExecutionsClient.parseExecutions( bytes( "<executions><execution id='x'>" ), PROJECT ); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testServerTime() throws IOException {
+
+		assertEquals( 1431536339809L, RundeckExecutionsClient.parseServerTime( bytes( SYSTEM_INFO_RESPONSE ) ) );
+	}
+
+	@Test( expected = IOException.class )
+	public void testServerTimeErrorResponse() throws IOException {
+
+		RundeckExecutionsClient.parseServerTime( bytes( ERROR_RESPONSE ) );
+	}
+
+	@Test
+	public void testJsonExecutions() throws IOException {
+
+		assertSameExecutions( EXECUTIONS_RESPONSE, JSON_EXECUTIONS_RESPONSE );
+		assertSameExecutions( RUNNING_EXECUTIONS_RESPONSE, JSON_RUNNING_EXECUTIONS_RESPONSE );
+		assertSameExecutions( "<executions count='0'/>", "{\"executions\":[]}" ); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Test
+	public void testJsonErrorResponse() {
+
+		try {
+			RundeckExecutionsClient.parseJsonExecutions( bytes( JSON_ERROR_RESPONSE ), PROJECT );
+			fail( "Error response parsed" ); //$NON-NLS-1$
+		}
+		catch( final IOException e ) {
+			assertFalse( MalformedJsonException.class.isInstance( e ) );
+			assertEquals( "Rundeck error response: Unauthorized", e.getMessage() ); //$NON-NLS-1$
+		}
+	}
+
+	@Test( expected = MalformedJsonException.class )
+	public void testMalformedJsonExecutions() throws IOException {
+
+		RundeckExecutionsClient.parseJsonExecutions( bytes( MALFORMED_JSON_RESPONSE ), PROJECT );
+	}
+
+	@Test
+	public void testJsonServerTime() throws IOException {
+
+		assertTrue( RundeckExecutionsClient.isJson( bytes( " " + JSON_SYSTEM_INFO_RESPONSE ) ) ); //$NON-NLS-1$
+		assertFalse( RundeckExecutionsClient.isJson( bytes( SYSTEM_INFO_RESPONSE ) ) );
+		assertEquals( RundeckExecutionsClient.parseServerTime( bytes( SYSTEM_INFO_RESPONSE ) ), RundeckExecutionsClient.parseJsonServerTime( bytes( JSON_SYSTEM_INFO_RESPONSE ) ) );
+	}
+
+	@Test
+	public void testMalformedJsonFallback() throws IOException {
+
+		final AtomicInteger jsonRequests = new AtomicInteger();
+		final HttpServer httpServer = startServer( MALFORMED_JSON_RESPONSE, jsonRequests );
+		try {
+			final RundeckExecutionsClient rundeckExecutionsClient = newClient( httpServer );
+
+			assertSameExecutions( RundeckExecutionsClient.parseExecutions( bytes( EXECUTIONS_RESPONSE ), PROJECT ), rundeckExecutionsClient.getFailedExecutions( PROJECT, null, 20, false ) );
+			assertEquals( 1431536339809L, rundeckExecutionsClient.getServerTime() );
+
+			//JSON responses are not requested anymore
+			assertEquals( 1, jsonRequests.get() );
+		}
+		finally {
+			httpServer.stop( 0 );
+		}
+	}
+
+	@Test
+	public void testUnsupportedJsonFallback() throws IOException {
+
+		//The server ignores the requested format and answers in XML
+		final AtomicInteger jsonRequests = new AtomicInteger();
+		final HttpServer httpServer = startServer( EXECUTIONS_RESPONSE, jsonRequests );
+		try {
+			final RundeckExecutionsClient rundeckExecutionsClient = newClient( httpServer );
+
+			assertEquals( 2, rundeckExecutionsClient.getFailedExecutions( PROJECT, null, 20, false ).size() );
+			assertEquals( 2, rundeckExecutionsClient.getRunningExecutions( PROJECT, false ).size() );
+			assertEquals( 1, jsonRequests.get() );
+		}
+		finally {
+			httpServer.stop( 0 );
+		}
+	}
+
+	/**
+	 * Check that a XML response and a JSON response give the same executions
+	 *
+	 * @param xmlResponse XML response
+	 * @param jsonResponse JSON response
+	 * @throws IOException in case of parsing error
+	 */
+	private static void assertSameExecutions( final String xmlResponse, final String jsonResponse ) throws IOException {
+
+		assertSameExecutions( RundeckExecutionsClient.parseExecutions( bytes( xmlResponse ), PROJECT ), RundeckExecutionsClient.parseJsonExecutions( bytes( jsonResponse ), PROJECT ) );
+	}
+
+	/**
+	 * Check field by field that two executions lists are the same
+	 *
+	 * @param expectedExecutions expected executions
+	 * @param rundeckExecutions parsed executions
+	 */
+	private static void assertSameExecutions( final List<RundeckExecution> expectedExecutions, final List<RundeckExecution> rundeckExecutions ) {
+
+		assertEquals( expectedExecutions.size(), rundeckExecutions.size() );
+		for( int i = 0 ; i < expectedExecutions.size() ; i++ ) {
+
+			final RundeckExecution expectedExecution = expectedExecutions.get( i );
+			final RundeckExecution rundeckExecution = rundeckExecutions.get( i );
+
+			assertEquals( expectedExecution.getId(), rundeckExecution.getId() );
+			assertEquals( expectedExecution.getUrl(), rundeckExecution.getUrl() );
+			assertEquals( expectedExecution.getStatus(), rundeckExecution.getStatus() );
+			assertEquals( expectedExecution.getProject(), rundeckExecution.getProject() );
+			assertEquals( expectedExecution.getStartedAt(), rundeckExecution.getStartedAt() );
+			assertEquals( expectedExecution.getEndedAt(), rundeckExecution.getEndedAt() );
+			assertEquals( expectedExecution.getDescription(), rundeckExecution.getDescription() );
+			if( null == expectedExecution.getJob() ) {
+				assertNull( rundeckExecution.getJob() );
+			}
+			else {
+				assertEquals( expectedExecution.getJob().getName(), rundeckExecution.getJob().getName() );
+			}
+		}
+	}
+
+	/**
+	 * Start a stub rundeck server on the loopback interface answering the JSON requests with a given response and the other ones in XML
+	 *
+	 * @param jsonResponse response of the JSON requests
+	 * @param jsonRequests number of JSON requests received
+	 * @return started server
+	 * @throws IOException in case of server error
+	 */
+	private static HttpServer startServer( final String jsonResponse, final AtomicInteger jsonRequests ) throws IOException {
+
+		final HttpServer httpServer = HttpServer.create( new InetSocketAddress( InetAddress.getLoopbackAddress(), 0 ), 0 );
+		httpServer.createContext( "/", new HttpHandler() { //$NON-NLS-1$
+			@Override
+			public void handle( final HttpExchange httpExchange ) throws IOException {
+
+				final String query = httpExchange.getRequestURI().getQuery();
+				final byte[] response;
+				if( null != query && query.contains( "format=json" ) ) { //$NON-NLS-1$
+					jsonRequests.incrementAndGet();
+					response = bytes( jsonResponse );
+				}
+				else if( httpExchange.getRequestURI().getPath().endsWith( "/system/info" ) ) { //$NON-NLS-1$
+					response = bytes( SYSTEM_INFO_RESPONSE );
+				}
+				else {
+					response = bytes( EXECUTIONS_RESPONSE );
+				}
+
+				httpExchange.sendResponseHeaders( HttpURLConnection.HTTP_OK, response.length );
+				try( final OutputStream outputStream = httpExchange.getResponseBody() ) {
+					outputStream.write( response );
+				}
+			}
+		} );
+		httpServer.start();
+
+		return httpServer;
+	}
+
+	/**
+	 * Create a client of the stub server with an API version supporting JSON
+	 *
+	 * @param httpServer stub server
+	 * @return executions client
+	 */
+	private static RundeckExecutionsClient newClient( final HttpServer httpServer ) {
+
+		return new RundeckExecutionsClient( "http://127.0.0.1:" + httpServer.getAddress().getPort(), "token", 12, new ConditionalRequestCache( new HttpTransport() ), new ClockOffsetEstimator() ); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Encode a sample response
+	 *
+	 * @param response response
+	 * @return UTF-8 response body
+	 */
+	static byte[] bytes( final String response ) {
+
+		return response.getBytes( StandardCharsets.UTF_8 );
+	}
+}
@@ -0,0 +1,90 @@
+package com.github.sbugat.rundeckmonitor;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests of the snapshot encoding of the displayed executions, descriptions longer than 64 KB must be saved
+ *
+ * @author Sylvain Bugat
+ *
+ */
+public class RundeckMonitorSnapshotTest {
+
+	private static final String RUNDECK_URL = "http://rundeck:4440"; //$NON-NLS-1$
+
+	private static final long STARTED_AT = 1_431_536_339_809L;
+
+	@Test
+	public void testLongDescription() throws IOException {
+
+		final StringBuilder description = new StringBuilder();
+		while( description.length() < 100_000 ) {
+			description.append( "backup.sh --target=/srv/donn\u00e9es " ); //$NON-NLS-1$
+		}
+
+		final List<JobExecutionInfo> jobExecutionInfos = Arrays.asList(
+			new JobExecutionInfo( Long.valueOf( 1L ), new Date( STARTED_AT ), description.toString(), false, RUNDECK_URL ),
+			new JobExecutionInfo( Long.valueOf( 2L ), new Date( STARTED_AT + 1_000L ), "job.sh", false, RUNDECK_URL ) ); //$NON-NLS-1$
+
+		final List<JobExecutionInfo> readExecutions = new ArrayList<>();
+		RundeckMonitorSnapshot.readExecutions( input( output( jobExecutionInfos ) ), readExecutions, false, RUNDECK_URL );
+
+		assertEquals( 2, readExecutions.size() );
+		assertEquals( Long.valueOf( 1L ), readExecutions.get( 0 ).getExecutionId() );
+		assertEquals( STARTED_AT, readExecutions.get( 0 ).getStartedAt().getTime() );
+		assertEquals( description.toString(), readExecutions.get( 0 ).getDescription() );
+		assertEquals( Long.valueOf( 2L ), readExecutions.get( 1 ).getExecutionId() );
+		assertEquals( "job.sh", readExecutions.get( 1 ).getDescription() ); //$NON-NLS-1$
+	}
+
+	@Test( expected = IOException.class )
+	public void testInvalidStringLength() throws IOException {
+
+		final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+		try( final DataOutputStream dataOutputStream = new DataOutputStream( byteArrayOutputStream ) ) {
+			dataOutputStream.writeInt( -1 );
+		}
+
+		RundeckMonitorSnapshot.readString( input( byteArrayOutputStream.toByteArray() ) );
+	}
+
+	/**
+	 * Write executions as in the snapshot
+	 *
+	 * @param jobExecutionInfos executions to write
+	 * @return written bytes
+	 * @throws IOException in case of writing error
+	 */
+	private static byte[] output( final List<JobExecutionInfo> jobExecutionInfos ) throws IOException {
+
+		final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+		try( final DataOutputStream dataOutputStream = new DataOutputStream( byteArrayOutputStream ) ) {
+			RundeckMonitorSnapshot.writeExecutions( dataOutputStream, jobExecutionInfos );
+		}
+
+		return byteArrayOutputStream.toByteArray();
+	}
+
+	/**
+	 * Read a snapshot from bytes
+	 *
+	 * @param bytes snapshot bytes
+	 * @return snapshot stream
+	 */
+	private static DataInputStream input( final byte[] bytes ) {
+
+		return new DataInputStream( new ByteArrayInputStream( bytes ) );
+	}
+}
@@ -0,0 +1,60 @@
+package com.github.sbugat.rundeckmonitor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests of the views replaced before their display: the new executions of a replaced view must not be lost
+ *
+ * @author Sylvain Bugat
+ *
+ */
+public class RundeckMonitorViewTest {
+
+	private static final JobExecutionInfo FAILED_EXECUTION = new JobExecutionInfo( Long.valueOf( 1L ), new Date(), "failed", false, "http://rundeck:4440" ); //$NON-NLS-1$ //$NON-NLS-2$
+
+	private static final JobExecutionInfo LATE_EXECUTION = new JobExecutionInfo( Long.valueOf( 2L ), new Date(), "late", true, "http://rundeck:4440" ); //$NON-NLS-1$ //$NON-NLS-2$
+
+	@Test
+	public void testMergeWithoutReplacedView() {
+
+		final RundeckMonitorView rundeckMonitorView = view( Collections.singletonList( FAILED_EXECUTION ), "last" ); //$NON-NLS-1$
+
+		assertSame( rundeckMonitorView, rundeckMonitorView.mergeNewExecutions( null ) );
+		assertSame( rundeckMonitorView, rundeckMonitorView.mergeNewExecutions( view( Collections.<JobExecutionInfo>emptyList(), "replaced" ) ) ); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testMergeKeepsReplacedNewExecutions() {
+
+		final RundeckMonitorView replacedView = view( Collections.singletonList( FAILED_EXECUTION ), "replaced" ); //$NON-NLS-1$
+		//The last view is published after the new failed execution has been given to the replaced view
+		final RundeckMonitorView lastView = view( Collections.singletonList( LATE_EXECUTION ), "last" ); //$NON-NLS-1$
+
+		final RundeckMonitorView mergedView = lastView.mergeNewExecutions( replacedView );
+
+		assertEquals( Arrays.asList( FAILED_EXECUTION, LATE_EXECUTION ), mergedView.getNewExecutions() );
+		assertEquals( "last", mergedView.getToolTip() ); //$NON-NLS-1$
+		assertEquals( lastView.getExecutions(), mergedView.getExecutions() );
+		assertEquals( lastView.isLateJobs(), mergedView.isLateJobs() );
+	}
+
+	/**
+	 * Create a view displaying both executions
+	 *
+	 * @param newExecutions new executions to alert
+	 * @param toolTip tool tip of the view
+	 * @return view
+	 */
+	private static RundeckMonitorView view( final List<JobExecutionInfo> newExecutions, final String toolTip ) {
+
+		return new RundeckMonitorView( Arrays.asList( LATE_EXECUTION, FAILED_EXECUTION ), newExecutions, true, false, toolTip, "Clock offsets:" ); //$NON-NLS-1$
+	}
+}
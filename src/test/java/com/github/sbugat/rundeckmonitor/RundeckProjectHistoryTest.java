@@ -0,0 +1,199 @@
+package com.github.sbugat.rundeckmonitor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.rundeck.api.domain.RundeckExecution;
+import org.rundeck.api.domain.RundeckExecution.ExecutionStatus;
+
+import com.github.sbugat.rundeckmonitor.tools.ClockOffsetEstimator;
+import com.github.sbugat.rundeckmonitor.tools.ConditionalRequestCache;
+import com.github.sbugat.rundeckmonitor.tools.HttpTransport;
+
+/**
+ * Tests of the new executions alerted by a project history, each new execution must be alerted only once
+ * even if the executions are published again by a late check, a notification or a reload,
+ * and of the failed executions requested incrementally except after a reconnection
+ *
+ * @author Sylvain Bugat
+ *
+ */
+public class RundeckProjectHistoryTest {
+
+	private static final int FAILED_JOB_NUMBER = 10;
+
+	/**Late execution threshold in seconds*/
+	private static final int LATE_THRESHOLD = 60;
+
+	private static final long CURRENT_TIME = 1_431_536_339_809L;
+
+	private RundeckProjectHistory rundeckProjectHistory;
+
+	@Before
+	public void createHistory() {
+
+		rundeckProjectHistory = new RundeckProjectHistory( "myproject", "http://rundeck:4440", "%job" ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	@Test
+	public void testLateExecutionAlertedOnce() {
+
+		rundeckProjectHistory.setRunningExecutions( Collections.singletonList( execution( 1L, ExecutionStatus.RUNNING, CURRENT_TIME - LATE_THRESHOLD * 2_000L ) ) );
+
+		//Each late check republishes the late execution
+		assertTrue( rundeckProjectHistory.updateLateExecutions( CURRENT_TIME, 0, LATE_THRESHOLD ) );
+		final List<JobExecutionInfo> alertedExecutions = drain();
+		assertTrue( rundeckProjectHistory.updateLateExecutions( CURRENT_TIME + 1_000L, 0, LATE_THRESHOLD ) );
+		alertedExecutions.addAll( drain() );
+
+		assertEquals( 1, alertedExecutions.size() );
+		assertEquals( Long.valueOf( 1L ), alertedExecutions.get( 0 ).getExecutionId() );
+		assertTrue( alertedExecutions.get( 0 ).isLongExecution() );
+		assertEquals( 1, rundeckProjectHistory.getLastLateExecutions().size() );
+	}
+
+	@Test
+	public void testNotLateExecutionNotAlerted() {
+
+		rundeckProjectHistory.setRunningExecutions( Collections.singletonList( execution( 1L, ExecutionStatus.RUNNING, CURRENT_TIME ) ) );
+
+		assertFalse( rundeckProjectHistory.updateLateExecutions( CURRENT_TIME, 0, LATE_THRESHOLD ) );
+		assertTrue( drain().isEmpty() );
+	}
+
+	@Test
+	public void testFailedExecutionAlertedOnce() {
+
+		final RundeckExecution failedExecution = execution( 2L, ExecutionStatus.FAILED, CURRENT_TIME );
+
+		assertTrue( rundeckProjectHistory.updateFailedExecutions( Collections.singletonList( failedExecution ), FAILED_JOB_NUMBER, false ) );
+		final List<JobExecutionInfo> alertedExecutions = drain();
+
+		//The same execution notified and returned again by the next updates
+		assertFalse( rundeckProjectHistory.notifyExecution( failedExecution, FAILED_JOB_NUMBER ) );
+		assertFalse( rundeckProjectHistory.updateFailedExecutions( Collections.singletonList( failedExecution ), FAILED_JOB_NUMBER, false ) );
+		assertFalse( rundeckProjectHistory.updateFailedExecutions( null, FAILED_JOB_NUMBER, false ) );
+		alertedExecutions.addAll( drain() );
+
+		assertEquals( 1, alertedExecutions.size() );
+		assertEquals( Long.valueOf( 2L ), alertedExecutions.get( 0 ).getExecutionId() );
+		assertEquals( 1, rundeckProjectHistory.getLastFailedExecutions().size() );
+	}
+
+	@Test
+	public void testNotifiedFailedExecutionAlertedOnce() {
+
+		final RundeckExecution failedExecution = execution( 3L, ExecutionStatus.FAILED, CURRENT_TIME );
+
+		assertTrue( rundeckProjectHistory.notifyExecution( failedExecution, FAILED_JOB_NUMBER ) );
+		final List<JobExecutionInfo> alertedExecutions = drain();
+		assertFalse( rundeckProjectHistory.notifyExecution( failedExecution, FAILED_JOB_NUMBER ) );
+		assertFalse( rundeckProjectHistory.updateFailedExecutions( Collections.singletonList( failedExecution ), FAILED_JOB_NUMBER, false ) );
+		alertedExecutions.addAll( drain() );
+
+		assertEquals( 1, alertedExecutions.size() );
+		assertEquals( Long.valueOf( 3L ), alertedExecutions.get( 0 ).getExecutionId() );
+	}
+
+	@Test
+	public void testInitFailedExecutionNotAlerted() {
+
+		assertTrue( rundeckProjectHistory.updateFailedExecutions( Collections.singletonList( execution( 4L, ExecutionStatus.FAILED, CURRENT_TIME ) ), FAILED_JOB_NUMBER, true ) );
+
+		assertTrue( drain().isEmpty() );
+		assertEquals( 1, rundeckProjectHistory.getLastFailedExecutions().size() );
+	}
+
+	@Test
+	public void testReloadNotAlertedAgain() {
+
+		final RundeckExecution failedExecution = execution( 5L, ExecutionStatus.FAILED, CURRENT_TIME );
+		rundeckProjectHistory.updateFailedExecutions( Collections.singletonList( failedExecution ), FAILED_JOB_NUMBER, false );
+		assertEquals( 1, drain().size() );
+
+		//A reload gets again all the failed executions
+		rundeckProjectHistory.reloadExecutions();
+		rundeckProjectHistory.updateFailedExecutions( Collections.singletonList( failedExecution ), FAILED_JOB_NUMBER, false );
+
+		assertTrue( drain().isEmpty() );
+		assertEquals( 1, rundeckProjectHistory.getLastFailedExecutions().size() );
+	}
+
+	@Test
+	public void testFullRefreshAfterReconnection() throws Exception {
+
+		final List<Date> requestedBegins = new ArrayList<>();
+		final RundeckExecutionsClient rundeckExecutionsClient = new RundeckExecutionsClient( "http://rundeck:4440", "token", 12, new ConditionalRequestCache( new HttpTransport() ), new ClockOffsetEstimator() ) { //$NON-NLS-1$ //$NON-NLS-2$
+			@Override
+			public List<RundeckExecution> getFailedExecutions( final String project, final Date begin, final int max, final boolean conditional ) {
+
+				//A full refresh is never conditional
+				assertEquals( null == begin, ! conditional );
+				requestedBegins.add( begin );
+				return null;
+			}
+		};
+
+		rundeckProjectHistory.failedExecutionsCall( null, rundeckExecutionsClient, FAILED_JOB_NUMBER, true ).call();
+		rundeckProjectHistory.updateFailedExecutions( Collections.singletonList( execution( 6L, ExecutionStatus.FAILED, CURRENT_TIME ) ), FAILED_JOB_NUMBER, true );
+
+		//Incremental update after the end date of the last failed execution
+		rundeckProjectHistory.failedExecutionsCall( null, rundeckExecutionsClient, FAILED_JOB_NUMBER, false ).call();
+		rundeckProjectHistory.updateFailedExecutions( null, FAILED_JOB_NUMBER, false );
+
+		//A failed update disconnects the server, the first update after the reconnection gets all the failed executions
+		rundeckProjectHistory.reloadExecutions();
+		rundeckProjectHistory.failedExecutionsCall( null, rundeckExecutionsClient, FAILED_JOB_NUMBER, false ).call();
+		rundeckProjectHistory.updateFailedExecutions( Collections.singletonList( execution( 6L, ExecutionStatus.FAILED, CURRENT_TIME ) ), FAILED_JOB_NUMBER, false );
+
+		rundeckProjectHistory.failedExecutionsCall( null, rundeckExecutionsClient, FAILED_JOB_NUMBER, false ).call();
+
+		assertEquals( 4, requestedBegins.size() );
+		assertNull( requestedBegins.get( 0 ) );
+		assertEquals( new Date( CURRENT_TIME + 1_000L ), requestedBegins.get( 1 ) );
+		assertNull( requestedBegins.get( 2 ) );
+		assertEquals( new Date( CURRENT_TIME + 1_000L ), requestedBegins.get( 3 ) );
+		assertEquals( 1, rundeckProjectHistory.getLastFailedExecutions().size() );
+	}
+
+	/**
+	 * Get the new executions to alert as a publication of a view does
+	 *
+	 * @return new executions not alerted yet
+	 */
+	private List<JobExecutionInfo> drain() {
+
+		final List<JobExecutionInfo> alertedExecutions = new ArrayList<>();
+		rundeckProjectHistory.drainNewExecutions( alertedExecutions );
+		return alertedExecutions;
+	}
+
+	/**
+	 * Create an ad-hoc execution
+	 *
+	 * @param id execution id
+	 * @param status execution status
+	 * @param startedAt start time of the execution
+	 * @return execution
+	 */
+	private static RundeckExecution execution( final long id, final ExecutionStatus status, final long startedAt ) {
+
+		final RundeckExecution rundeckExecution = new RundeckExecution();
+		rundeckExecution.setId( Long.valueOf( id ) );
+		rundeckExecution.setStatus( status );
+		rundeckExecution.setProject( "myproject" ); //$NON-NLS-1$
+		rundeckExecution.setDescription( "job.sh" ); //$NON-NLS-1$
+		rundeckExecution.setStartedAt( new Date( startedAt ) );
+		rundeckExecution.setEndedAt( new Date( startedAt + 1_000L ) );
+		return rundeckExecution;
+	}
+}
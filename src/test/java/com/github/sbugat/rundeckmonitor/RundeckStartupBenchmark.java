@@ -0,0 +1,246 @@
+package com.github.sbugat.rundeckmonitor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.rundeck.api.RundeckClient;
+
+import com.github.sbugat.rundeckmonitor.configuration.RundeckServerConfiguration;
+import com.github.sbugat.rundeckmonitor.configuration.UnknownProjectException;
+import com.github.sbugat.rundeckmonitor.tools.ClockOffsetEstimator;
+import com.github.sbugat.rundeckmonitor.tools.ConditionalRequestCache;
+import com.github.sbugat.rundeckmonitor.tools.HttpTransport;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Startup timing harness against a local stub rundeck server answering each request after a fixed latency
+ *
+ * Compares the time to connect and to get the first menu executions with the calls done one after the other,
+ * as the monitor did before, and with the concurrent calls of the server monitor. The tray icon does not wait the connection anymore
+ * and is not measured, it needs a desktop.
+ *
+ * Not a unit test, run it with the test classpath: RundeckStartupBenchmark [latency in ms] [projects number] [runs]
+ *
+ * @author Sylvain Bugat
+ *
+ */
+public class RundeckStartupBenchmark {
+
+	private static final int API_VERSION = 12;
+
+	private static final String PROJECT_PREFIX = "project"; //$NON-NLS-1$
+
+	private static final int FAILED_JOB_NUMBER = 10;
+
+	private static final int LATE_THRESHOLD = 3600;
+
+	private static final String SYSTEM_INFO_RESPONSE = "<system><timestamp epoch='" + System.currentTimeMillis() + "' unit='ms'><datetime>2015-05-13T16:58:59Z</datetime></timestamp>" //$NON-NLS-1$ //$NON-NLS-2$
+		+ "<rundeck><version>2.4.2</version><apiversion>12</apiversion></rundeck></system>"; //$NON-NLS-1$
+
+	private static final String EXECUTIONS_RESPONSE = "<executions count='1'>" //$NON-NLS-1$
+		+ "<execution id='42' href='http://rundeck:4440/project/project0/execution/follow/42' status='failed'>" //$NON-NLS-1$
+		+ "<date-started unixtime='1431536339809'>2015-05-13T16:58:59Z</date-started>" //$NON-NLS-1$
+		+ "<date-ended unixtime='1431536346423'>2015-05-13T16:59:06Z</date-ended>" //$NON-NLS-1$
+		+ "<job id='1'><name>backup</name></job><description>backup.sh</description>" //$NON-NLS-1$
+		+ "</execution>" //$NON-NLS-1$
+		+ "</executions>"; //$NON-NLS-1$
+
+	private final HttpServer httpServer;
+
+	private final ExecutorService serverExecutor = Executors.newCachedThreadPool();
+
+	private final List<String> projects = new ArrayList<>();
+
+	private final String rundeckUrl;
+
+	/**
+	 * Start the stub server on the loopback interface
+	 *
+	 * @param latency delay in milliseconds before each response
+	 * @param projectNumber number of monitored projects
+	 * @throws IOException in case of server error
+	 */
+	RundeckStartupBenchmark( final long latency, final int projectNumber ) throws IOException {
+
+		final StringBuilder projectsResponse = new StringBuilder( "<projects count='" ).append( projectNumber ).append( "'>" ); //$NON-NLS-1$ //$NON-NLS-2$
+		for( int i = 0 ; i < projectNumber ; i++ ) {
+			projects.add( PROJECT_PREFIX + i );
+			projectsResponse.append( "<project><name>" ).append( PROJECT_PREFIX ).append( i ).append( "</name><description/></project>" ); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		final byte[] projectsBody = projectsResponse.append( "</projects>" ).toString().getBytes( StandardCharsets.UTF_8 ); //$NON-NLS-1$
+		final byte[] systemInfoBody = SYSTEM_INFO_RESPONSE.getBytes( StandardCharsets.UTF_8 );
+		final byte[] executionsBody = EXECUTIONS_RESPONSE.getBytes( StandardCharsets.UTF_8 );
+
+		httpServer = HttpServer.create( new InetSocketAddress( InetAddress.getLoopbackAddress(), 0 ), 0 );
+		httpServer.setExecutor( serverExecutor );
+		httpServer.createContext( "/", new HttpHandler() { //$NON-NLS-1$
+			@Override
+			public void handle( final HttpExchange httpExchange ) throws IOException {
+
+				try {
+					Thread.sleep( latency );
+				}
+				catch( final InterruptedException e ) {
+					Thread.currentThread().interrupt();
+				}
+
+				final String path = httpExchange.getRequestURI().getPath();
+				final byte[] response;
+				if( path.endsWith( "/system/info" ) ) { //$NON-NLS-1$
+					response = systemInfoBody;
+				}
+				else if( path.endsWith( "/projects" ) ) { //$NON-NLS-1$
+					response = projectsBody;
+				}
+				else {
+					response = executionsBody;
+				}
+
+				httpExchange.getResponseHeaders().set( "Content-Type", "application/xml" ); //$NON-NLS-1$ //$NON-NLS-2$
+				httpExchange.sendResponseHeaders( HttpURLConnection.HTTP_OK, response.length );
+				try( final OutputStream outputStream = httpExchange.getResponseBody() ) {
+					outputStream.write( response );
+				}
+			}
+		} );
+		httpServer.start();
+
+		rundeckUrl = "http://127.0.0.1:" + httpServer.getAddress().getPort(); //$NON-NLS-1$
+	}
+
+	/**
+	 * Connect and get the first executions with the calls done one after the other
+	 *
+	 * @return connection and first menu durations in milliseconds
+	 * @throws IOException in case of call error
+	 */
+	long[] sequentialStartup() throws IOException {
+
+		final long start = System.currentTimeMillis();
+
+		final RundeckClient rundeckClient = RundeckClient.builder().url( rundeckUrl ).token( "token" ).version( API_VERSION ).build(); //$NON-NLS-1$
+		final RundeckExecutionsClient rundeckExecutionsClient = new RundeckExecutionsClient( rundeckUrl, "token", API_VERSION, new ConditionalRequestCache( new HttpTransport() ), new ClockOffsetEstimator() ); //$NON-NLS-1$
+
+		rundeckClient.testAuth();
+		rundeckClient.getProjects();
+		rundeckExecutionsClient.getServerTime();
+		final long connected = System.currentTimeMillis();
+
+		for( final String project : projects ) {
+			rundeckExecutionsClient.getFailedExecutions( project, null, FAILED_JOB_NUMBER, false );
+			rundeckExecutionsClient.getRunningExecutions( project, false );
+		}
+
+		return new long[] { connected - start, System.currentTimeMillis() - start };
+	}
+
+	/**
+	 * Connect and get the first executions with the server monitor
+	 *
+	 * @return connection and first menu durations in milliseconds
+	 * @throws UnknownProjectException if a project doesn't exist
+	 */
+	long[] concurrentStartup() throws UnknownProjectException {
+
+		final long start = System.currentTimeMillis();
+
+		final StringBuilder projectsProperty = new StringBuilder();
+		for( final String project : projects ) {
+			if( projectsProperty.length() > 0 ) {
+				projectsProperty.append( ',' );
+			}
+			projectsProperty.append( project );
+		}
+
+		final RundeckServerConfiguration rundeckServerConfiguration = new RundeckServerConfiguration( "rundeck", rundeckUrl, "token", null, null, projectsProperty.toString(), API_VERSION ); //$NON-NLS-1$ //$NON-NLS-2$
+		final RundeckServerMonitor rundeckServerMonitor = new RundeckServerMonitor( rundeckServerConfiguration, false, null, 1000L, new ConditionalRequestCache( new HttpTransport() ) );
+		try {
+			rundeckServerMonitor.startConnection( 60_000L );
+			rundeckServerMonitor.finishConnection();
+			final long connected = System.currentTimeMillis();
+
+			final long deadline = System.currentTimeMillis() + 60_000L;
+			rundeckServerMonitor.startUpdate( FAILED_JOB_NUMBER, true );
+			rundeckServerMonitor.waitProbe( deadline );
+			rundeckServerMonitor.resumeUpdate( FAILED_JOB_NUMBER, true );
+			rundeckServerMonitor.waitUpdate( deadline );
+			rundeckServerMonitor.finishUpdate( FAILED_JOB_NUMBER, LATE_THRESHOLD, true );
+
+			return new long[] { connected - start, System.currentTimeMillis() - start };
+		}
+		finally {
+			rundeckServerMonitor.dispose();
+		}
+	}
+
+	/**
+	 * Stop the stub server
+	 */
+	void stop() {
+
+		httpServer.stop( 0 );
+		serverExecutor.shutdownNow();
+	}
+
+	/**
+	 * Get the median of durations
+	 *
+	 * @param durations durations in milliseconds
+	 * @return median duration
+	 */
+	private static long median( final List<Long> durations ) {
+
+		final List<Long> sortedDurations = new ArrayList<>( durations );
+		Collections.sort( sortedDurations );
+		return sortedDurations.get( sortedDurations.size() / 2 ).longValue();
+	}
+
+	public static void main( final String args[] ) throws IOException, UnknownProjectException {
+
+		final List<String> arguments = Arrays.asList( args );
+		final long latency = arguments.size() > 0 ? Long.parseLong( arguments.get( 0 ) ) : 50L;
+		final int projectNumber = arguments.size() > 1 ? Integer.parseInt( arguments.get( 1 ) ) : 3;
+		final int runs = arguments.size() > 2 ? Integer.parseInt( arguments.get( 2 ) ) : 11;
+
+		final RundeckStartupBenchmark rundeckStartupBenchmark = new RundeckStartupBenchmark( latency, projectNumber );
+		try {
+			//Warm-up of the clients and parsers
+			rundeckStartupBenchmark.sequentialStartup();
+			rundeckStartupBenchmark.concurrentStartup();
+
+			final List<Long> sequentialConnections = new ArrayList<>();
+			final List<Long> sequentialMenus = new ArrayList<>();
+			final List<Long> concurrentConnections = new ArrayList<>();
+			final List<Long> concurrentMenus = new ArrayList<>();
+			for( int i = 0 ; i < runs ; i++ ) {
+
+				final long[] sequentialDurations = rundeckStartupBenchmark.sequentialStartup();
+				sequentialConnections.add( Long.valueOf( sequentialDurations[ 0 ] ) );
+				sequentialMenus.add( Long.valueOf( sequentialDurations[ 1 ] ) );
+
+				final long[] concurrentDurations = rundeckStartupBenchmark.concurrentStartup();
+				concurrentConnections.add( Long.valueOf( concurrentDurations[ 0 ] ) );
+				concurrentMenus.add( Long.valueOf( concurrentDurations[ 1 ] ) );
+			}
+
+			System.out.println( "Latency " + latency + " ms, " + projectNumber + " projects, median of " + runs + " runs" ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+			System.out.println( "Sequential: connected in " + median( sequentialConnections ) + " ms, first menu in " + median( sequentialMenus ) + " ms" ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			System.out.println( "Concurrent: connected in " + median( concurrentConnections ) + " ms, first menu in " + median( concurrentMenus ) + " ms" ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+		finally {
+			rundeckStartupBenchmark.stop();
+		}
+	}
+}
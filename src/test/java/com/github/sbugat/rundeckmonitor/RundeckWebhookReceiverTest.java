@@ -0,0 +1,126 @@
+package com.github.sbugat.rundeckmonitor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.rundeck.api.domain.RundeckExecution;
+import org.rundeck.api.domain.RundeckExecution.ExecutionStatus;
+
+/**
+ * Tests of the rundeck notifications receiver with a sample notification of a failed job
+ *
+ * @author Sylvain Bugat
+ *
+ */
+public class RundeckWebhookReceiverTest {
+
+	private static final String TOKEN = "secret"; //$NON-NLS-1$
+
+	/**Notification sent by rundeck on a job failure*/
+	private static final String FAILURE_NOTIFICATION = "<notification trigger='failure' status='failed' executionId='42'>" //$NON-NLS-1$
+		+ "<executions count='1'>" //$NON-NLS-1$
+		+ "<execution id='42' href='http://rundeck:4440/project/myproject/execution/follow/42' status='failed' project='myproject'>" //$NON-NLS-1$
+		+ "<user>admin</user>" //$NON-NLS-1$
+		+ "<date-started unixtime='1431536339809'>2015-05-13T16:58:59Z</date-started>" //$NON-NLS-1$
+		+ "<date-ended unixtime='1431536346423'>2015-05-13T16:59:06Z</date-ended>" //$NON-NLS-1$
+		+ "<job id='7b3fff59-7a2d-4a31-a5c2-e9f5e6d3a1c8' averageDuration='6614'>" //$NON-NLS-1$
+		+ "<name>backup</name><group></group><project>myproject</project><description>Nightly backup</description>" //$NON-NLS-1$
+		+ "</job>" //$NON-NLS-1$
+		+ "<description>backup.sh</description>" //$NON-NLS-1$
+		+ "<argstring/>" //$NON-NLS-1$
+		+ "</execution>" //$NON-NLS-1$
+		+ "</executions>" //$NON-NLS-1$
+		+ "</notification>"; //$NON-NLS-1$
+
+	/**Executions received by the stub listener*/
+	private final List<RundeckExecution> notifiedExecutions = new CopyOnWriteArrayList<>();
+
+	private RundeckWebhookReceiver rundeckWebhookReceiver;
+
+	@Before
+	public void startReceiver() throws IOException {
+
+		//Loopback interface and any free port
+		rundeckWebhookReceiver = new RundeckWebhookReceiver( null, 0, TOKEN, new RundeckWebhookReceiver.NotificationListener() {
+			@Override
+			@SuppressWarnings("synthetic-access")
+			public void executionsNotified( final List<RundeckExecution> rundeckExecutions ) {
+				notifiedExecutions.addAll( rundeckExecutions );
+			}
+		} );
+	}
+
+	@After
+	public void stopReceiver() {
+
+		rundeckWebhookReceiver.stop();
+	}
+
+	@Test
+	public void testFailureNotification() throws IOException {
+
+		assertEquals( HttpURLConnection.HTTP_NO_CONTENT, post( "/?token=" + TOKEN, FAILURE_NOTIFICATION ) ); //$NON-NLS-1$
+
+		assertEquals( 1, notifiedExecutions.size() );
+		final RundeckExecution rundeckExecution = notifiedExecutions.get( 0 );
+		assertEquals( Long.valueOf( 42L ), rundeckExecution.getId() );
+		assertEquals( ExecutionStatus.FAILED, rundeckExecution.getStatus() );
+		assertEquals( "myproject", rundeckExecution.getProject() ); //$NON-NLS-1$
+		assertEquals( "http://rundeck:4440/project/myproject/execution/follow/42", rundeckExecution.getUrl() ); //$NON-NLS-1$
+		assertEquals( "backup", rundeckExecution.getJob().getName() ); //$NON-NLS-1$
+		assertEquals( "backup.sh", rundeckExecution.getDescription() ); //$NON-NLS-1$
+		assertEquals( 1431536339809L, rundeckExecution.getStartedAt().getTime() );
+		assertEquals( 1431536346423L, rundeckExecution.getEndedAt().getTime() );
+	}
+
+	@Test
+	public void testInvalidToken() throws IOException {
+
+		assertEquals( HttpURLConnection.HTTP_FORBIDDEN, post( "/?token=other", FAILURE_NOTIFICATION ) ); //$NON-NLS-1$
+		assertEquals( HttpURLConnection.HTTP_FORBIDDEN, post( "/", FAILURE_NOTIFICATION ) ); //$NON-NLS-1$
+		assertTrue( notifiedExecutions.isEmpty() );
+	}
+
+	@Test
+	public void testInvalidNotification() throws IOException {
+
+		assertEquals( HttpURLConnection.HTTP_BAD_REQUEST, post( "/?token=" + TOKEN, "<notification><executions>" ) ); //$NON-NLS-1$ //$NON-NLS-2$
+		assertTrue( notifiedExecutions.isEmpty() );
+	}
+
+	/**
+	 * Post a notification to the receiver on the loopback interface
+	 *
+	 * @param path path and query of the webhook URL
+	 * @param notification notification body
+	 * @return response code
+	 * @throws IOException in case of connection error
+	 */
+	private int post( final String path, final String notification ) throws IOException {
+
+		final HttpURLConnection connection = (HttpURLConnection) new URL( "http://127.0.0.1:" + rundeckWebhookReceiver.getPort() + path ).openConnection(); //$NON-NLS-1$
+		try {
+			connection.setRequestMethod( "POST" ); //$NON-NLS-1$
+			connection.setDoOutput( true );
+			try( final OutputStream outputStream = connection.getOutputStream() ) {
+				outputStream.write( notification.getBytes( StandardCharsets.UTF_8 ) );
+			}
+
+			return connection.getResponseCode();
+		}
+		finally {
+			connection.disconnect();
+		}
+	}
+}
@@ -0,0 +1,210 @@
+package com.github.sbugat.rundeckmonitor.tools;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests of the bounded set of primitive long values
+ *
+ * @author Sylvain Bugat
+ *
+ */
+public class BoundedLongSetTest {
+
+	@Test
+	public void testAddAndContains() {
+
+		final BoundedLongSet boundedLongSet = new BoundedLongSet( 10 );
+
+		assertTrue( boundedLongSet.add( 42L ) );
+		assertTrue( boundedLongSet.add( -7L ) );
+		assertTrue( boundedLongSet.add( 0L ) );
+		assertFalse( boundedLongSet.add( 42L ) );
+
+		assertTrue( boundedLongSet.contains( 42L ) );
+		assertTrue( boundedLongSet.contains( -7L ) );
+		assertTrue( boundedLongSet.contains( 0L ) );
+		assertFalse( boundedLongSet.contains( 43L ) );
+		assertEquals( 3, boundedLongSet.size() );
+		assertArrayEquals( new long[] { 42L, -7L, 0L }, boundedLongSet.toArray() );
+	}
+
+	@Test
+	public void testEviction() {
+
+		final BoundedLongSet boundedLongSet = new BoundedLongSet( 3 );
+		for( long i = 1 ; i <= 5 ; i++ ) {
+			assertTrue( boundedLongSet.add( i ) );
+		}
+
+		//The 2 oldest values are evicted
+		assertFalse( boundedLongSet.contains( 1L ) );
+		assertFalse( boundedLongSet.contains( 2L ) );
+		assertTrue( boundedLongSet.contains( 3L ) );
+		assertTrue( boundedLongSet.contains( 4L ) );
+		assertTrue( boundedLongSet.contains( 5L ) );
+		assertEquals( 3, boundedLongSet.size() );
+		assertArrayEquals( new long[] { 3L, 4L, 5L }, boundedLongSet.toArray() );
+
+		//An evicted value can be added again
+		assertTrue( boundedLongSet.add( 1L ) );
+		assertArrayEquals( new long[] { 4L, 5L, 1L }, boundedLongSet.toArray() );
+	}
+
+	@Test
+	public void testWraparoundDeletion() {
+
+		//Capacity 4: hash table of 8 slots
+		final BoundedLongSet boundedLongSet = new BoundedLongSet( 4 );
+		final int lastSlot = 7;
+
+		//3 values with the last slot as ideal slot are stored in the slots 7, 0 and 1
+		final long[] lastSlotValues = findValues( boundedLongSet, lastSlot, 3, 0L );
+		//A value with the slot 0 as ideal slot is stored in the slot 2
+		final long firstSlotValue = findValues( boundedLongSet, 0, 1, 0L )[ 0 ];
+
+		for( final long value : lastSlotValues ) {
+			assertTrue( boundedLongSet.add( value ) );
+		}
+		assertTrue( boundedLongSet.add( firstSlotValue ) );
+
+		//The eviction of the value in the last slot shifts back the wrapped cluster
+		final long newValue = findValues( boundedLongSet, 4, 1, 1_000_000L )[ 0 ];
+		assertTrue( boundedLongSet.add( newValue ) );
+
+		assertFalse( boundedLongSet.contains( lastSlotValues[ 0 ] ) );
+		assertTrue( boundedLongSet.contains( lastSlotValues[ 1 ] ) );
+		assertTrue( boundedLongSet.contains( lastSlotValues[ 2 ] ) );
+		assertTrue( boundedLongSet.contains( firstSlotValue ) );
+		assertTrue( boundedLongSet.contains( newValue ) );
+
+		//Evict the other wrapped values
+		assertTrue( boundedLongSet.add( newValue + 1 ) );
+		assertTrue( boundedLongSet.add( newValue + 2 ) );
+		assertFalse( boundedLongSet.contains( lastSlotValues[ 1 ] ) );
+		assertFalse( boundedLongSet.contains( lastSlotValues[ 2 ] ) );
+		assertTrue( boundedLongSet.contains( firstSlotValue ) );
+		assertArrayEquals( new long[] { firstSlotValue, newValue, newValue + 1, newValue + 2 }, boundedLongSet.toArray() );
+	}
+
+	@Test
+	public void testRandomOperationsAgainstReference() {
+
+		final Random random = new Random( 12_345L );
+		for( int capacity = 1 ; capacity <= 17 ; capacity++ ) {
+
+			final BoundedLongSet boundedLongSet = new BoundedLongSet( capacity );
+			final Deque<Long> reference = new ArrayDeque<>();
+
+			for( int i = 0 ; i < 5_000 ; i++ ) {
+
+				final long value = random.nextInt( capacity * 3 );
+				final boolean added = ! reference.contains( Long.valueOf( value ) );
+				if( added ) {
+
+					if( reference.size() == capacity ) {
+						reference.removeFirst();
+					}
+					reference.addLast( Long.valueOf( value ) );
+				}
+
+				assertEquals( added, boundedLongSet.add( value ) );
+				assertEquals( reference.size(), boundedLongSet.size() );
+
+				for( long checkedValue = 0 ; checkedValue < capacity * 3 ; checkedValue++ ) {
+					assertEquals( reference.contains( Long.valueOf( checkedValue ) ), boundedLongSet.contains( checkedValue ) );
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testClear() {
+
+		final BoundedLongSet boundedLongSet = new BoundedLongSet( 4 );
+		for( long i = 0 ; i < 6 ; i++ ) {
+			boundedLongSet.add( i );
+		}
+
+		boundedLongSet.clear();
+
+		assertEquals( 0, boundedLongSet.size() );
+		assertArrayEquals( new long[ 0 ], boundedLongSet.toArray() );
+		for( long i = 0 ; i < 6 ; i++ ) {
+			assertFalse( boundedLongSet.contains( i ) );
+		}
+
+		//The set is usable after a clear
+		assertTrue( boundedLongSet.add( 5L ) );
+		assertTrue( boundedLongSet.contains( 5L ) );
+		assertArrayEquals( new long[] { 5L }, boundedLongSet.toArray() );
+	}
+
+	@Test
+	public void testFlatHeapWithMillionsOfIds() {
+
+		final int capacity = 100_000;
+		final BoundedLongSet boundedLongSet = new BoundedLongSet( capacity );
+		final long usedMemoryBefore = usedMemory();
+
+		for( long i = 0 ; i < 5_000_000 ; i++ ) {
+			boundedLongSet.add( i );
+		}
+
+		final long usedMemoryAfter = usedMemory();
+
+		assertEquals( capacity, boundedLongSet.size() );
+		assertTrue( boundedLongSet.contains( 4_999_999L ) );
+		assertFalse( boundedLongSet.contains( 4_899_999L ) );
+
+		//No memory is allocated per added value
+		assertTrue( "Heap growth: " + ( usedMemoryAfter - usedMemoryBefore ), usedMemoryAfter - usedMemoryBefore < 4L * 1024L * 1024L ); //$NON-NLS-1$
+	}
+
+	/**
+	 * Find values with the same ideal slot
+	 *
+	 * @param boundedLongSet set hashing the values
+	 * @param slot ideal slot of the values
+	 * @param number number of values to find
+	 * @param start first tested value
+	 * @return values with this ideal slot
+	 */
+	private static long[] findValues( final BoundedLongSet boundedLongSet, final int slot, final int number, final long start ) {
+
+		final long[] values = new long[ number ];
+		int found = 0;
+		for( long value = start ; found < number ; value++ ) {
+
+			if( boundedLongSet.hash( value ) == slot ) {
+				values[ found ] = value;
+				found++;
+			}
+		}
+
+		return values;
+	}
+
+	/**
+	 * Get the used heap after a garbage collection
+	 *
+	 * @return used heap in bytes
+	 */
+	private static long usedMemory() {
+
+		final Runtime runtime = Runtime.getRuntime();
+		for( int i = 0 ; i < 3 ; i++ ) {
+			System.gc();
+		}
+
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}